@@ -0,0 +1,122 @@
+package com.moodrop.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moodrop.model.cache.RenderedJson;
+import com.moodrop.model.catalog.PerfumeCatalogReloadedEvent;
+import com.moodrop.model.dto.MainAccordDto;
+import com.moodrop.model.dto.PerfumeBasicDto;
+import com.moodrop.model.dto.PerfumeWrapper;
+
+/**
+ * 향수 상세 정보 Cache 설정.
+ * Caffeine(W-TinyLFU)을 써서 자주 조회되는 향수가 남도록 하고, 항목 수가 아닌 추정 byte 크기로 상한을 둔다.
+ * cache 이름이 namespace이고, /api/admin/cache 에서 namespace 또는 perfumeId 단위로 비울 수 있다.
+ **/
+@Configuration
+@EnableCaching
+public class CacheConfig {
+	
+	// perfumeId -> PerfumeWrapper
+	public static final String PERFUME = "perfume";
+	
+	// perfumeId -> 미리 직렬화한 JSON byte[] + ETag
+	public static final String PERFUME_JSON = "perfumeJson";
+	
+	/**
+	 * name과, name의 값으로 만든 cache들. (perfumeJson은 perfume의 PerfumeWrapper를 직렬화한 것이라 같이 비워야 한다.)
+	 **/
+	public static List<String> withDerived(String name) {
+		return PERFUME.equals(name) ? List.of(PERFUME, PERFUME_JSON) : List.of(name);
+	}
+	
+	@Value("${moodrop.cache.perfume.max-bytes:67108864}")
+	private long perfumeMaxBytes;
+	
+	@Value("${moodrop.cache.perfume-json.max-bytes:33554432}")
+	private long perfumeJsonMaxBytes;
+	
+	@Bean
+	public CacheManager cacheManager() {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+		cacheManager.setAllowNullValues(false);
+		// 이름을 고정해 둔다. (모르는 이름으로 getCache를 해도 상한 없는 cache가 새로 생기지 않는다.)
+		cacheManager.setCacheNames(List.of(PERFUME, PERFUME_JSON));
+		cacheManager.registerCustomCache(PERFUME, Caffeine.newBuilder()
+				.maximumWeight(perfumeMaxBytes)
+				.weigher((Object key, Object value) -> estimateBytes((PerfumeWrapper) value))
+				.recordStats()
+				.build());
+		cacheManager.registerCustomCache(PERFUME_JSON, Caffeine.newBuilder()
+				.maximumWeight(perfumeJsonMaxBytes)
+				.weigher((Object key, Object value) -> 64 + ((RenderedJson) value).body().length)
+				.recordStats()
+				.build());
+		return cacheManager;
+	}
+	
+	// 카탈로그가 바뀌면 이전 snapshot으로 만든 향수 정보는 버린다.
+	@EventListener
+	public void onCatalogReloaded(PerfumeCatalogReloadedEvent event) {
+		cacheManager().getCache(PERFUME).clear();
+		cacheManager().getCache(PERFUME_JSON).clear();
+	}
+	
+	/**
+	 * PerfumeWrapper의 대략적인 heap 크기 (객체 헤더 + 문자열 UTF-16 기준).
+	 * comment가 많은 향수일수록 크게 계산돼서 cache 공간을 더 차지한다.
+	 **/
+	static int estimateBytes(PerfumeWrapper wrapper) {
+		long bytes = 256;
+		PerfumeBasicDto basic = wrapper.getPerfumeBasic();
+		if (basic != null) {
+			bytes += stringBytes(basic.getPerfumeName()) + stringBytes(basic.getBrandName())
+					+ stringBytes(basic.getDescription()) + stringBytes(basic.getCountry())
+					+ stringBytes(basic.getGender());
+			if (basic.getComments() != null) {
+				for (String comment : basic.getComments()) {
+					bytes += 8 + stringBytes(comment);
+				}
+			}
+		}
+		bytes += mapBytes(wrapper.getDayNightInfo()) + mapBytes(wrapper.getLongevityInfo())
+				+ mapBytes(wrapper.getSeasonInfo()) + mapBytes(wrapper.getSillageInfo());
+		if (wrapper.getMainAccord() != null) {
+			for (MainAccordDto accord : wrapper.getMainAccord()) {
+				bytes += 32 + stringBytes(accord.getName());
+			}
+		}
+		if (wrapper.getNotes() != null) {
+			for (Map.Entry<String, List<String>> e : wrapper.getNotes().entrySet()) {
+				bytes += 64 + stringBytes(e.getKey());
+				for (String note : e.getValue()) {
+					bytes += 8 + stringBytes(note);
+				}
+			}
+		}
+		return (int) Math.min(Integer.MAX_VALUE, bytes);
+	}
+	
+	private static long mapBytes(Map<String, Integer> map) {
+		if (map == null) return 0;
+		long bytes = 48;
+		for (String key : map.keySet()) {
+			bytes += 48 + stringBytes(key);
+		}
+		return bytes;
+	}
+	
+	private static long stringBytes(String s) {
+		return s == null ? 0 : 40 + 2L * s.length();
+	}
+}
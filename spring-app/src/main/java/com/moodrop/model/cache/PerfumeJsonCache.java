@@ -0,0 +1,40 @@
+package com.moodrop.model.cache;
+
+import java.sql.SQLException;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrop.config.CacheConfig;
+import com.moodrop.model.dto.PerfumeWrapper;
+import com.moodrop.model.service.PerfumeService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * /api/perfume/{perfumeId} 응답을 byte[]로 미리 직렬화해 둔다.
+ * 향수 정보가 바뀌기 전(카탈로그 reload, 관리자 evict)까지는 Jackson 직렬화 없이 같은 byte[]와 ETag를 돌려준다.
+ **/
+@Component
+@RequiredArgsConstructor
+public class PerfumeJsonCache {
+
+	private final PerfumeService service;
+	// MVC와 같은 설정의 ObjectMapper (응답 JSON이 기존과 같도록)
+	private final ObjectMapper objectMapper;
+
+	@Cacheable(cacheNames = CacheConfig.PERFUME_JSON, key = "#perfumeId", sync = true)
+	public RenderedJson render(int perfumeId) throws SQLException {
+		PerfumeWrapper perfume = service.getPerfumeWrapper(perfumeId);
+		try {
+			byte[] body = objectMapper.writeValueAsBytes(perfume);
+			String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+			return new RenderedJson(body, etag);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Perfume JSON serialization failed", e);
+		}
+	}
+}
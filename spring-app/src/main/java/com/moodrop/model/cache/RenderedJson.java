@@ -0,0 +1,7 @@
+package com.moodrop.model.cache;
+
+/**
+ * 미리 직렬화한 JSON 응답 본문과, 본문 내용으로 만든 strong ETag.
+ **/
+public record RenderedJson(byte[] body, String etag) {
+}
@@ -0,0 +1,121 @@
+package com.moodrop.model.catalog;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.moodrop.model.dao.PerfumeDao.AccordNoteRow;
+
+/**
+ * accord x note 가중치 행렬 (accord_note 전체).
+ * note 열마다 accord 가중치 합이 1이 되도록 맞춰 두어, 열 하나가 "그 note를 넣었을 때의 accord 분포"가 된다.
+ * solve()는 목표 accord 분포를 보유 note 열의 음이 아닌 조합으로 가장 가깝게 맞춘다. (NNLS)
+ **/
+public final class AccordNoteMatrix {
+
+	private final int[] accordIds;   // 오름차순, 행 번호 = index
+	private final int[] noteIds;     // 오름차순, 열 번호 = index
+	private final float[] weights;   // [accord * noteCount + note], 열 합 1
+
+	// 비율 합 = 1 조건의 가중치 (accord 오차보다 크게 둔다.)
+	private static final double SUM_ROW_WEIGHT = 10;
+
+	AccordNoteMatrix(List<AccordNoteRow> rows) {
+		this.accordIds = rows.stream().mapToInt(row -> row.accordId.intValue()).distinct().sorted().toArray();
+		this.noteIds = rows.stream().mapToInt(row -> row.noteId.intValue()).distinct().sorted().toArray();
+		this.weights = new float[accordIds.length * noteIds.length];
+		double[] columnSums = new double[noteIds.length];
+		for (AccordNoteRow row : rows) {
+			if (!(row.weight > 0)) continue;
+			int accord = Arrays.binarySearch(accordIds, row.accordId.intValue());
+			int note = Arrays.binarySearch(noteIds, row.noteId.intValue());
+			weights[accord * noteIds.length + note] += (float) row.weight;
+			columnSums[note] += row.weight;
+		}
+		for (int a = 0; a < accordIds.length; a++) {
+			for (int n = 0; n < noteIds.length; n++) {
+				if (columnSums[n] > 0) weights[a * noteIds.length + n] /= (float) columnSums[n];
+			}
+		}
+	}
+
+	public int accordCount() {
+		return accordIds.length;
+	}
+
+	public int noteCount() {
+		return noteIds.length;
+	}
+
+	/**
+	 * 목표 accord 분포(accord id -> 가중치, 합은 상관없음)를 noteIds의 비율로 맞춘다.
+	 * 반환하는 비율은 noteIds 순서이고 합이 1이다. (accord_note에 없는 note는 0, 맞출 수 없으면 모두 0)
+	 **/
+	public double[] solve(Map<Integer, Float> target, int[] noteIdList) {
+		// 합이 1이 되도록 "비율 합" 행을 하나 더 붙여 함께 맞춘다.
+		double[] b = Arrays.copyOf(targetVector(target), accordIds.length + 1);
+		b[accordIds.length] = SUM_ROW_WEIGHT;
+		double[][] columns = columns(noteIdList);
+		for (int j = 0; j < columns.length; j++) {
+			columns[j] = Arrays.copyOf(columns[j], accordIds.length + 1);
+			columns[j][accordIds.length] = SUM_ROW_WEIGHT;
+		}
+		double[] x = NoteBlendSolver.nnls(columns, b);
+		double sum = 0;
+		for (double v : x) sum += v;
+		if (!(sum > 0)) return new double[noteIdList.length];
+		for (int j = 0; j < x.length; j++) {
+			x[j] /= sum;
+		}
+		return x;
+	}
+
+	/**
+	 * 비율(합 1)로 섞었을 때의 accord 분포와 목표 분포(합 1로 맞춘 것)의 거리 (L2)
+	 **/
+	public double fitError(Map<Integer, Float> target, int[] noteIdList, double[] proportions) {
+		double[] b = targetVector(target);
+		double[][] columns = columns(noteIdList);
+		double error = 0;
+		for (int a = 0; a < b.length; a++) {
+			double mixed = 0;
+			for (int j = 0; j < columns.length; j++) {
+				mixed += columns[j][a] * proportions[j];
+			}
+			error += (mixed - b[a]) * (mixed - b[a]);
+		}
+		return Math.sqrt(error);
+	}
+
+	// 목표 accord 가중치를 행 순서로 펼치고 합 1로 맞춘다. (모르는 accord는 빠진다.)
+	private double[] targetVector(Map<Integer, Float> target) {
+		double[] b = new double[accordIds.length];
+		double sum = 0;
+		for (Map.Entry<Integer, Float> entry : target.entrySet()) {
+			int accord = entry.getKey() == null ? -1 : Arrays.binarySearch(accordIds, entry.getKey());
+			float weight = entry.getValue() == null ? 0 : entry.getValue();
+			if (accord < 0 || !(weight > 0)) continue;
+			b[accord] += weight;
+			sum += weight;
+		}
+		if (sum > 0) {
+			for (int a = 0; a < b.length; a++) {
+				b[a] /= sum;
+			}
+		}
+		return b;
+	}
+
+	// note id마다 accord 분포 열 (accord_note에 없는 note는 0 열)
+	private double[][] columns(int[] noteIdList) {
+		double[][] columns = new double[noteIdList.length][accordIds.length];
+		for (int j = 0; j < noteIdList.length; j++) {
+			int note = Arrays.binarySearch(noteIds, noteIdList[j]);
+			if (note < 0) continue;
+			for (int a = 0; a < accordIds.length; a++) {
+				columns[j][a] = weights[a * noteIds.length + note];
+			}
+		}
+		return columns;
+	}
+}
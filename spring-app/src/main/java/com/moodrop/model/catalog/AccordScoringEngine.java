@@ -0,0 +1,147 @@
+package com.moodrop.model.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.moodrop.model.dto.PerfumeMatchDto;
+
+/**
+ * 선택한 accord의 perfume_main_accords.weight 합으로 향수 순위를 매긴다. (searchByAccord의 in-memory 버전)
+ * 향수 x accord weight는 accord별 향수 목록(CSR)으로 뒤집어 두고, determined_notes가 없는 향수는 미리 뺀다.
+ * 요청마다 선택한 accord의 목록만 훑어 Thread별 점수 배열에 더하고, 상위 K개는 TopKHeap으로 고른다.
+ **/
+@Component
+public class AccordScoringEngine {
+
+	private final AtomicReference<Index> current = new AtomicReference<>();
+
+	// 향수 index별 점수/일치 개수 (요청이 끝나면 건드린 칸만 0으로 되돌린다.)
+	private static final ThreadLocal<float[]> SCORES = ThreadLocal.withInitial(() -> new float[0]);
+	private static final ThreadLocal<int[]> COUNTS = ThreadLocal.withInitial(() -> new int[0]);
+
+	record Index(
+			CatalogSnapshot snapshot,
+			int[] offsets,      // accord index별 [offsets[a], offsets[a + 1])
+			int[] perfumes,     // 향수 index
+			float[] weights) {
+	}
+
+	@EventListener
+	public void onCatalogReloaded(PerfumeCatalogReloadedEvent event) {
+		current.set(build(event.snapshot()));
+	}
+
+	public boolean isReady() {
+		return current.get() != null;
+	}
+
+	/**
+	 * accord id 목록의 weight 합 내림차순, 같으면 일치 accord 수 내림차순, perfumeId 오름차순으로 최대 k개.
+	 * index가 아직 없으면 null (호출한 쪽은 SQL로 조회한다.)
+	 **/
+	public List<PerfumeMatchDto> topPerfumes(Collection<Integer> accordIds, int k) {
+		Index index = current.get();
+		if (index == null) return null;
+		CatalogSnapshot snapshot = index.snapshot();
+
+		// 선택한 accord index (중복 제거)
+		int[] selected = new LinkedHashSet<>(accordIds).stream()
+				.filter(Objects::nonNull)
+				.mapToInt(snapshot::indexOfAccord)
+				.filter(a -> a >= 0)
+				.toArray();
+		int postings = 0;
+		for (int a : selected) {
+			postings += index.offsets()[a + 1] - index.offsets()[a];
+		}
+
+		float[] scores = scores(snapshot.perfumeCount());
+		int[] counts = counts(snapshot.perfumeCount());
+		int[] touched = new int[Math.min(postings, snapshot.perfumeCount())];
+		int touchedSize = 0;
+		try {
+			for (int a : selected) {
+				for (int r = index.offsets()[a]; r < index.offsets()[a + 1]; r++) {
+					int p = index.perfumes()[r];
+					if (counts[p]++ == 0) touched[touchedSize++] = p;
+					scores[p] += index.weights()[r];
+				}
+			}
+
+			TopKHeap heap = new TopKHeap(Math.min(k, touchedSize), (a, b) -> {
+				if (scores[a] != scores[b]) return scores[a] > scores[b];
+				if (counts[a] != counts[b]) return counts[a] > counts[b];
+				return a < b;
+			});
+			for (int t = 0; t < touchedSize; t++) {
+				heap.offer(touched[t]);
+			}
+
+			List<PerfumeMatchDto> result = new ArrayList<>(heap.size());
+			for (int p : heap.drain()) {
+				result.add(new PerfumeMatchDto(snapshot.perfumeId(p), counts[p], scores[p]));
+			}
+			return result;
+		} finally {
+			for (int t = 0; t < touchedSize; t++) {
+				scores[touched[t]] = 0;
+				counts[touched[t]] = 0;
+			}
+		}
+	}
+
+	static Index build(CatalogSnapshot snapshot) {
+		PerfumeRows rows = snapshot.mainAccords();
+		PerfumeRows determined = snapshot.determinedNotes();
+
+		// accord별 개수를 센 뒤 제자리에 채운다. (향수 index 순으로 훑으므로 목록은 향수 index 오름차순)
+		int[] offsets = new int[snapshot.accordCount() + 1];
+		for (int p = 0; p < snapshot.perfumeCount(); p++) {
+			if (determined.count(p) == 0) continue;
+			for (int r = rows.start(p); r < rows.end(p); r++) {
+				offsets[rows.label(r) + 1]++;
+			}
+		}
+		for (int a = 0; a < snapshot.accordCount(); a++) {
+			offsets[a + 1] += offsets[a];
+		}
+
+		int[] next = offsets.clone();
+		int[] perfumes = new int[offsets[snapshot.accordCount()]];
+		float[] weights = new float[perfumes.length];
+		for (int p = 0; p < snapshot.perfumeCount(); p++) {
+			if (determined.count(p) == 0) continue;
+			for (int r = rows.start(p); r < rows.end(p); r++) {
+				int at = next[rows.label(r)]++;
+				perfumes[at] = p;
+				weights[at] = rows.value(r);
+			}
+		}
+		return new Index(snapshot, offsets, perfumes, weights);
+	}
+
+	private static float[] scores(int perfumeCount) {
+		float[] scores = SCORES.get();
+		if (scores.length < perfumeCount) {
+			scores = new float[perfumeCount];
+			SCORES.set(scores);
+		}
+		return scores;
+	}
+
+	private static int[] counts(int perfumeCount) {
+		int[] counts = COUNTS.get();
+		if (counts.length < perfumeCount) {
+			counts = new int[perfumeCount];
+			COUNTS.set(counts);
+		}
+		return counts;
+	}
+}
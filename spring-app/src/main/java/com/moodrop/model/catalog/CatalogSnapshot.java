@@ -0,0 +1,285 @@
+package com.moodrop.model.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.moodrop.model.dto.MainAccordDto;
+import com.moodrop.model.dto.NotesDto;
+import com.moodrop.model.dto.PerfumeBasicDto;
+import com.moodrop.model.dto.PerfumeWrapper;
+
+/**
+ * 향수 카탈로그의 읽기 전용 snapshot.
+ * 향수/note/accord는 각각 id 오름차순의 dense index(0..count-1)로 다루고,
+ * 문자열은 strings 테이블에 한 번만 저장한 뒤 나머지 컬럼은 int/float 배열로 보관한다.
+ * 생성 후에는 바뀌지 않으므로 여러 Thread에서 그대로 읽어도 된다.
+ **/
+public final class CatalogSnapshot {
+	// 중복 제거된 문자열 테이블 (string ref = index, null은 -1)
+	final String[] strings;
+
+	// perfumes (index = 향수 dense index)
+	final int[] perfumeIds;
+	final int[] perfumeName;
+	final int[] brandName;
+	final int[] description;
+	final int[] gender;
+	final int[] country;
+	final int[] year;
+	final int[] ratingVal;
+	final int[] ratingCount;
+
+	// 향수별 row
+	final PerfumeRows comments;        // label: comment ref
+	final PerfumeRows dayNight;        // label: day_night ref, value: weight
+	final PerfumeRows longevity;       // label: length ref, value: vote_num
+	final PerfumeRows season;          // label: season ref, value: weight
+	final PerfumeRows sillage;         // label: strength ref, value: vote_num
+	final PerfumeRows mainAccords;     // label: accord index, value: weight
+	final PerfumeRows notes;           // label: note index
+	final PerfumeRows determinedNotes; // label: note index, weight: percentage
+
+	// notes (index = note dense index)
+	final int[] noteIds;
+	final int[] noteName;
+	final int[] noteKoreanName;
+	final int[] noteType;
+
+	// accords (index = accord dense index)
+	final int[] accordIds;
+	final int[] accordName;
+
+	final long builtAt;
+
+	CatalogSnapshot(CatalogSnapshotBuilder b) {
+		this.strings = b.strings;
+		this.perfumeIds = b.perfumeIds;
+		this.perfumeName = b.perfumeName;
+		this.brandName = b.brandName;
+		this.description = b.description;
+		this.gender = b.gender;
+		this.country = b.country;
+		this.year = b.year;
+		this.ratingVal = b.ratingVal;
+		this.ratingCount = b.ratingCount;
+		this.comments = b.comments;
+		this.dayNight = b.dayNight;
+		this.longevity = b.longevity;
+		this.season = b.season;
+		this.sillage = b.sillage;
+		this.mainAccords = b.mainAccords;
+		this.notes = b.notes;
+		this.determinedNotes = b.determinedNotes;
+		this.noteIds = b.noteIds;
+		this.noteName = b.noteName;
+		this.noteKoreanName = b.noteKoreanName;
+		this.noteType = b.noteType;
+		this.accordIds = b.accordIds;
+		this.accordName = b.accordName;
+		this.builtAt = System.currentTimeMillis();
+	}
+
+	// ---- index / id 변환 ----
+
+	public int perfumeCount() {
+		return perfumeIds.length;
+	}
+
+	public int perfumeId(int perfumeIndex) {
+		return perfumeIds[perfumeIndex];
+	}
+
+	// 없으면 -1
+	public int indexOfPerfume(int perfumeId) {
+		int idx = Arrays.binarySearch(perfumeIds, perfumeId);
+		return idx < 0 ? -1 : idx;
+	}
+
+	public int noteCount() {
+		return noteIds.length;
+	}
+
+	public int noteId(int noteIndex) {
+		return noteIds[noteIndex];
+	}
+
+	public int indexOfNote(int noteId) {
+		int idx = Arrays.binarySearch(noteIds, noteId);
+		return idx < 0 ? -1 : idx;
+	}
+
+	public String noteName(int noteIndex) {
+		return string(noteName[noteIndex]);
+	}
+
+	public String noteKoreanName(int noteIndex) {
+		return string(noteKoreanName[noteIndex]);
+	}
+
+	public String noteType(int noteIndex) {
+		return string(noteType[noteIndex]);
+	}
+
+	public int accordCount() {
+		return accordIds.length;
+	}
+
+	public int accordId(int accordIndex) {
+		return accordIds[accordIndex];
+	}
+
+	public int indexOfAccord(int accordId) {
+		int idx = Arrays.binarySearch(accordIds, accordId);
+		return idx < 0 ? -1 : idx;
+	}
+
+	public String accordName(int accordIndex) {
+		return string(accordName[accordIndex]);
+	}
+
+	public String perfumeName(int perfumeIndex) {
+		return string(perfumeName[perfumeIndex]);
+	}
+
+	public String brandName(int perfumeIndex) {
+		return string(brandName[perfumeIndex]);
+	}
+
+	public int ratingCount(int perfumeIndex) {
+		return ratingCount[perfumeIndex];
+	}
+
+	public PerfumeRows mainAccords() {
+		return mainAccords;
+	}
+
+	public PerfumeRows notes() {
+		return notes;
+	}
+
+	public PerfumeRows determinedNotes() {
+		return determinedNotes;
+	}
+
+	public long builtAt() {
+		return builtAt;
+	}
+
+	private String string(int ref) {
+		return ref < 0 ? null : strings[ref];
+	}
+
+	// ---- DTO 조립 ----
+
+	/**
+	 * 향수 index의 PerfumeWrapper를 새로 만든다. (DB 경로와 같은 JSON)
+	 * 호출한 쪽에서 DTO를 수정해도 snapshot에는 영향이 없다.
+	 **/
+	public PerfumeWrapper toWrapper(int perfumeIndex, boolean withComments) {
+		int i = perfumeIndex;
+		PerfumeBasicDto basic = new PerfumeBasicDto();
+		basic.setId(perfumeIds[i]);
+		basic.setPerfumeName(string(perfumeName[i]));
+		basic.setBrandName(string(brandName[i]));
+		basic.setDescription(string(description[i]));
+		basic.setGender(string(gender[i]));
+		basic.setCountry(string(country[i]));
+		basic.setYear(year[i]);
+		basic.setRatingVal(ratingVal[i]);
+		basic.setRatingCount(ratingCount[i]);
+		if (withComments) {
+			List<String> commentList = new ArrayList<>(comments.count(i));
+			for (int k = comments.start(i); k < comments.end(i); k++) {
+				commentList.add(strings[comments.label(k)]);
+			}
+			basic.setComments(commentList);
+		}
+
+		List<MainAccordDto> accordList = new ArrayList<>(mainAccords.count(i));
+		for (int k = mainAccords.start(i); k < mainAccords.end(i); k++) {
+			MainAccordDto accord = new MainAccordDto();
+			accord.setName(accordName(mainAccords.label(k)));
+			accord.setWeight(mainAccords.value(k));
+			accord.setPerfumeId(perfumeIds[i]);
+			accordList.add(accord);
+		}
+
+		Map<String, List<String>> notesMap = new LinkedHashMap<>();
+		for (int k = notes.start(i); k < notes.end(i); k++) {
+			int note = notes.label(k);
+			String type = noteType(note);
+			String name = noteName(note);
+			if (type == null || name == null) continue;
+			notesMap.computeIfAbsent(type.toLowerCase(), key -> new ArrayList<>()).add(name);
+		}
+
+		return new PerfumeWrapper(basic, toMap(dayNight, i), toMap(longevity, i), accordList, notesMap,
+				toMap(season, i), toMap(sillage, i));
+	}
+
+	/**
+	 * 향수 index의 determined note 목록 (selectDeterminedNotes와 같은 형태)
+	 **/
+	public List<NotesDto> toDeterminedNotes(int perfumeIndex) {
+		List<NotesDto> result = new ArrayList<>(determinedNotes.count(perfumeIndex));
+		for (int k = determinedNotes.start(perfumeIndex); k < determinedNotes.end(perfumeIndex); k++) {
+			int note = determinedNotes.label(k);
+			NotesDto dto = new NotesDto();
+			dto.setNoteId(noteIds[note]);
+			dto.setName(noteName(note));
+			dto.setType(noteType(note));
+			dto.setWeight((int) determinedNotes.weight(k));
+			result.add(dto);
+		}
+		return result;
+	}
+
+	private Map<String, Integer> toMap(PerfumeRows rows, int perfumeIndex) {
+		Map<String, Integer> map = new HashMap<>();
+		for (int k = rows.start(perfumeIndex); k < rows.end(perfumeIndex); k++) {
+			map.put(strings[rows.label(k)], rows.value(k));
+		}
+		return map;
+	}
+
+	// ---- 메모리 사용량 ----
+
+	/**
+	 * snapshot이 차지하는 heap 크기(추정치)와 테이블별 row 수.
+	 * 배열은 원소 크기 x 길이, 문자열은 String 객체 헤더 + byte[] (Latin1 1byte, 그 외 2byte)로 계산한다.
+	 **/
+	public Map<String, Object> footprint() {
+		long arrayBytes = 4L * (perfumeIds.length * 9L + noteIds.length * 4L + accordIds.length * 2L)
+				+ comments.bytes() + dayNight.bytes() + longevity.bytes() + season.bytes()
+				+ sillage.bytes() + mainAccords.bytes() + notes.bytes() + determinedNotes.bytes()
+				+ 4L * strings.length;
+		long stringBytes = 0;
+		for (String s : strings) {
+			boolean latin1 = true;
+			for (int c = 0; c < s.length() && latin1; c++) {
+				latin1 = s.charAt(c) < 256;
+			}
+			// String(24) + byte[] header(16) + 본문
+			stringBytes += 40L + (latin1 ? s.length() : 2L * s.length());
+		}
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("perfumes", perfumeIds.length);
+		report.put("notes", noteIds.length);
+		report.put("accords", accordIds.length);
+		report.put("strings", strings.length);
+		report.put("commentRows", comments.size());
+		report.put("noteRows", notes.size());
+		report.put("determinedNoteRows", determinedNotes.size());
+		report.put("mainAccordRows", mainAccords.size());
+		report.put("arrayBytes", arrayBytes);
+		report.put("stringBytes", stringBytes);
+		report.put("totalBytes", arrayBytes + stringBytes);
+		report.put("builtAt", builtAt);
+		return report;
+	}
+}
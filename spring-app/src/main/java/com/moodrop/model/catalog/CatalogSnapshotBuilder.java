@@ -0,0 +1,203 @@
+package com.moodrop.model.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.session.ResultHandler;
+
+import com.moodrop.model.dao.CatalogDao;
+import com.moodrop.model.dao.CatalogDao.AccordRow;
+import com.moodrop.model.dao.CatalogDao.AttributeRow;
+import com.moodrop.model.dao.CatalogDao.NoteRow;
+import com.moodrop.model.dao.CatalogDao.RefRow;
+import com.moodrop.model.dto.PerfumeBasicDto;
+
+/**
+ * CatalogDao로 전체 테이블을 읽어 CatalogSnapshot을 만든다.
+ * 향수/note/accord 테이블을 먼저 읽어 dense index를 정한 뒤, 나머지 테이블의 row를 index로 바꿔 쌓는다.
+ * 어느 테이블도 row 목록(DTO List)으로 모으지 않고, ResultHandler가 넘겨주는 row를 바로 배열/Builder에 넣는다.
+ * 참조하는 향수/note/accord가 없는 row는 버린다.
+ **/
+final class CatalogSnapshotBuilder {
+	private final CatalogDao dao;
+
+	// 문자열 중복 제거
+	private final Map<String, Integer> internTable = new HashMap<>();
+	private final List<String> internList = new ArrayList<>();
+
+	String[] strings;
+	int[] perfumeIds, perfumeName, brandName, description, gender, country, year, ratingVal, ratingCount;
+	PerfumeRows comments, dayNight, longevity, season, sillage, mainAccords, notes, determinedNotes;
+	int[] noteIds, noteName, noteKoreanName, noteType;
+	int[] accordIds, accordName;
+
+	CatalogSnapshotBuilder(CatalogDao dao) {
+		this.dao = dao;
+	}
+
+	CatalogSnapshot build() {
+		loadNotes();
+		loadAccords();
+		loadPerfumes();
+
+		comments = attributeRows(dao::selectCatalogComments, false);
+		dayNight = attributeRows(dao::selectCatalogDayNight, true);
+		longevity = attributeRows(dao::selectCatalogLongevity, true);
+		season = attributeRows(dao::selectCatalogSeason, true);
+		sillage = attributeRows(dao::selectCatalogSillage, true);
+
+		PerfumeRows.Builder accordRows = new PerfumeRows.Builder(perfumeIds.length, true, false);
+		dao.selectCatalogMainAccords(ctx -> {
+			RefRow row = ctx.getResultObject();
+			int p = indexOf(perfumeIds, row.perfumeId);
+			int a = indexOf(accordIds, row.refId);
+			if (p >= 0 && a >= 0) accordRows.add(p, a, row.value, 0f);
+		});
+		mainAccords = accordRows.build();
+
+		notes = noteRows(dao::selectCatalogPerfumeNotes, false);
+		determinedNotes = noteRows(dao::selectCatalogDeterminedNotes, true);
+
+		strings = internList.toArray(new String[0]);
+		return new CatalogSnapshot(this);
+	}
+
+	// 향수/note/accord는 id 오름차순(ORDER BY id)으로 받아 row마다 배열에 바로 채운다.
+	private void loadNotes() {
+		int[] n = {0};
+		noteIds = noteName = noteKoreanName = noteType = new int[0];
+		dao.selectCatalogNotes(ctx -> {
+			NoteRow row = ctx.getResultObject();
+			int i = n[0]++;
+			if (i == noteIds.length) {
+				int capacity = grow(i);
+				noteIds = Arrays.copyOf(noteIds, capacity);
+				noteName = Arrays.copyOf(noteName, capacity);
+				noteKoreanName = Arrays.copyOf(noteKoreanName, capacity);
+				noteType = Arrays.copyOf(noteType, capacity);
+			}
+			noteIds[i] = requireAscending(noteIds, i, row.id, "notes");
+			noteName[i] = intern(row.name);
+			noteKoreanName[i] = intern(row.koreanName);
+			noteType[i] = intern(row.type);
+		});
+		noteIds = Arrays.copyOf(noteIds, n[0]);
+		noteName = Arrays.copyOf(noteName, n[0]);
+		noteKoreanName = Arrays.copyOf(noteKoreanName, n[0]);
+		noteType = Arrays.copyOf(noteType, n[0]);
+	}
+
+	private void loadAccords() {
+		int[] n = {0};
+		accordIds = accordName = new int[0];
+		dao.selectCatalogAccords(ctx -> {
+			AccordRow row = ctx.getResultObject();
+			int i = n[0]++;
+			if (i == accordIds.length) {
+				int capacity = grow(i);
+				accordIds = Arrays.copyOf(accordIds, capacity);
+				accordName = Arrays.copyOf(accordName, capacity);
+			}
+			accordIds[i] = requireAscending(accordIds, i, row.id, "accords");
+			accordName[i] = intern(row.name);
+		});
+		accordIds = Arrays.copyOf(accordIds, n[0]);
+		accordName = Arrays.copyOf(accordName, n[0]);
+	}
+
+	private void loadPerfumes() {
+		int[] n = {0};
+		perfumeIds = perfumeName = brandName = description = gender = country = year = ratingVal = ratingCount = new int[0];
+		dao.selectCatalogPerfumes(ctx -> {
+			PerfumeBasicDto row = ctx.getResultObject();
+			int i = n[0]++;
+			if (i == perfumeIds.length) {
+				int capacity = grow(i);
+				perfumeIds = Arrays.copyOf(perfumeIds, capacity);
+				perfumeName = Arrays.copyOf(perfumeName, capacity);
+				brandName = Arrays.copyOf(brandName, capacity);
+				description = Arrays.copyOf(description, capacity);
+				gender = Arrays.copyOf(gender, capacity);
+				country = Arrays.copyOf(country, capacity);
+				year = Arrays.copyOf(year, capacity);
+				ratingVal = Arrays.copyOf(ratingVal, capacity);
+				ratingCount = Arrays.copyOf(ratingCount, capacity);
+			}
+			perfumeIds[i] = requireAscending(perfumeIds, i, row.getId(), "perfumes");
+			perfumeName[i] = intern(row.getPerfumeName());
+			brandName[i] = intern(row.getBrandName());
+			description[i] = intern(row.getDescription());
+			gender[i] = intern(row.getGender());
+			country[i] = intern(row.getCountry());
+			year[i] = row.getYear();
+			ratingVal[i] = row.getRatingVal();
+			ratingCount[i] = row.getRatingCount();
+		});
+		perfumeIds = Arrays.copyOf(perfumeIds, n[0]);
+		perfumeName = Arrays.copyOf(perfumeName, n[0]);
+		brandName = Arrays.copyOf(brandName, n[0]);
+		description = Arrays.copyOf(description, n[0]);
+		gender = Arrays.copyOf(gender, n[0]);
+		country = Arrays.copyOf(country, n[0]);
+		year = Arrays.copyOf(year, n[0]);
+		ratingVal = Arrays.copyOf(ratingVal, n[0]);
+		ratingCount = Arrays.copyOf(ratingCount, n[0]);
+	}
+
+	private static int grow(int size) {
+		return Math.max(1024, size * 2);
+	}
+
+	// dense index는 id 이진 탐색에 쓰므로 id가 오름차순이어야 한다.
+	private static int requireAscending(int[] ids, int i, int id, String table) {
+		if (i > 0 && ids[i - 1] >= id) {
+			throw new IllegalStateException("Catalog " + table + " rows must be ordered by id: " + ids[i - 1] + " then " + id);
+		}
+		return id;
+	}
+
+	private PerfumeRows attributeRows(RowQuery<AttributeRow> query, boolean hasValues) {
+		PerfumeRows.Builder builder = new PerfumeRows.Builder(perfumeIds.length, hasValues, false);
+		query.run(ctx -> {
+			AttributeRow row = ctx.getResultObject();
+			int p = indexOf(perfumeIds, row.perfumeId);
+			if (p >= 0 && row.label != null) builder.add(p, intern(row.label), row.value, 0f);
+		});
+		return builder.build();
+	}
+
+	private PerfumeRows noteRows(RowQuery<RefRow> query, boolean hasWeights) {
+		PerfumeRows.Builder builder = new PerfumeRows.Builder(perfumeIds.length, false, hasWeights);
+		query.run(ctx -> {
+			RefRow row = ctx.getResultObject();
+			int p = indexOf(perfumeIds, row.perfumeId);
+			int note = indexOf(noteIds, row.refId);
+			if (p >= 0 && note >= 0) builder.add(p, note, 0, row.weight);
+		});
+		return builder.build();
+	}
+
+	private int intern(String s) {
+		if (s == null) return -1;
+		Integer ref = internTable.get(s);
+		if (ref == null) {
+			ref = internList.size();
+			internTable.put(s, ref);
+			internList.add(s);
+		}
+		return ref;
+	}
+
+	private static int indexOf(int[] sortedIds, int id) {
+		int idx = Arrays.binarySearch(sortedIds, id);
+		return idx < 0 ? -1 : idx;
+	}
+
+	@FunctionalInterface
+	private interface RowQuery<T> {
+		void run(ResultHandler<T> handler);
+	}
+}
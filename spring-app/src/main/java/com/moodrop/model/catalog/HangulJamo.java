@@ -0,0 +1,79 @@
+package com.moodrop.model.catalog;
+
+/**
+ * 검색어 정규화용 한글 자모 분해.
+ * 완성형 음절은 초성/중성/종성 호환 자모로 풀고, 겹자음/겹모음(ㄳ, ㅘ 등)은 기본 자모 둘로 푼다.
+ * 그래서 입력 중인 "라ㅂ", "랍", "과"의 "고"처럼 덜 친 글자도 앞부분 비교로 찾을 수 있다.
+ **/
+final class HangulJamo {
+
+	private static final char SYLLABLE_BASE = 0xAC00;
+	private static final char SYLLABLE_LAST = 0xD7A3;
+	private static final int VOWELS = 21;
+	private static final int FINALS = 28;
+
+	private static final String INITIALS = "ㄱㄲㄴㄷㄸㄹㅁㅂㅃㅅㅆㅇㅈㅉㅊㅋㅌㅍㅎ";
+	private static final String MEDIALS = "ㅏㅐㅑㅒㅓㅔㅕㅖㅗㅘㅙㅚㅛㅜㅝㅞㅟㅠㅡㅢㅣ";
+	private static final String FINALS_TABLE = "\0ㄱㄲㄳㄴㄵㄶㄷㄹㄺㄻㄼㄽㄾㄿㅀㅁㅂㅄㅅㅆㅇㅈㅊㅋㅌㅍㅎ";
+
+	// 겹자모 -> 기본 자모 둘
+	private static final String COMPOUNDS = "ㄳㄵㄶㄺㄻㄼㄽㄾㄿㅀㅄㅘㅙㅚㅝㅞㅟㅢ";
+	private static final String[] COMPOUND_PARTS = {
+			"ㄱㅅ", "ㄴㅈ", "ㄴㅎ", "ㄹㄱ", "ㄹㅁ", "ㄹㅂ", "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ", "ㅂㅅ",
+			"ㅗㅏ", "ㅗㅐ", "ㅗㅣ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅡㅣ" };
+
+	private HangulJamo() {
+	}
+
+	/**
+	 * 소문자로 바꾸고, 공백을 하나로 줄이고, 한글은 자모로 푼다.
+	 **/
+	static String normalize(String text) {
+		StringBuilder out = new StringBuilder(text.length() * 3);
+		boolean space = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isWhitespace(c)) {
+				space = out.length() > 0;
+				continue;
+			}
+			if (space) {
+				out.append(' ');
+				space = false;
+			}
+			if (c >= SYLLABLE_BASE && c <= SYLLABLE_LAST) {
+				int offset = c - SYLLABLE_BASE;
+				appendJamo(out, INITIALS.charAt(offset / (VOWELS * FINALS)));
+				appendJamo(out, MEDIALS.charAt(offset % (VOWELS * FINALS) / FINALS));
+				int last = offset % FINALS;
+				if (last != 0) appendJamo(out, FINALS_TABLE.charAt(last));
+			} else {
+				appendJamo(out, Character.toLowerCase(c));
+			}
+		}
+		return out.toString();
+	}
+
+	/**
+	 * 초성만 모은 문자열 (공백과 한글이 아닌 글자는 뺀다.) 예) 라벤더 -> ㄹㅂㄷ
+	 **/
+	static String initials(String text) {
+		StringBuilder out = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c >= SYLLABLE_BASE && c <= SYLLABLE_LAST) {
+				out.append(INITIALS.charAt((c - SYLLABLE_BASE) / (VOWELS * FINALS)));
+			}
+		}
+		return out.toString();
+	}
+
+	private static void appendJamo(StringBuilder out, char c) {
+		int compound = COMPOUNDS.indexOf(c);
+		if (compound >= 0) {
+			out.append(COMPOUND_PARTS[compound]);
+		} else {
+			out.append(c);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.moodrop.model.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moodrop.model.dao.PerfumeDao.MoodAccordRow;
+import com.moodrop.model.dto.MoodAccordDto;
+
+/**
+ * mood x accord 가중치 행렬 (selectMoodAccords의 in-memory 버전).
+ * mood_accord 전체를 (mood 수 x accord 수) float 배열로 펼쳐 두고, 선택한 mood 행을 더한 뒤 상위 K개만 고른다.
+ * 없는 (mood, accord) 조합은 SQL JOIN처럼 결과에서 빠지도록 mood별 bitset으로 따로 표시한다.
+ * 자주 고르는 mood 조합의 결과는 작은 cache에 남긴다. (기준 정보를 다시 읽으면 행렬과 함께 새로 만든다.)
+ **/
+public final class MoodAccordMatrix {
+
+	private final int[] moodIds;       // 오름차순, 행 번호 = index
+	private final int[] accordIds;     // 오름차순, 열 번호 = index
+	private final String[] accordNames;
+	private final float[] weights;     // [mood * accordCount + accord]
+	private final long[] present;      // [mood * presentWords + word]
+	private final int presentWords;
+
+	// 정렬한 mood id 목록 -> 결과 (수정하지 않는 List)
+	private final Cache<String, List<MoodAccordDto>> memo;
+
+	MoodAccordMatrix(List<MoodAccordRow> rows, int cacheSize) {
+		this.moodIds = rows.stream().mapToInt(row -> row.moodId).distinct().sorted().toArray();
+		this.accordIds = rows.stream().mapToInt(row -> row.accordId).distinct().sorted().toArray();
+		this.accordNames = new String[accordIds.length];
+		this.weights = new float[moodIds.length * accordIds.length];
+		this.presentWords = (accordIds.length + 63) / 64;
+		this.present = new long[moodIds.length * presentWords];
+		for (MoodAccordRow row : rows) {
+			int mood = Arrays.binarySearch(moodIds, row.moodId);
+			int accord = Arrays.binarySearch(accordIds, row.accordId);
+			accordNames[accord] = row.accord;
+			weights[mood * accordIds.length + accord] += row.weight;
+			present[mood * presentWords + (accord >>> 6)] |= 1L << accord;
+		}
+		this.memo = Caffeine.newBuilder().maximumSize(cacheSize).build();
+	}
+
+	public int moodCount() {
+		return moodIds.length;
+	}
+
+	public int accordCount() {
+		return accordIds.length;
+	}
+
+	/**
+	 * 선택한 mood의 accord별 가중치 합 내림차순(같으면 accord id 오름차순)으로 최대 limit개.
+	 * 중복 mood id는 한 번만 더하고, 모르는 mood id는 무시한다.
+	 **/
+	public List<MoodAccordDto> topAccords(Collection<Integer> moodIdList, int limit) {
+		int[] selected = moodIdList == null ? new int[0] : moodIdList.stream()
+				.filter(Objects::nonNull)
+				.mapToInt(Integer::intValue)
+				.filter(id -> Arrays.binarySearch(moodIds, id) >= 0)
+				.distinct()
+				.sorted()
+				.toArray();
+		return memo.get(Arrays.toString(selected) + ":" + limit, key -> compute(selected, limit));
+	}
+
+	private List<MoodAccordDto> compute(int[] selectedMoodIds, int limit) {
+		int accords = accordIds.length;
+		double[] totals = new double[accords];
+		long[] any = new long[presentWords];
+		for (int moodId : selectedMoodIds) {
+			int mood = Arrays.binarySearch(moodIds, moodId);
+			int row = mood * accords;
+			for (int a = 0; a < accords; a++) {
+				totals[a] += weights[row + a];
+			}
+			for (int w = 0; w < presentWords; w++) {
+				any[w] |= present[mood * presentWords + w];
+			}
+		}
+
+		TopKHeap heap = new TopKHeap(Math.max(0, Math.min(limit, accords)), (a, b) -> {
+			if (totals[a] != totals[b]) return totals[a] > totals[b];
+			return a < b;
+		});
+		for (int w = 0; w < presentWords; w++) {
+			for (long bits = any[w]; bits != 0; bits &= bits - 1) {
+				heap.offer(w * 64 + Long.numberOfTrailingZeros(bits));
+			}
+		}
+
+		List<MoodAccordDto> result = new ArrayList<>(heap.size());
+		for (int a : heap.drain()) {
+			result.add(new MoodAccordDto(accordIds[a], accordNames[a], (float) totals[a]));
+		}
+		return List.copyOf(result);
+	}
+}
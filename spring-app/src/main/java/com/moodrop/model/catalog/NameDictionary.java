@@ -0,0 +1,189 @@
+package com.moodrop.model.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.moodrop.model.dao.CatalogDao;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * note / accord 이름 <-> id 사전.
+ * note는 name과 korean_name 모두로 찾을 수 있고, 같은 이름의 note가 여러 개면(type만 다른 경우) id를 모두 돌려준다.
+ * Mapper에는 이름 대신 여기서 바꾼 id 목록을 넘겨, SQL에서 문자열 비교와 상관 서브쿼리를 없앤다.
+ * 카탈로그가 적재되면 snapshot으로 다시 만들고, 카탈로그가 꺼져 있으면 notes/accords 테이블만 따로 읽는다.
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NameDictionary {
+
+	private final CatalogDao catalogDao;
+
+	private final AtomicReference<Dictionary> current = new AtomicReference<>();
+
+	private static final int[] NONE = new int[0];
+
+	public record NoteEntry(int id, String name, String koreanName, String type) {
+	}
+
+	private record Dictionary(
+			Map<String, int[]> noteIdsByName,
+			Map<Integer, NoteEntry> notesById,
+			Map<String, int[]> accordIdsByName,
+			Map<Integer, String> accordNamesById) {
+	}
+
+	@EventListener
+	public void onCatalogReloaded(PerfumeCatalogReloadedEvent event) {
+		CatalogSnapshot snapshot = event.snapshot();
+		Builder builder = new Builder();
+		for (int i = 0; i < snapshot.noteCount(); i++) {
+			builder.note(snapshot.noteId(i), snapshot.noteName(i), snapshot.noteKoreanName(i), snapshot.noteType(i));
+		}
+		for (int i = 0; i < snapshot.accordCount(); i++) {
+			builder.accord(snapshot.accordId(i), snapshot.accordName(i));
+		}
+		current.set(builder.build());
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		if (current.get() != null) return;
+		try {
+			dictionary();
+		} catch (RuntimeException e) {
+			// 첫 조회 때 다시 시도한다.
+			log.error("Note/accord dictionary load failed", e);
+		}
+	}
+
+	/**
+	 * note 이름(영문 또는 한글) -> id 목록. 모르는 이름이면 빈 배열.
+	 **/
+	public int[] noteIds(String name) {
+		if (name == null) return NONE;
+		return dictionary().noteIdsByName().getOrDefault(name, NONE).clone();
+	}
+
+	/**
+	 * note 이름 -> 가장 작은 id. (기존 SELECT id ... LIMIT 1 과 같은 기준) 모르는 이름이면 null.
+	 **/
+	public Integer firstNoteId(String name) {
+		int[] ids = noteIds(name);
+		return ids.length == 0 ? null : ids[0];
+	}
+
+	/**
+	 * 여러 note 이름 -> 중복 없는 id 목록. 모르는 이름은 빠진다.
+	 **/
+	public List<Integer> noteIds(Collection<String> names) {
+		return flatten(dictionary().noteIdsByName(), names);
+	}
+
+	public NoteEntry note(int id) {
+		return dictionary().notesById().get(id);
+	}
+
+	/**
+	 * 여러 accord 이름 -> 중복 없는 id 목록. 모르는 이름은 빠진다.
+	 **/
+	public List<Integer> accordIds(Collection<String> names) {
+		return flatten(dictionary().accordIdsByName(), names);
+	}
+
+	public String accordName(int id) {
+		return dictionary().accordNamesById().get(id);
+	}
+
+	private Dictionary dictionary() {
+		Dictionary dictionary = current.get();
+		if (dictionary != null) return dictionary;
+
+		synchronized (this) {
+			dictionary = current.get();
+			if (dictionary != null) return dictionary;
+
+			Builder builder = new Builder();
+			catalogDao.selectCatalogNotes(context -> {
+				CatalogDao.NoteRow row = context.getResultObject();
+				builder.note(row.id, row.name, row.koreanName, row.type);
+			});
+			catalogDao.selectCatalogAccords(context -> {
+				CatalogDao.AccordRow row = context.getResultObject();
+				builder.accord(row.id, row.name);
+			});
+			dictionary = builder.build();
+			// 그 사이 카탈로그가 적재됐으면 그쪽을 쓴다.
+			if (!current.compareAndSet(null, dictionary)) return current.get();
+			log.info("Note/accord dictionary loaded: notes={}, accords={}",
+					dictionary.notesById().size(), dictionary.accordNamesById().size());
+			return dictionary;
+		}
+	}
+
+	private static List<Integer> flatten(Map<String, int[]> idsByName, Collection<String> names) {
+		if (names == null || names.isEmpty()) return new ArrayList<>();
+		Set<Integer> ids = new LinkedHashSet<>();
+		for (String name : names) {
+			if (name == null) continue;
+			for (int id : idsByName.getOrDefault(name, NONE)) {
+				ids.add(id);
+			}
+		}
+		return new ArrayList<>(ids);
+	}
+
+	private static final class Builder {
+		final Map<String, int[]> noteIdsByName = new HashMap<>();
+		final Map<String, int[]> noteIdsByKoreanName = new HashMap<>();
+		final Map<Integer, NoteEntry> notesById = new HashMap<>();
+		final Map<String, int[]> accordIdsByName = new HashMap<>();
+		final Map<Integer, String> accordNamesById = new HashMap<>();
+
+		void note(int id, String name, String koreanName, String type) {
+			notesById.put(id, new NoteEntry(id, name, koreanName, type));
+			if (name != null) noteIdsByName.merge(name, new int[] { id }, Builder::concat);
+			if (koreanName != null) noteIdsByKoreanName.merge(koreanName, new int[] { id }, Builder::concat);
+		}
+
+		void accord(int id, String name) {
+			accordNamesById.put(id, name);
+			if (name != null) accordIdsByName.merge(name, new int[] { id }, Builder::concat);
+		}
+
+		Dictionary build() {
+			// 한글 이름이 다른 note의 영문 이름과 겹치면 영문 이름을 우선한다.
+			Map<String, int[]> noteIds = new HashMap<>(noteIdsByKoreanName);
+			noteIds.putAll(noteIdsByName);
+			noteIds.replaceAll((name, ids) -> sorted(ids));
+			accordIdsByName.replaceAll((name, ids) -> sorted(ids));
+			return new Dictionary(Collections.unmodifiableMap(noteIds), Collections.unmodifiableMap(notesById),
+					Collections.unmodifiableMap(accordIdsByName), Collections.unmodifiableMap(accordNamesById));
+		}
+
+		private static int[] concat(int[] a, int[] b) {
+			int[] merged = Arrays.copyOf(a, a.length + b.length);
+			System.arraycopy(b, 0, merged, a.length, b.length);
+			return merged;
+		}
+
+		private static int[] sorted(int[] ids) {
+			Arrays.sort(ids);
+			return ids;
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package com.moodrop.model.catalog;
+
+/**
+ * 음이 아닌 최소제곱 (NNLS, Lawson-Hanson active set).
+ * min ||A x - b||, x >= 0 을 푼다. A는 열 단위(columns[j][i] = A[i][j])로 받는다.
+ * 보유 note 수(열)가 수십 개 수준이라 정규방정식을 Gauss 소거로 푼다.
+ **/
+final class NoteBlendSolver {
+
+	private static final double TOLERANCE = 1e-10;
+
+	// 열이 거의 같은 note가 있어도 정규방정식이 풀리도록 대각에 더하는 값
+	private static final double RIDGE = 1e-12;
+
+	private NoteBlendSolver() {
+	}
+
+	static double[] nnls(double[][] columns, double[] b) {
+		int n = columns.length;
+		double[] x = new double[n];
+		boolean[] passive = new boolean[n];
+		if (n == 0) return x;
+
+		double[][] gram = new double[n][n];
+		double[] atb = new double[n];
+		for (int j = 0; j < n; j++) {
+			atb[j] = dot(columns[j], b);
+			for (int k = 0; k <= j; k++) {
+				gram[j][k] = gram[k][j] = dot(columns[j], columns[k]);
+			}
+		}
+
+		int maxIterations = 3 * n + 10;
+		for (int iteration = 0; iteration < maxIterations; iteration++) {
+			// 기울기 w = A^T (b - A x) = A^T b - (A^T A) x
+			int entering = -1;
+			double best = TOLERANCE;
+			for (int j = 0; j < n; j++) {
+				if (passive[j]) continue;
+				double w = atb[j];
+				for (int k = 0; k < n; k++) {
+					w -= gram[j][k] * x[k];
+				}
+				if (w > best) {
+					best = w;
+					entering = j;
+				}
+			}
+			if (entering < 0) break;
+			passive[entering] = true;
+
+			while (true) {
+				double[] z = solvePassive(gram, atb, passive);
+				boolean feasible = true;
+				for (int j = 0; j < n; j++) {
+					if (passive[j] && z[j] <= TOLERANCE) feasible = false;
+				}
+				if (feasible) {
+					System.arraycopy(z, 0, x, 0, n);
+					break;
+				}
+
+				// x에서 z 방향으로, 처음 0이 되는 변수까지 이동하고 그 변수는 다시 뺀다.
+				double alpha = 1;
+				for (int j = 0; j < n; j++) {
+					if (passive[j] && z[j] <= TOLERANCE) {
+						alpha = Math.min(alpha, x[j] - z[j] > 0 ? x[j] / (x[j] - z[j]) : 0);
+					}
+				}
+				boolean removed = false;
+				for (int j = 0; j < n; j++) {
+					if (!passive[j]) continue;
+					x[j] += alpha * (z[j] - x[j]);
+					if (x[j] <= TOLERANCE) {
+						x[j] = 0;
+						passive[j] = false;
+						removed = true;
+					}
+				}
+				if (!removed) break;
+			}
+		}
+		return x;
+	}
+
+	// passive 변수만으로 (A_P^T A_P) z = A_P^T b 를 푼다. 나머지는 0.
+	private static double[] solvePassive(double[][] gram, double[] atb, boolean[] passive) {
+		int n = atb.length;
+		int[] index = new int[n];
+		int size = 0;
+		for (int j = 0; j < n; j++) {
+			if (passive[j]) index[size++] = j;
+		}
+
+		double[][] m = new double[size][size + 1];
+		for (int r = 0; r < size; r++) {
+			for (int c = 0; c < size; c++) {
+				m[r][c] = gram[index[r]][index[c]];
+			}
+			m[r][r] += RIDGE;
+			m[r][size] = atb[index[r]];
+		}
+
+		// 부분 pivot Gauss 소거
+		for (int col = 0; col < size; col++) {
+			int pivot = col;
+			for (int r = col + 1; r < size; r++) {
+				if (Math.abs(m[r][col]) > Math.abs(m[pivot][col])) pivot = r;
+			}
+			double[] swap = m[col];
+			m[col] = m[pivot];
+			m[pivot] = swap;
+			if (Math.abs(m[col][col]) < 1e-300) continue;
+			for (int r = col + 1; r < size; r++) {
+				double factor = m[r][col] / m[col][col];
+				if (factor == 0) continue;
+				for (int c = col; c <= size; c++) {
+					m[r][c] -= factor * m[col][c];
+				}
+			}
+		}
+
+		double[] z = new double[n];
+		double[] solved = new double[size];
+		for (int r = size - 1; r >= 0; r--) {
+			double v = m[r][size];
+			for (int c = r + 1; c < size; c++) {
+				v -= m[r][c] * solved[c];
+			}
+			solved[r] = Math.abs(m[r][r]) < 1e-300 ? 0 : v / m[r][r];
+		}
+		for (int r = 0; r < size; r++) {
+			z[index[r]] = solved[r];
+		}
+		return z;
+	}
+
+	private static double dot(double[] a, double[] b) {
+		double sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+}
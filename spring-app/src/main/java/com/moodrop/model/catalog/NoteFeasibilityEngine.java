@@ -0,0 +1,190 @@
+package com.moodrop.model.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.moodrop.model.dto.FeasibilityDto;
+import com.moodrop.model.dto.NoteShortfallDto;
+
+/**
+ * 사용자 보유량(user_note_gram)으로 향수를 얼마나 만들 수 있는지 계산한다.
+ * determined_notes의 percentage를 향수별 합으로 나눈 비율로 쓰고, 같은 이름의 note(type만 다른 경우)는 같은 재료로 본다.
+ * 향수 x 재료 비율은 CSR(int[] 재료, float[] 비율)로 미리 만들어 두고,
+ * 요청마다 재료별 보유량 float[] 하나로 전체 카탈로그를 한 번에 훑는다.
+ **/
+@Component
+public class NoteFeasibilityEngine {
+
+	private final AtomicReference<Index> current = new AtomicReference<>();
+
+	// 비율 계산의 float 오차로 부족하다고 보지 않도록 허용하는 양 (g)
+	private static final float TOLERANCE = 0.001f;
+
+	record Index(
+			CatalogSnapshot snapshot,
+			int[] materialOfNote,    // note index -> 재료 번호
+			String[] materialNames,
+			int[] offsets,           // 향수 index별 [offsets[p], offsets[p + 1])
+			int[] materials,
+			float[] fractions) {
+	}
+
+	@EventListener
+	public void onCatalogReloaded(PerfumeCatalogReloadedEvent event) {
+		current.set(build(event.snapshot()));
+	}
+
+	public boolean isReady() {
+		return current.get() != null;
+	}
+
+	/**
+	 * ownedByNoteId(note id -> 보유량 g)로 목표 용량 bottleSize를 기준으로 평가한다.
+	 * candidatePerfumeIds가 null이면 전체 카탈로그. determined_notes가 없는 향수는 제외한다.
+	 * 만들 수 있는 양 내림차순, 같으면 모자라는 note 수 오름차순, perfumeId 오름차순으로 최대 limit개.
+	 * index가 아직 없으면 null.
+	 **/
+	public List<FeasibilityDto> evaluate(Map<Integer, Float> ownedByNoteId, float bottleSize,
+			Collection<Integer> candidatePerfumeIds, int limit) {
+		Index index = current.get();
+		if (index == null) return null;
+		CatalogSnapshot snapshot = index.snapshot();
+
+		// 재료별 보유량
+		float[] owned = new float[index.materialNames().length];
+		for (Map.Entry<Integer, Float> e : ownedByNoteId.entrySet()) {
+			int noteIndex = snapshot.indexOfNote(e.getKey());
+			if (noteIndex < 0 || e.getValue() == null) continue;
+			owned[index.materialOfNote()[noteIndex]] += e.getValue();
+		}
+
+		int[] offsets = index.offsets();
+		int[] materials = index.materials();
+		float[] fractions = index.fractions();
+		float[] maxAmount = new float[snapshot.perfumeCount()];
+		int[] missing = new int[snapshot.perfumeCount()];
+		TopKHeap heap = new TopKHeap(Math.min(limit, snapshot.perfumeCount()), (a, b) -> {
+			if (maxAmount[a] != maxAmount[b]) return maxAmount[a] > maxAmount[b];
+			if (missing[a] != missing[b]) return missing[a] < missing[b];
+			return a < b;
+		});
+
+		// 후보 향수 index (중복 id는 한 번만)
+		int[] candidates = null;
+		if (candidatePerfumeIds != null) {
+			candidates = new LinkedHashSet<>(candidatePerfumeIds).stream()
+					.filter(Objects::nonNull)
+					.mapToInt(snapshot::indexOfPerfume)
+					.filter(p -> p >= 0)
+					.toArray();
+		}
+		int count = candidates == null ? snapshot.perfumeCount() : candidates.length;
+		for (int c = 0; c < count; c++) {
+			int p = candidates == null ? c : candidates[c];
+			int start = offsets[p];
+			int end = offsets[p + 1];
+			if (start == end) continue;
+
+			// 만들 수 있는 양 = min(보유량 / 비율), 모자라는 note = 보유량 < 목표 x 비율
+			float max = Float.MAX_VALUE;
+			int miss = 0;
+			for (int k = start; k < end; k++) {
+				float have = owned[materials[k]];
+				float possible = have / fractions[k];
+				if (possible < max) max = possible;
+				if (bottleSize * fractions[k] - have > TOLERANCE) miss++;
+			}
+			maxAmount[p] = max;
+			missing[p] = miss;
+			heap.offer(p);
+		}
+
+		// 반환하는 향수만 limiting note와 모자라는 note 목록을 만든다.
+		List<FeasibilityDto> result = new ArrayList<>();
+		for (int p : heap.drain()) {
+			String limitingNote = null;
+			float min = Float.MAX_VALUE;
+			List<NoteShortfallDto> shortfalls = new ArrayList<>(missing[p]);
+			for (int k = offsets[p]; k < offsets[p + 1]; k++) {
+				float have = owned[materials[k]];
+				if (have / fractions[k] < min) {
+					min = have / fractions[k];
+					limitingNote = index.materialNames()[materials[k]];
+				}
+				float required = bottleSize * fractions[k];
+				if (required - have > TOLERANCE) {
+					shortfalls.add(new NoteShortfallDto(index.materialNames()[materials[k]],
+							round(required), round(have), round(required - have)));
+				}
+			}
+			shortfalls.sort(Comparator.comparingDouble(NoteShortfallDto::getShortfall).reversed());
+			result.add(new FeasibilityDto(snapshot.perfumeId(p), snapshot.perfumeName(p), snapshot.brandName(p),
+					round(maxAmount[p]), limitingNote, missing[p] == 0, shortfalls));
+		}
+		return result;
+	}
+
+	// 응답은 0.01g 단위로 반올림한다.
+	private static float round(float grams) {
+		return Math.round(grams * 100) / 100f;
+	}
+
+	static Index build(CatalogSnapshot snapshot) {
+		// note 이름 -> 재료 번호
+		int[] materialOfNote = new int[snapshot.noteCount()];
+		Map<String, Integer> materialIds = new HashMap<>();
+		List<String> materialNames = new ArrayList<>();
+		for (int n = 0; n < snapshot.noteCount(); n++) {
+			String name = snapshot.noteName(n);
+			Integer material = name == null ? null : materialIds.get(name);
+			if (material == null) {
+				material = materialNames.size();
+				materialNames.add(name);
+				if (name != null) materialIds.put(name, material);
+			}
+			materialOfNote[n] = material;
+		}
+
+		// 향수별로 같은 재료는 합치고, percentage 합으로 나눠 비율로 만든다. (0 이하는 버린다.)
+		PerfumeRows rows = snapshot.determinedNotes();
+		int[] offsets = new int[snapshot.perfumeCount() + 1];
+		int[] materials = new int[rows.size()];
+		float[] fractions = new float[rows.size()];
+		int size = 0;
+		for (int p = 0; p < snapshot.perfumeCount(); p++) {
+			int from = size;
+			float total = 0;
+			for (int k = rows.start(p); k < rows.end(p); k++) {
+				float percentage = rows.weight(k);
+				if (!(percentage > 0)) continue;
+				int material = materialOfNote[rows.label(k)];
+				total += percentage;
+
+				int at = from;
+				while (at < size && materials[at] != material) at++;
+				if (at == size) {
+					materials[size] = material;
+					fractions[size++] = 0;
+				}
+				fractions[at] += percentage;
+			}
+			for (int k = from; k < size; k++) {
+				fractions[k] /= total;
+			}
+			offsets[p + 1] = size;
+		}
+		return new Index(snapshot, materialOfNote, materialNames.toArray(new String[0]), offsets,
+				Arrays.copyOf(materials, size), Arrays.copyOf(fractions, size));
+	}
+}
@@ -0,0 +1,138 @@
+package com.moodrop.model.catalog;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * determined_notes로 만든 note 이름(영문, 한글) -> 향수 집합 inverted index.
+ * 같은 이름의 note가 여러 개면(type만 다른 경우) 하나의 이름으로 합친다. (SQL의 COUNT(DISTINCT n.name)과 같은 기준)
+ * 카탈로그가 바뀔 때마다 새로 만들어 교체한다.
+ **/
+@Component
+public class NoteInvertedIndex {
+
+	private final AtomicReference<Index> current = new AtomicReference<>();
+
+	/**
+	 * canonicalNames: 한글 이름 -> 같은 note의 영문 이름. (한글 이름이 여러 영문 이름에 걸치면 넣지 않는다.)
+	 * 영문/한글 이름을 같이 검색해도 note 하나로 세기 위해 쓴다.
+	 **/
+	record Index(CatalogSnapshot snapshot, Map<String, PerfumeIdSet> postings, Map<String, String> canonicalNames) {
+
+		String canonicalName(String name) {
+			return canonicalNames.getOrDefault(name, name);
+		}
+	}
+
+	@EventListener
+	public void onCatalogReloaded(PerfumeCatalogReloadedEvent event) {
+		current.set(build(event.snapshot()));
+	}
+
+	public boolean isReady() {
+		return current.get() != null;
+	}
+
+	// 같은 snapshot 기준의 index를 한 번에 읽기 위해 쓴다. (없으면 null)
+	Index current() {
+		return current.get();
+	}
+
+	/**
+	 * 모든 note를 담고 있는 향수 id를 오름차순으로, afterPerfumeId보다 큰 것부터 최대 limit개 반환한다.
+	 * 집합이 작은 note부터 교집합을 구하고, 모르는 note가 하나라도 있으면 빈 배열.
+	 * 같은 note의 영문/한글 이름은 먼저 나온 이름 하나로 센다.
+	 * index가 아직 없으면 null (호출한 쪽은 SQL로 조회한다.)
+	 **/
+	public int[] perfumesContainingAll(Collection<String> noteNames, int afterPerfumeId, int limit) {
+		Index index = current.get();
+		if (index == null) return null;
+		if (noteNames == null || noteNames.isEmpty()) return new int[0];
+
+		PerfumeIdSet[] sets = new PerfumeIdSet[noteNames.size()];
+		Set<String> canonical = new HashSet<>();
+		int n = 0;
+		for (String name : noteNames) {
+			PerfumeIdSet set = index.postings().get(name);
+			if (set == null) return new int[0];
+			if (canonical.add(index.canonicalName(name))) sets[n++] = set;
+		}
+		sets = Arrays.copyOf(sets, n);
+		Arrays.sort(sets, Comparator.comparingInt(PerfumeIdSet::cardinality));
+
+		int[] candidates = sets[0].toArray();
+		int length = candidates.length;
+		for (int s = 1; s < sets.length && length > 0; s++) {
+			length = sets[s].retainIn(candidates, length);
+		}
+
+		// 향수 index는 id 오름차순이므로 afterPerfumeId 다음 위치부터 자른다.
+		int from = 0;
+		int to = length;
+		while (from < to) {
+			int mid = (from + to) >>> 1;
+			if (index.snapshot().perfumeId(candidates[mid]) <= afterPerfumeId) from = mid + 1;
+			else to = mid;
+		}
+
+		int[] perfumeIds = new int[Math.max(0, Math.min(length - from, limit))];
+		for (int k = 0; k < perfumeIds.length; k++) {
+			perfumeIds[k] = index.snapshot().perfumeId(candidates[from + k]);
+		}
+		return perfumeIds;
+	}
+
+	static Index build(CatalogSnapshot snapshot) {
+		PerfumeRows rows = snapshot.determinedNotes();
+
+		// note 이름별 향수 index 목록 (향수 index 순으로 훑으므로 자동으로 오름차순)
+		Map<String, IntList> lists = new HashMap<>();
+		Map<String, IntList> koreanLists = new HashMap<>();
+		Map<String, String> englishNames = new HashMap<>();
+		for (int p = 0; p < snapshot.perfumeCount(); p++) {
+			for (int k = rows.start(p); k < rows.end(p); k++) {
+				String name = snapshot.noteName(rows.label(k));
+				if (name != null) lists.computeIfAbsent(name, key -> new IntList()).addDistinct(p);
+				String koreanName = snapshot.noteKoreanName(rows.label(k));
+				if (koreanName == null) continue;
+				koreanLists.computeIfAbsent(koreanName, key -> new IntList()).addDistinct(p);
+				// 여러 영문 이름에 걸친 한글 이름은 ""로 표시해 두고 별명으로 쓰지 않는다.
+				if (name != null) englishNames.merge(koreanName, name, (a, b) -> a.equals(b) ? a : "");
+			}
+		}
+		Map<String, String> canonicalNames = new HashMap<>();
+		englishNames.forEach((koreanName, name) -> {
+			if (!name.isEmpty() && !lists.containsKey(koreanName)) canonicalNames.put(koreanName, name);
+		});
+		// 한글 이름으로도 찾을 수 있게 한다. (NameDictionary와 같이 영문 이름이 우선)
+		koreanLists.forEach(lists::putIfAbsent);
+
+		Map<String, PerfumeIdSet> postings = new HashMap<>();
+		for (Map.Entry<String, IntList> e : lists.entrySet()) {
+			IntList list = e.getValue();
+			postings.put(e.getKey(), PerfumeIdSet.of(list.values, list.size, snapshot.perfumeCount()));
+		}
+		return new Index(snapshot, postings, canonicalNames);
+	}
+
+	// 오름차순으로만 추가되는 int 목록 (직전 값과 같으면 무시)
+	private static final class IntList {
+		int[] values = new int[8];
+		int size;
+
+		void addDistinct(int v) {
+			if (size > 0 && values[size - 1] == v) return;
+			if (size == values.length) values = Arrays.copyOf(values, size * 2);
+			values[size++] = v;
+		}
+	}
+}
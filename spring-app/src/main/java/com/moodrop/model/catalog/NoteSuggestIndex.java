@@ -0,0 +1,160 @@
+package com.moodrop.model.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.moodrop.model.dto.NoteSuggestionDto;
+
+/**
+ * note 이름 자동완성 (영문 name, 한글 korean_name).
+ * 이름의 각 단어 시작부터 자른 문자열을 정규화(소문자, 한글 자모 분해)해서 정렬 배열에 넣고, 검색어로 앞부분이 같은 구간을 이진 탐색한다.
+ * 한글 이름은 초성만 모은 키(라벤더 -> ㄹㅂㄷ)도 단어 시작마다 넣는다.
+ * 같은 이름이 type(top/middle/base)별로 여러 row면 하나로 묶어 한 번만 보여 주고, 나온 횟수는 더한다.
+ * 결과는 determined_notes에 나온 횟수(많은 순), 이름 순으로 정렬한다.
+ **/
+@Component
+public class NoteSuggestIndex {
+
+	private final AtomicReference<Index> current = new AtomicReference<>();
+
+	record Index(
+			CatalogSnapshot snapshot,
+			String[] keys,     // 정규화한 키 (오름차순)
+			int[] notes,       // 키별 note index (같은 이름의 첫 row)
+			int[] popularity,  // note index별 같은 이름 전체의 determined_notes 등장 횟수
+			int[] typeNote) {  // note index별 보여 줄 type의 row (같은 이름 중 가장 많이 나온 row)
+	}
+
+	@EventListener
+	public void onCatalogReloaded(PerfumeCatalogReloadedEvent event) {
+		current.set(build(event.snapshot()));
+	}
+
+	public boolean isReady() {
+		return current.get() != null;
+	}
+
+	/**
+	 * 검색어로 시작하는(또는 단어 시작이 같은) note 최대 limit개. index가 아직 없으면 null.
+	 **/
+	public List<NoteSuggestionDto> suggest(String query, int limit) {
+		Index index = current.get();
+		if (index == null) return null;
+		String prefix = query == null ? "" : HangulJamo.normalize(query);
+		if (prefix.isEmpty() || limit <= 0) return new ArrayList<>();
+
+		String[] keys = index.keys();
+		int from = lowerBound(keys, prefix);
+		int[] popularity = index.popularity();
+		CatalogSnapshot snapshot = index.snapshot();
+
+		// 같은 note(이름)가 여러 키로 걸려도 한 번만 넣는다.
+		boolean[] seen = new boolean[snapshot.noteCount()];
+		TopKHeap heap = new TopKHeap(limit, (a, b) -> {
+			if (popularity[a] != popularity[b]) return popularity[a] > popularity[b];
+			int byName = compareNames(snapshot.noteName(a), snapshot.noteName(b));
+			return byName != 0 ? byName < 0 : a < b;
+		});
+		for (int k = from; k < keys.length && keys[k].startsWith(prefix); k++) {
+			int note = index.notes()[k];
+			if (seen[note]) continue;
+			seen[note] = true;
+			heap.offer(note);
+		}
+
+		List<NoteSuggestionDto> result = new ArrayList<>(heap.size());
+		for (int note : heap.drain()) {
+			result.add(new NoteSuggestionDto(snapshot.noteName(note), snapshot.noteKoreanName(note),
+					snapshot.noteType(index.typeNote()[note]), popularity[note]));
+		}
+		return result;
+	}
+
+	static Index build(CatalogSnapshot snapshot) {
+		int noteCount = snapshot.noteCount();
+		int[] rowPopularity = new int[noteCount];
+		PerfumeRows determined = snapshot.determinedNotes();
+		for (int r = 0; r < determined.size(); r++) {
+			rowPopularity[determined.label(r)]++;
+		}
+
+		// 이름이 같은 row는 첫 row로 묶는다. (이름이 없으면 row 그대로)
+		int[] entry = new int[noteCount];
+		Map<String, Integer> firstByName = new HashMap<>();
+		for (int n = 0; n < noteCount; n++) {
+			Integer first = snapshot.noteName(n) == null ? null : firstByName.putIfAbsent(snapshot.noteName(n), n);
+			entry[n] = first == null ? n : first;
+		}
+		int[] popularity = new int[noteCount];
+		int[] typeNote = new int[noteCount];
+		for (int n = 0; n < noteCount; n++) {
+			int e = entry[n];
+			popularity[e] += rowPopularity[n];
+			if (e == n || rowPopularity[n] > rowPopularity[typeNote[e]]) typeNote[e] = n;
+		}
+
+		List<String> keyList = new ArrayList<>();
+		List<Integer> noteList = new ArrayList<>();
+		for (int n = 0; n < noteCount; n++) {
+			int e = entry[n];
+			// 묶인 row는 한글 이름이 다를 때만 키를 더한다.
+			if (e != n && Objects.equals(snapshot.noteKoreanName(n), snapshot.noteKoreanName(e))) continue;
+			for (String name : new String[] { snapshot.noteName(n), snapshot.noteKoreanName(n) }) {
+				if (name == null) continue;
+				String normalized = HangulJamo.normalize(name);
+				for (int start = 0; start < normalized.length(); start++) {
+					if (start == 0 || normalized.charAt(start - 1) == ' ') {
+						keyList.add(normalized.substring(start));
+						noteList.add(e);
+					}
+				}
+			}
+			// 한글 이름의 초성도 단어 시작마다 넣는다. (핑크 페퍼 -> ㅍㅋㅍㅍ, ㅍㅍ)
+			String koreanName = snapshot.noteKoreanName(n) == null ? "" : snapshot.noteKoreanName(n).trim();
+			for (int start = 0; start < koreanName.length(); start++) {
+				if (start > 0 && !Character.isWhitespace(koreanName.charAt(start - 1))) continue;
+				String initials = HangulJamo.initials(koreanName.substring(start));
+				if (initials.isEmpty()) continue;
+				keyList.add(initials);
+				noteList.add(e);
+			}
+		}
+
+		Integer[] order = new Integer[keyList.size()];
+		for (int i = 0; i < order.length; i++) order[i] = i;
+		Arrays.sort(order, Comparator.comparing(keyList::get));
+		String[] keys = new String[order.length];
+		int[] notes = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			keys[i] = keyList.get(order[i]);
+			notes[i] = noteList.get(order[i]);
+		}
+		return new Index(snapshot, keys, notes, popularity, typeNote);
+	}
+
+	// prefix 이상인 첫 키의 위치
+	private static int lowerBound(String[] keys, String prefix) {
+		int lo = 0;
+		int hi = keys.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keys[mid].compareTo(prefix) < 0) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	private static int compareNames(String a, String b) {
+		if (a == null || b == null) return a == null ? (b == null ? 0 : 1) : -1;
+		return a.compareToIgnoreCase(b);
+	}
+}
@@ -0,0 +1,124 @@
+package com.moodrop.model.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 검색 note 중 최소 minCount개 이상을 담고 있는 향수를 찾는다. (at-least-K)
+ * note -> 향수 집합(NoteInvertedIndex)을 Thread별로 재사용하는 counter 배열에 세는 ScanCount 방식이고,
+ * minCount가 크면 짧은 집합 n-K+1개만 훑어 후보를 만든 뒤 나머지 긴 집합은 contains로만 확인한다. (MergeSkip)
+ * K개 이상 맞는 향수는 반드시 짧은 집합 중 하나에 들어 있기 때문에 결과는 같다.
+ **/
+@Component
+@RequiredArgsConstructor
+public class NoteThresholdMatcher {
+
+	private final NoteInvertedIndex noteIndex;
+
+	// 향수 index별 일치 개수 (요청이 끝나면 건드린 칸만 0으로 되돌린다.)
+	private static final ThreadLocal<int[]> COUNTERS = ThreadLocal.withInitial(() -> new int[0]);
+
+	/**
+	 * 검색 결과 한 건. matchedNotes는 검색 note 순서를 따른다.
+	 **/
+	public record Hit(int perfumeId, int matchCount, List<String> matchedNotes) {
+	}
+
+	/**
+	 * 일치 개수 내림차순, perfumeId 오름차순으로 after 다음부터 최대 limit개 반환한다. (after가 null이면 처음부터)
+	 * 순위는 크기 limit의 TopKHeap으로만 유지하므로, 후보가 많아도 메모리는 limit에 비례한다.
+	 * index가 아직 없으면 null (호출한 쪽은 SQL로 조회한다.)
+	 **/
+	public List<Hit> match(Collection<String> noteNames, int minCount, SearchCursor after, int limit) {
+		NoteInvertedIndex.Index index = noteIndex.current();
+		if (index == null) return null;
+		if (noteNames == null || noteNames.isEmpty()) return List.of();
+
+		// 검색 note 중 index에 있는 것만, 같은 note의 영문/한글 이름은 먼저 나온 이름 하나로
+		List<String> names = new ArrayList<>();
+		List<PerfumeIdSet> sets = new ArrayList<>();
+		Set<String> canonical = new HashSet<>();
+		for (String name : noteNames) {
+			PerfumeIdSet set = index.postings().get(name);
+			if (set == null || !canonical.add(index.canonicalName(name))) continue;
+			names.add(name);
+			sets.add(set);
+		}
+		int k = Math.max(1, minCount);
+		if (sets.size() < k) return List.of();
+
+		// 짧은 집합부터 정렬 (원래 위치는 matchedNotes를 만들 때 다시 쓴다.)
+		Integer[] order = new Integer[sets.size()];
+		for (int i = 0; i < order.length; i++) order[i] = i;
+		Arrays.sort(order, Comparator.comparingInt(i -> sets.get(i).cardinality()));
+		int shortCount = sets.size() - k + 1;
+
+		CatalogSnapshot snapshot = index.snapshot();
+		int[] counters = counters(snapshot.perfumeCount());
+		int[] touched = new int[0];
+		int touchedSize = 0;
+		// 일치 개수가 많을수록, 같으면 향수 index(= id 순서)가 작을수록 앞 순위
+		TopKHeap heap = new TopKHeap(Math.min(limit, snapshot.perfumeCount()),
+				(a, b) -> counters[a] != counters[b] ? counters[a] > counters[b] : a < b);
+		try {
+			// 1) ScanCount: 짧은 집합의 향수마다 count++
+			for (int s = 0; s < shortCount; s++) {
+				int[] perfumes = sets.get(order[s]).toArray();
+				if (touchedSize + perfumes.length > touched.length) {
+					touched = Arrays.copyOf(touched, Math.max(touched.length * 2, touchedSize + perfumes.length));
+				}
+				for (int p : perfumes) {
+					if (counters[p]++ == 0) touched[touchedSize++] = p;
+				}
+			}
+
+			// 2) 긴 집합은 후보에 대해서만 확인하고, minCount 이상이면서 cursor 다음인 것만 heap에 넣는다.
+			for (int t = 0; t < touchedSize; t++) {
+				int p = touched[t];
+				int count = counters[p];
+				for (int s = shortCount; s < order.length; s++) {
+					if (sets.get(order[s]).contains(p)) count++;
+				}
+				counters[p] = count;
+				if (count < k) continue;
+				if (after != null && !after.precedes(count, snapshot.perfumeId(p))) continue;
+				heap.offer(p);
+			}
+
+			// 3) 남은 항목만 이름 목록을 만든다.
+			int[] top = heap.drain();
+			Hit[] ranked = new Hit[top.length];
+			for (int h = 0; h < top.length; h++) {
+				int p = top[h];
+				List<String> matched = new ArrayList<>(counters[p]);
+				for (int s = 0; s < sets.size(); s++) {
+					if (sets.get(s).contains(p)) matched.add(names.get(s));
+				}
+				ranked[h] = new Hit(snapshot.perfumeId(p), counters[p], matched);
+			}
+			return Arrays.asList(ranked);
+		} finally {
+			for (int t = 0; t < touchedSize; t++) {
+				counters[touched[t]] = 0;
+			}
+		}
+	}
+
+	private static int[] counters(int perfumeCount) {
+		int[] counters = COUNTERS.get();
+		if (counters.length < perfumeCount) {
+			counters = new int[perfumeCount];
+			COUNTERS.set(counters);
+		}
+		return counters;
+	}
+}
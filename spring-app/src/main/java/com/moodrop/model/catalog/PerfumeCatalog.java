@@ -0,0 +1,75 @@
+package com.moodrop.model.catalog;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.moodrop.model.dao.CatalogDao;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 향수 카탈로그 (perfumes, notes, accords 및 향수별 속성 테이블)의 in-memory snapshot.
+ * 스크래퍼 적재 사이에는 읽기 전용이므로, 시작 시 한 번 읽어 두고 읽기 요청은 DB 없이 처리한다.
+ * reload()는 새 snapshot을 다 만든 뒤 참조만 바꾸므로, 읽는 쪽은 항상 완성된 snapshot 하나만 본다.
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PerfumeCatalog {
+
+	private final CatalogDao catalogDao;
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+
+	@Value("${moodrop.catalog.enabled:true}")
+	private boolean enabled;
+
+	/**
+	 * 현재 snapshot. 비활성화되었거나 아직 적재 전이면 null (호출한 쪽은 DB로 조회한다.)
+	 **/
+	public CatalogSnapshot snapshot() {
+		return current.get();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		if (!enabled) return;
+		try {
+			reload();
+		} catch (RuntimeException e) {
+			// 적재에 실패해도 서비스는 DB 경로로 동작한다.
+			log.error("Perfume catalog load failed, serving reads from DB", e);
+		}
+	}
+
+	/**
+	 * DB에서 새 snapshot을 만들어 교체하고, 새 snapshot의 메모리 사용량을 반환한다.
+	 **/
+	public synchronized Map<String, Object> reload() {
+		long start = System.nanoTime();
+		CatalogSnapshot next = new CatalogSnapshotBuilder(catalogDao).build();
+		current.set(next);
+		eventPublisher.publishEvent(new PerfumeCatalogReloadedEvent(next));
+
+		Map<String, Object> footprint = next.footprint();
+		footprint.put("buildMillis", (System.nanoTime() - start) / 1_000_000);
+		log.info("Perfume catalog loaded: {}", footprint);
+		return footprint;
+	}
+
+	/**
+	 * 현재 snapshot의 메모리 사용량. snapshot이 없으면 null.
+	 **/
+	public Map<String, Object> footprint() {
+		CatalogSnapshot snapshot = current.get();
+		return snapshot == null ? null : snapshot.footprint();
+	}
+}
@@ -0,0 +1,8 @@
+package com.moodrop.model.catalog;
+
+/**
+ * 새 카탈로그 snapshot으로 교체된 뒤 발행된다.
+ * snapshot에서 파생된 index나 cache는 이 이벤트를 받아 다시 만들거나 비운다.
+ **/
+public record PerfumeCatalogReloadedEvent(CatalogSnapshot snapshot) {
+}
@@ -0,0 +1,107 @@
+package com.moodrop.model.catalog;
+
+import java.util.Arrays;
+
+/**
+ * 향수 dense index 집합.
+ * 원소가 적으면 정렬된 int[]로, 전체 향수 수의 1/32보다 많으면 bitmap(long[])으로 저장해서
+ * 어느 쪽이든 int[] 하나보다 크지 않게 둔다. (Roaring bitmap의 array/bitmap container와 같은 기준)
+ **/
+public final class PerfumeIdSet {
+	private final int[] sorted;   // array 형태일 때
+	private final long[] bits;    // bitmap 형태일 때
+	private final int cardinality;
+
+	private PerfumeIdSet(int[] sorted, long[] bits, int cardinality) {
+		this.sorted = sorted;
+		this.bits = bits;
+		this.cardinality = cardinality;
+	}
+
+	/**
+	 * 오름차순으로 정렬되고 중복 없는 index 배열로 만든다.
+	 **/
+	static PerfumeIdSet of(int[] sortedIndexes, int length, int universe) {
+		if ((long) length * 32 > universe) {
+			long[] bits = new long[(universe + 63) >>> 6];
+			for (int k = 0; k < length; k++) {
+				int i = sortedIndexes[k];
+				bits[i >>> 6] |= 1L << i;
+			}
+			return new PerfumeIdSet(null, bits, length);
+		}
+		return new PerfumeIdSet(Arrays.copyOf(sortedIndexes, length), null, length);
+	}
+
+	public int cardinality() {
+		return cardinality;
+	}
+
+	public boolean contains(int perfumeIndex) {
+		if (bits != null) {
+			int word = perfumeIndex >>> 6;
+			return word < bits.length && (bits[word] & (1L << perfumeIndex)) != 0;
+		}
+		return Arrays.binarySearch(sorted, perfumeIndex) >= 0;
+	}
+
+	/**
+	 * 오름차순 index 배열로 꺼낸다.
+	 **/
+	public int[] toArray() {
+		if (sorted != null) return sorted.clone();
+		int[] out = new int[cardinality];
+		int n = 0;
+		for (int word = 0; word < bits.length; word++) {
+			long w = bits[word];
+			while (w != 0) {
+				out[n++] = (word << 6) + Long.numberOfTrailingZeros(w);
+				w &= w - 1;
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * candidates[0..length) 중 이 집합에 있는 것만 앞으로 모으고 남은 개수를 반환한다.
+	 * candidates는 오름차순이어야 한다. array 형태는 galloping 탐색으로 앞에서부터 훑는다.
+	 **/
+	public int retainIn(int[] candidates, int length) {
+		int kept = 0;
+		if (bits != null) {
+			for (int r = 0; r < length; r++) {
+				int i = candidates[r];
+				int word = i >>> 6;
+				if (word < bits.length && (bits[word] & (1L << i)) != 0) candidates[kept++] = i;
+			}
+			return kept;
+		}
+
+		int pos = 0;
+		for (int r = 0; r < length && pos < sorted.length; r++) {
+			int target = candidates[r];
+			if (sorted[pos] < target) pos = gallop(target, pos);
+			if (pos < sorted.length && sorted[pos] == target) candidates[kept++] = target;
+		}
+		return kept;
+	}
+
+	// sorted[from..]에서 target 이상인 첫 위치
+	private int gallop(int target, int from) {
+		int step = 1;
+		int lo = from;
+		int hi = from + 1;
+		while (hi < sorted.length && sorted[hi] < target) {
+			lo = hi;
+			step <<= 1;
+			hi = from + step;
+		}
+		hi = Math.min(hi, sorted.length - 1);
+		int idx = Arrays.binarySearch(sorted, lo, hi + 1, target);
+		return idx >= 0 ? idx : -idx - 1;
+	}
+
+	long bytes() {
+		return sorted != null ? 4L * sorted.length : 8L * bits.length;
+	}
+}
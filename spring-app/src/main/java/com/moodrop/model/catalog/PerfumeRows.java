@@ -0,0 +1,116 @@
+package com.moodrop.model.catalog;
+
+import java.util.Arrays;
+
+/**
+ * 향수별 row 묶음 (CSR 형식).
+ * 향수 index i의 row는 [start(i), end(i)) 구간에 있고, row k는 label/value/weight 배열로 읽는다.
+ * label은 테이블에 따라 string ref, note index, accord index 중 하나다.
+ **/
+public final class PerfumeRows {
+	private final int[] offsets;
+	private final int[] labels;
+	private final int[] values;
+	private final float[] weights;
+
+	PerfumeRows(int[] offsets, int[] labels, int[] values, float[] weights) {
+		this.offsets = offsets;
+		this.labels = labels;
+		this.values = values;
+		this.weights = weights;
+	}
+
+	public int start(int perfumeIndex) {
+		return offsets[perfumeIndex];
+	}
+
+	public int end(int perfumeIndex) {
+		return offsets[perfumeIndex + 1];
+	}
+
+	public int count(int perfumeIndex) {
+		return offsets[perfumeIndex + 1] - offsets[perfumeIndex];
+	}
+
+	public int size() {
+		return labels.length;
+	}
+
+	public int label(int row) {
+		return labels[row];
+	}
+
+	public int value(int row) {
+		return values[row];
+	}
+
+	public float weight(int row) {
+		return weights[row];
+	}
+
+	long bytes() {
+		return 4L * offsets.length + 4L * labels.length
+				+ (values == null ? 0 : 4L * values.length)
+				+ (weights == null ? 0 : 4L * weights.length);
+	}
+
+	/**
+	 * 향수 index 순서와 관계없이 row를 쌓은 뒤, build()에서 counting sort로 CSR을 만든다.
+	 * 같은 향수의 row는 추가된 순서(= DB 반환 순서)를 유지한다.
+	 **/
+	static final class Builder {
+		private final int perfumeCount;
+		private final boolean hasValues;
+		private final boolean hasWeights;
+		private int[] perfume = new int[1024];
+		private int[] labels = new int[1024];
+		private int[] values;
+		private float[] weights;
+		private int size;
+
+		Builder(int perfumeCount, boolean hasValues, boolean hasWeights) {
+			this.perfumeCount = perfumeCount;
+			this.hasValues = hasValues;
+			this.hasWeights = hasWeights;
+			if (hasValues) values = new int[1024];
+			if (hasWeights) weights = new float[1024];
+		}
+
+		void add(int perfumeIndex, int label, int value, float weight) {
+			if (size == perfume.length) {
+				int capacity = size * 2;
+				perfume = Arrays.copyOf(perfume, capacity);
+				labels = Arrays.copyOf(labels, capacity);
+				if (hasValues) values = Arrays.copyOf(values, capacity);
+				if (hasWeights) weights = Arrays.copyOf(weights, capacity);
+			}
+			perfume[size] = perfumeIndex;
+			labels[size] = label;
+			if (hasValues) values[size] = value;
+			if (hasWeights) weights[size] = weight;
+			size++;
+		}
+
+		PerfumeRows build() {
+			int[] offsets = new int[perfumeCount + 1];
+			for (int k = 0; k < size; k++) {
+				offsets[perfume[k] + 1]++;
+			}
+			for (int i = 0; i < perfumeCount; i++) {
+				offsets[i + 1] += offsets[i];
+			}
+
+			int[] cursor = Arrays.copyOf(offsets, perfumeCount);
+			int[] sortedLabels = new int[size];
+			int[] sortedValues = hasValues ? new int[size] : null;
+			float[] sortedWeights = hasWeights ? new float[size] : null;
+			for (int k = 0; k < size; k++) {
+				int pos = cursor[perfume[k]]++;
+				sortedLabels[pos] = labels[k];
+				if (hasValues) sortedValues[pos] = values[k];
+				if (hasWeights) sortedWeights[pos] = weights[k];
+			}
+			return new PerfumeRows(offsets, sortedLabels, sortedValues, sortedWeights);
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package com.moodrop.model.catalog;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 향수 이름 + 브랜드 이름 검색 (trigram inverted index).
+ * 두 이름을 정규화(소문자, 기호는 공백, 한글은 자모)한 뒤 단어마다 앞뒤에 공백을 붙여 세 글자씩 자른다. (dior -> " di", "dio", "ior", "or ")
+ * trigram은 long 하나로 묶어 정렬 배열에 두고, trigram별 향수 목록(CSR, 향수 index 오름차순)을 만든다.
+ * 오타 하나는 trigram을 최대 3개 바꾸므로, 검색어 trigram 중 (개수 - 3 x 허용 오타) 개 이상 겹치는 향수만 후보로 본다.
+ * 후보는 겹친 비율, 이름 길이(trigram 수), rating_count 순으로 TopKHeap에서 상위 limit개만 남긴다.
+ **/
+@Slf4j
+@Component
+public class PerfumeSearchIndex {
+
+	private final AtomicReference<Index> current = new AtomicReference<>();
+
+	// 향수 index별 겹친 trigram 수 (요청이 끝나면 건드린 칸만 0으로 되돌린다.)
+	private static final ThreadLocal<int[]> HITS = ThreadLocal.withInitial(() -> new int[0]);
+
+	// 검색어 길이(공백 제외 글자 수)가 이보다 짧으면 오타를 하나만 허용한다.
+	private static final int SHORT_QUERY_LENGTH = 5;
+
+	@Value("${moodrop.perfume.search.max-typos:2}")
+	private int maxTypos;
+
+	record Index(
+			CatalogSnapshot snapshot,
+			long[] trigrams,    // 오름차순
+			int[] offsets,      // trigram별 [offsets[t], offsets[t + 1])
+			int[] perfumes,     // 향수 index
+			int[] sizes) {      // 향수 index별 서로 다른 trigram 수
+	}
+
+	/**
+	 * search() 결과: 향수 index와 검색어 trigram 중 겹친 비율 (snapshot 기준 index)
+	 **/
+	public record Hits(CatalogSnapshot snapshot, int[] perfumeIndexes, float[] scores) {
+	}
+
+	@EventListener
+	public void onCatalogReloaded(PerfumeCatalogReloadedEvent event) {
+		long start = System.nanoTime();
+		Index index = build(event.snapshot());
+		current.set(index);
+		log.info("Perfume search index built: perfumes={}, trigrams={}, postings={}, millis={}",
+				index.snapshot().perfumeCount(), index.trigrams().length, index.perfumes().length,
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	public boolean isReady() {
+		return current.get() != null;
+	}
+
+	/**
+	 * 이름/브랜드가 검색어와 비슷한 향수 최대 limit개. index가 아직 없으면 null, 검색어가 비어 있으면 빈 결과.
+	 **/
+	public Hits search(String query, int limit) {
+		Index index = current.get();
+		if (index == null) return null;
+		CatalogSnapshot snapshot = index.snapshot();
+		String normalized = query == null ? "" : normalize(query);
+		long[] queryTrigrams = trigrams(normalized);
+		if (queryTrigrams.length == 0 || limit <= 0) return new Hits(snapshot, new int[0], new float[0]);
+
+		// 검색어 trigram의 목록 위치 (index에 없는 trigram은 오타로 보고 개수에만 넣는다.)
+		int[] terms = new int[queryTrigrams.length];
+		int termCount = 0;
+		int postings = 0;
+		for (long trigram : queryTrigrams) {
+			int t = Arrays.binarySearch(index.trigrams(), trigram);
+			if (t < 0) continue;
+			terms[termCount++] = t;
+			postings += index.offsets()[t + 1] - index.offsets()[t];
+		}
+
+		int queryLength = normalized.replace(" ", "").length();
+		int typos = Math.max(0, Math.min(maxTypos, queryLength < SHORT_QUERY_LENGTH ? 1 : maxTypos));
+		int minHits = Math.max(1, queryTrigrams.length - 3 * typos);
+		if (termCount < minHits) return new Hits(snapshot, new int[0], new float[0]);
+
+		int[] hits = hits(snapshot.perfumeCount());
+		int[] touched = new int[Math.min(postings, snapshot.perfumeCount())];
+		int touchedSize = 0;
+		try {
+			for (int i = 0; i < termCount; i++) {
+				int t = terms[i];
+				for (int r = index.offsets()[t]; r < index.offsets()[t + 1]; r++) {
+					int p = index.perfumes()[r];
+					if (hits[p]++ == 0) touched[touchedSize++] = p;
+				}
+			}
+
+			int[] sizes = index.sizes();
+			TopKHeap heap = new TopKHeap(limit, (a, b) -> {
+				if (hits[a] != hits[b]) return hits[a] > hits[b];
+				if (sizes[a] != sizes[b]) return sizes[a] < sizes[b];
+				if (snapshot.ratingCount(a) != snapshot.ratingCount(b)) return snapshot.ratingCount(a) > snapshot.ratingCount(b);
+				return a < b;
+			});
+			for (int t = 0; t < touchedSize; t++) {
+				if (hits[touched[t]] >= minHits) heap.offer(touched[t]);
+			}
+
+			int[] ranked = heap.drain();
+			float[] scores = new float[ranked.length];
+			for (int r = 0; r < ranked.length; r++) {
+				scores[r] = (float) hits[ranked[r]] / queryTrigrams.length;
+			}
+			return new Hits(snapshot, ranked, scores);
+		} finally {
+			for (int t = 0; t < touchedSize; t++) {
+				hits[touched[t]] = 0;
+			}
+		}
+	}
+
+	static Index build(CatalogSnapshot snapshot) {
+		int n = snapshot.perfumeCount();
+
+		// 향수별 서로 다른 trigram (오름차순)
+		long[][] perPerfume = new long[n][];
+		int total = 0;
+		for (int p = 0; p < n; p++) {
+			String name = snapshot.perfumeName(p) == null ? "" : snapshot.perfumeName(p);
+			String brand = snapshot.brandName(p) == null ? "" : snapshot.brandName(p);
+			perPerfume[p] = trigrams(normalize(name + " " + brand));
+			total += perPerfume[p].length;
+		}
+
+		// 전체 trigram 사전
+		long[] all = new long[total];
+		int at = 0;
+		for (long[] keys : perPerfume) {
+			System.arraycopy(keys, 0, all, at, keys.length);
+			at += keys.length;
+		}
+		long[] trigrams = distinctSorted(all);
+
+		// trigram별 개수를 센 뒤 제자리에 채운다. (향수 index 순으로 훑으므로 목록은 향수 index 오름차순)
+		int[] offsets = new int[trigrams.length + 1];
+		int[] sizes = new int[n];
+		for (int p = 0; p < n; p++) {
+			sizes[p] = perPerfume[p].length;
+			for (long key : perPerfume[p]) {
+				offsets[Arrays.binarySearch(trigrams, key) + 1]++;
+			}
+		}
+		for (int t = 0; t < trigrams.length; t++) {
+			offsets[t + 1] += offsets[t];
+		}
+		int[] next = offsets.clone();
+		int[] perfumes = new int[total];
+		for (int p = 0; p < n; p++) {
+			for (long key : perPerfume[p]) {
+				perfumes[next[Arrays.binarySearch(trigrams, key)]++] = p;
+			}
+		}
+		return new Index(snapshot, trigrams, offsets, perfumes, sizes);
+	}
+
+	// 글자/숫자가 아닌 문자는 공백으로 바꾼 뒤 자모 정규화 (Chanel N°5 -> "chanel n 5")
+	static String normalize(String text) {
+		StringBuilder out = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			out.append(Character.isLetterOrDigit(c) ? c : ' ');
+		}
+		return HangulJamo.normalize(out.toString());
+	}
+
+	// 정규화한 문자열의 단어별 trigram (" " + 단어 + " "), 중복 없이 오름차순
+	static long[] trigrams(String normalized) {
+		if (normalized.isEmpty()) return new long[0];
+		long[] keys = new long[normalized.length() + 2];
+		int size = 0;
+		String padded = " " + normalized + " ";
+		for (int i = 0; i + 2 < padded.length(); i++) {
+			// 가운데 글자가 공백이면 두 단어에 걸친 trigram이다.
+			if (padded.charAt(i + 1) == ' ') continue;
+			keys[size++] = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+		}
+		return distinctSorted(Arrays.copyOf(keys, size));
+	}
+
+	private static long[] distinctSorted(long[] keys) {
+		Arrays.sort(keys);
+		int size = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (size == 0 || keys[size - 1] != keys[i]) keys[size++] = keys[i];
+		}
+		return Arrays.copyOf(keys, size);
+	}
+
+	private static int[] hits(int perfumeCount) {
+		int[] hits = HITS.get();
+		if (hits.length < perfumeCount) {
+			hits = new int[perfumeCount];
+			HITS.set(hits);
+		}
+		return hits;
+	}
+}
@@ -0,0 +1,103 @@
+package com.moodrop.model.catalog;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrop.model.cache.RenderedJson;
+import com.moodrop.model.dao.PerfumeDao;
+import com.moodrop.model.dao.PerfumeDao.MoodAccordRow;
+import com.moodrop.model.dao.PerfumeDao.MoodRow;
+import com.moodrop.model.dto.CategoryMoodDto;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * category, mood, category_mood, mood_accord, accord_note 기준 정보.
+ * 거의 바뀌지 않는 테이블이라 시작 시 한 번 읽어 불변 구조로 들고 있고, 관리자 요청으로만 다시 읽는다.
+ * /api/category, /api/categoryMood 응답은 JSON byte[]와 ETag로 미리 만들어 둔다.
+ **/
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataRegistry {
+
+	private final PerfumeDao dao;
+	private final ObjectMapper objectMapper;
+
+	private final AtomicReference<ReferenceData> current = new AtomicReference<>();
+
+	@Value("${moodrop.catalog.enabled:true}")
+	private boolean enabled;
+
+	@Value("${moodrop.reference.mood-accord.cache-size:256}")
+	private int moodAccordCacheSize;
+
+	/**
+	 * 한 시점에 읽은 기준 정보 묶음 (모든 List는 수정 불가)
+	 **/
+	public record ReferenceData(
+			List<Map<Integer, String>> categories,
+			List<CategoryMoodDto> categoryMoods,
+			List<MoodRow> moods,
+			List<MoodAccordRow> moodAccords,
+			MoodAccordMatrix moodAccordMatrix,
+			AccordNoteMatrix accordNoteMatrix,
+			RenderedJson categoryJson,
+			RenderedJson categoryMoodJson) {
+	}
+
+	/**
+	 * 현재 기준 정보. 적재 전이거나 실패했으면 null (호출한 쪽은 DB로 조회한다.)
+	 **/
+	public ReferenceData get() {
+		return current.get();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadOnStartup() {
+		if (!enabled) return;
+		try {
+			reload();
+		} catch (RuntimeException e) {
+			log.error("Reference data load failed, serving category/mood from DB", e);
+		}
+	}
+
+	public synchronized ReferenceData reload() {
+		List<Map<Integer, String>> categories = dao.selectCategoryInfo().stream()
+				.map(row -> Collections.unmodifiableMap(new LinkedHashMap<>(row))).toList();
+		List<CategoryMoodDto> categoryMoods = List.copyOf(dao.selectCategoryMoodInfo());
+		List<MoodRow> moods = List.copyOf(dao.selectMoodInfo());
+		List<MoodAccordRow> moodAccords = List.copyOf(dao.selectMoodAccordInfo());
+		AccordNoteMatrix accordNotes = new AccordNoteMatrix(dao.selectAccordNoteInfo());
+
+		ReferenceData next = new ReferenceData(categories, categoryMoods, moods, moodAccords,
+				new MoodAccordMatrix(moodAccords, moodAccordCacheSize), accordNotes, render(categories), render(categoryMoods));
+		current.set(next);
+		log.info("Reference data loaded: categories={}, categoryMoods={}, moods={}, moodAccords={}, accordNotes={}x{}",
+				categories.size(), categoryMoods.size(), moods.size(), moodAccords.size(),
+				accordNotes.accordCount(), accordNotes.noteCount());
+		return next;
+	}
+
+	private RenderedJson render(Object value) {
+		try {
+			byte[] body = objectMapper.writeValueAsBytes(value);
+			return new RenderedJson(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Reference data serialization failed", e);
+		}
+	}
+}
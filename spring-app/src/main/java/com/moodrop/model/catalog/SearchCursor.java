@@ -0,0 +1,37 @@
+package com.moodrop.model.catalog;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * note 검색 keyset paging 위치. 정렬 순서(일치 개수 내림차순, perfumeId 오름차순)의 마지막 항목을 가리킨다.
+ * client에는 Base64 문자열로만 주고받는다.
+ **/
+public record SearchCursor(int matchCount, int perfumeId) {
+
+	/**
+	 * 이 cursor 다음 순서의 항목인지 여부
+	 **/
+	public boolean precedes(int matchCount, int perfumeId) {
+		return matchCount < this.matchCount || (matchCount == this.matchCount && perfumeId > this.perfumeId);
+	}
+
+	public String encode() {
+		String raw = matchCount + ":" + perfumeId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * null이나 빈 문자열이면 null (첫 페이지). 형식이 틀리면 IllegalArgumentException.
+	 **/
+	public static SearchCursor decode(String cursor) {
+		if (cursor == null || cursor.isBlank()) return null;
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int sep = raw.indexOf(':');
+			return new SearchCursor(Integer.parseInt(raw.substring(0, sep)), Integer.parseInt(raw.substring(sep + 1)));
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+		}
+	}
+}
@@ -0,0 +1,313 @@
+package com.moodrop.model.catalog;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 향수별 "비슷한 향수" 이웃 목록 (상위 N개, cosine 유사도 내림차순).
+ * 향수 벡터는 main accord weight 부분과 perfume_notes(있으면 1) 부분을 각각 길이 1로 맞춘 뒤
+ * accord-share : (1 - accord-share) 비율로 이어 붙이고 다시 길이 1로 맞춘 sparse 벡터다.
+ * 카탈로그가 적재되면 fork/join으로 향수 구간을 나눠 이웃을 계산한다. (특징별 향수 목록으로 겹치는 향수끼리만 내적)
+ * 결과는 CSR 배열(int 향수 index, float 유사도)로 들고 있어, 요청은 배열 구간만 읽는다.
+ **/
+@Slf4j
+@Component
+public class SimilarPerfumeIndex {
+
+	private final AtomicReference<Index> current = new AtomicReference<>();
+
+	// 가장 최근에 적재된 snapshot (이전 snapshot의 계산이 늦게 끝나면 버린다.)
+	private final AtomicReference<CatalogSnapshot> latest = new AtomicReference<>();
+
+	@Value("${moodrop.perfume.similar.top-n:20}")
+	private int topN;
+
+	@Value("${moodrop.perfume.similar.accord-share:0.6}")
+	private float accordShare;
+
+	@Value("${moodrop.perfume.similar.parallelism:0}")
+	private int parallelism;
+
+	// fork/join leaf 하나가 맡는 향수 수
+	private static final int LEAF_SIZE = 64;
+
+	// worker thread별 내적 누적 배열 (leaf가 끝나면 건드린 칸만 되돌린다.)
+	private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(() -> new Scratch(0));
+
+	record Index(
+			CatalogSnapshot snapshot,
+			int[] offsets,      // 향수 index별 [offsets[p], offsets[p + 1])
+			int[] neighbors,    // 이웃 향수 index (유사도 내림차순)
+			float[] scores) {
+	}
+
+	/**
+	 * neighbors() 결과: 이웃 향수 index와 유사도 (snapshot 기준 index)
+	 **/
+	public record Neighbors(CatalogSnapshot snapshot, int[] perfumeIndexes, float[] scores) {
+	}
+
+	@EventListener
+	public void onCatalogReloaded(PerfumeCatalogReloadedEvent event) {
+		CatalogSnapshot snapshot = event.snapshot();
+		latest.set(snapshot);
+
+		// reload 요청은 기다리지 않고, 계산이 끝나면 교체한다. (그 전에는 이전 목록을 쓴다.)
+		ForkJoinPool pool = parallelism > 0 ? new ForkJoinPool(parallelism) : new ForkJoinPool();
+		pool.execute(() -> {
+			try {
+				long start = System.nanoTime();
+				Index index = build(snapshot, topN, accordShare);
+				if (latest.get() != snapshot) return;
+				current.set(index);
+				log.info("Similar perfume index built: perfumes={}, neighbors={}, millis={}",
+						snapshot.perfumeCount(), index.neighbors().length, (System.nanoTime() - start) / 1_000_000);
+			} catch (RuntimeException e) {
+				log.error("Similar perfume index build failed", e);
+			} finally {
+				pool.shutdown();
+			}
+		});
+	}
+
+	public boolean isReady() {
+		return current.get() != null;
+	}
+
+	/**
+	 * 미리 계산한 이웃 목록의 앞 limit개. index가 아직 없으면 null, 모르는 향수면 빈 목록.
+	 **/
+	public Neighbors neighbors(int perfumeId, int limit) {
+		Index index = current.get();
+		if (index == null) return null;
+		int p = index.snapshot().indexOfPerfume(perfumeId);
+		if (p < 0) return new Neighbors(index.snapshot(), new int[0], new float[0]);
+
+		int from = index.offsets()[p];
+		int to = Math.min(index.offsets()[p + 1], from + Math.max(0, limit));
+		int[] perfumes = new int[to - from];
+		float[] scores = new float[to - from];
+		System.arraycopy(index.neighbors(), from, perfumes, 0, perfumes.length);
+		System.arraycopy(index.scores(), from, scores, 0, scores.length);
+		return new Neighbors(index.snapshot(), perfumes, scores);
+	}
+
+	static Index build(CatalogSnapshot snapshot, int topN, float accordShare) {
+		Vectors vectors = Vectors.of(snapshot, accordShare);
+		int n = snapshot.perfumeCount();
+		int k = Math.max(0, Math.min(topN, n - 1));
+
+		// 향수마다 k칸을 잡아 두고 채운 뒤, 빈칸을 빼고 CSR로 모은다.
+		int[] counts = new int[n];
+		int[] slots = new int[n * k];
+		float[] slotScores = new float[n * k];
+		new NeighborTask(vectors, k, counts, slots, slotScores, 0, n).invoke();
+
+		int[] offsets = new int[n + 1];
+		for (int p = 0; p < n; p++) {
+			offsets[p + 1] = offsets[p] + counts[p];
+		}
+		int[] neighbors = new int[offsets[n]];
+		float[] scores = new float[offsets[n]];
+		for (int p = 0; p < n; p++) {
+			System.arraycopy(slots, p * k, neighbors, offsets[p], counts[p]);
+			System.arraycopy(slotScores, p * k, scores, offsets[p], counts[p]);
+		}
+		return new Index(snapshot, offsets, neighbors, scores);
+	}
+
+	/**
+	 * 향수 x 특징(accord, note) 길이 1 sparse 벡터. 향수별 CSR과 특징별 CSR을 함께 들고 있다.
+	 **/
+	private record Vectors(
+			int perfumeCount,
+			int[] rowStart, int[] rowFeature, float[] rowValue,        // 향수 -> (특징, 값)
+			int[] postingStart, int[] postingPerfume, float[] postingValue) { // 특징 -> (향수, 값)
+
+		static Vectors of(CatalogSnapshot snapshot, float accordShare) {
+			int n = snapshot.perfumeCount();
+			int accords = snapshot.accordCount();
+			int features = accords + snapshot.noteCount();
+			PerfumeRows mainAccords = snapshot.mainAccords();
+			PerfumeRows notes = snapshot.notes();
+
+			float accordScale = (float) Math.sqrt(Math.max(0f, Math.min(1f, accordShare)));
+			float noteScale = (float) Math.sqrt(1f - accordScale * accordScale);
+
+			int[] rowStart = new int[n + 1];
+			int[] rowFeature = new int[mainAccords.size() + notes.size()];
+			float[] rowValue = new float[rowFeature.length];
+			boolean[] seen = new boolean[features];
+			int size = 0;
+			for (int p = 0; p < n; p++) {
+				int begin = size;
+
+				// accord 부분 (같은 accord가 두 번 있으면 weight를 더한다.)
+				double accordNorm = 0;
+				for (int r = mainAccords.start(p); r < mainAccords.end(p); r++) {
+					int f = mainAccords.label(r);
+					float w = Math.max(0, mainAccords.value(r));
+					if (w == 0) continue;
+					if (seen[f]) {
+						for (int s = begin; s < size; s++) {
+							if (rowFeature[s] == f) rowValue[s] += w;
+						}
+					} else {
+						seen[f] = true;
+						rowFeature[size] = f;
+						rowValue[size++] = w;
+					}
+				}
+				int accordEnd = size;
+				for (int s = begin; s < accordEnd; s++) {
+					accordNorm += (double) rowValue[s] * rowValue[s];
+				}
+
+				// note 부분 (있으면 1)
+				for (int r = notes.start(p); r < notes.end(p); r++) {
+					int f = accords + notes.label(r);
+					if (seen[f]) continue;
+					seen[f] = true;
+					rowFeature[size] = f;
+					rowValue[size++] = 1f;
+				}
+				int noteCount = size - accordEnd;
+
+				// 부분마다 길이 1로 맞추고 비율을 곱한 뒤, 한쪽만 있으면 전체를 다시 길이 1로 맞춘다.
+				// 값이 0이 된 특징(accord-share가 1이면 note, 0이면 accord)은 내적에 쓸모가 없으므로 뺀다.
+				float a = accordNorm > 0 ? (float) (accordScale / Math.sqrt(accordNorm)) : 0f;
+				float b = noteCount > 0 ? (float) (noteScale / Math.sqrt(noteCount)) : 0f;
+				double norm = (accordNorm > 0 ? accordScale * accordScale : 0) + (noteCount > 0 ? noteScale * noteScale : 0);
+				float rescale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 0f;
+				int kept = begin;
+				for (int s = begin; s < size; s++) {
+					seen[rowFeature[s]] = false;
+					float value = rowValue[s] * (s < accordEnd ? a : b) * rescale;
+					if (value == 0) continue;
+					rowFeature[kept] = rowFeature[s];
+					rowValue[kept++] = value;
+				}
+				size = kept;
+				rowStart[p + 1] = size;
+			}
+
+			// 특징별 향수 목록 (향수 index 오름차순)
+			int[] postingStart = new int[features + 1];
+			for (int s = 0; s < size; s++) {
+				postingStart[rowFeature[s] + 1]++;
+			}
+			for (int f = 0; f < features; f++) {
+				postingStart[f + 1] += postingStart[f];
+			}
+			int[] next = postingStart.clone();
+			int[] postingPerfume = new int[size];
+			float[] postingValue = new float[size];
+			for (int p = 0; p < n; p++) {
+				for (int s = rowStart[p]; s < rowStart[p + 1]; s++) {
+					int at = next[rowFeature[s]]++;
+					postingPerfume[at] = p;
+					postingValue[at] = rowValue[s];
+				}
+			}
+			return new Vectors(n, rowStart, rowFeature, rowValue, postingStart, postingPerfume, postingValue);
+		}
+	}
+
+	/**
+	 * [from, to) 향수의 이웃을 계산한다. LEAF_SIZE보다 크면 반으로 나눠 fork한다.
+	 * 내적 누적 배열은 worker thread마다 하나(SCRATCH)를 쓰고, 향수마다 건드린 칸만 되돌린다.
+	 **/
+	private static final class NeighborTask extends RecursiveAction {
+		private final Vectors vectors;
+		private final int k;
+		private final int[] counts;
+		private final int[] slots;
+		private final float[] slotScores;
+		private final int from;
+		private final int to;
+
+		NeighborTask(Vectors vectors, int k, int[] counts, int[] slots, float[] slotScores, int from, int to) {
+			this.vectors = vectors;
+			this.k = k;
+			this.counts = counts;
+			this.slots = slots;
+			this.slotScores = slotScores;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > LEAF_SIZE) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new NeighborTask(vectors, k, counts, slots, slotScores, from, mid),
+						new NeighborTask(vectors, k, counts, slots, slotScores, mid, to));
+				return;
+			}
+			if (k == 0) return;
+
+			Scratch scratch = scratch(vectors.perfumeCount());
+			float[] dot = scratch.dot();
+			boolean[] visited = scratch.visited();
+			int[] touched = scratch.touched();
+			for (int p = from; p < to; p++) {
+				// 처음 만난 향수는 누적값이 아니라 visited로 가린다. (내적이 0으로 끝나는 향수도 한 번만 담는다.)
+				int touchedSize = 0;
+				for (int s = vectors.rowStart()[p]; s < vectors.rowStart()[p + 1]; s++) {
+					int f = vectors.rowFeature()[s];
+					float v = vectors.rowValue()[s];
+					for (int t = vectors.postingStart()[f]; t < vectors.postingStart()[f + 1]; t++) {
+						int q = vectors.postingPerfume()[t];
+						if (q == p) continue;
+						if (!visited[q]) {
+							visited[q] = true;
+							touched[touchedSize++] = q;
+						}
+						dot[q] += v * vectors.postingValue()[t];
+					}
+				}
+
+				TopKHeap heap = new TopKHeap(k, (a, b) -> {
+					if (dot[a] != dot[b]) return dot[a] > dot[b];
+					return a < b;
+				});
+				for (int t = 0; t < touchedSize; t++) {
+					if (dot[touched[t]] > 0) heap.offer(touched[t]);
+				}
+				int[] ranked = heap.drain();
+				for (int r = 0; r < ranked.length; r++) {
+					slots[p * k + r] = ranked[r];
+					slotScores[p * k + r] = Math.min(1f, dot[ranked[r]]);
+				}
+				counts[p] = ranked.length;
+
+				for (int t = 0; t < touchedSize; t++) {
+					dot[touched[t]] = 0;
+					visited[touched[t]] = false;
+				}
+			}
+		}
+	}
+
+	private record Scratch(float[] dot, boolean[] visited, int[] touched) {
+		Scratch(int perfumeCount) {
+			this(new float[perfumeCount], new boolean[perfumeCount], new int[perfumeCount]);
+		}
+	}
+
+	private static Scratch scratch(int perfumeCount) {
+		Scratch scratch = SCRATCH.get();
+		if (scratch.dot().length < perfumeCount) {
+			scratch = new Scratch(perfumeCount);
+			SCRATCH.set(scratch);
+		}
+		return scratch;
+	}
+}
@@ -0,0 +1,79 @@
+package com.moodrop.model.catalog;
+
+/**
+ * 정수 항목(향수 index 등) 중 순위가 앞선 capacity개만 남기는 heap.
+ * 순위는 Order로 정하고, heap 맨 위에는 남은 것 중 가장 뒤 순위가 온다.
+ * 후보가 아무리 많아도 메모리는 capacity에 비례한다.
+ **/
+final class TopKHeap {
+
+	/**
+	 * a가 b보다 앞 순위면 true
+	 **/
+	interface Order {
+		boolean before(int a, int b);
+	}
+
+	private final int[] heap;
+	private final Order order;
+	private int size;
+
+	TopKHeap(int capacity, Order order) {
+		this.heap = new int[Math.max(0, capacity)];
+		this.order = order;
+	}
+
+	int size() {
+		return size;
+	}
+
+	void offer(int item) {
+		if (size < heap.length) {
+			heap[size] = item;
+			siftUp(size++);
+		} else if (size > 0 && order.before(item, heap[0])) {
+			heap[0] = item;
+			siftDown(size);
+		}
+	}
+
+	/**
+	 * 앞 순위부터 꺼낸다. 호출 후 heap은 비어 있다.
+	 **/
+	int[] drain() {
+		int[] ranked = new int[size];
+		for (int h = size - 1; h >= 0; h--) {
+			ranked[h] = heap[0];
+			heap[0] = heap[h];
+			siftDown(h);
+		}
+		size = 0;
+		return ranked;
+	}
+
+	private void siftUp(int i) {
+		int item = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!order.before(heap[parent], item)) break;
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = item;
+	}
+
+	private void siftDown(int n) {
+		if (n == 0) return;
+		int item = heap[0];
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= n) break;
+			if (child + 1 < n && order.before(heap[child], heap[child + 1])) child++;
+			if (!order.before(item, heap[child])) break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = item;
+	}
+}
@@ -0,0 +1,159 @@
+package com.moodrop.model.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 사용자 보유 note와 향수 note의 layer(top/middle/base)별 교집합을 bitset으로 센다. (filterByAccordWithUserNotes)
+ * note는 (layer, 이름)마다 bit 하나를 받고, 같은 layer의 bit는 이어진 word 구간에 모은다.
+ * 향수별 bitset은 카탈로그 적재 시 한 번 만들고, 요청마다 사용자 bitset과 AND + bitCount만 한다.
+ * 일치한 note 이름 목록은 응답에 나가는 향수에 대해서만 만든다.
+ **/
+@Component
+public class UserNoteMatcher {
+
+	public static final List<String> LAYERS = List.of("top", "middle", "base");
+
+	private final AtomicReference<Index> current = new AtomicReference<>();
+
+	record Index(
+			CatalogSnapshot snapshot,
+			int[] bitOfNote,     // note index -> bit (top/middle/base가 아니면 -1)
+			int[] layerStart,    // layer별 word 구간 [layerStart[l], layerStart[l + 1])
+			long[] perfumeBits) { // 향수 index * words() 부터 words()개
+
+		int words() {
+			return layerStart[LAYERS.size()];
+		}
+	}
+
+	@EventListener
+	public void onCatalogReloaded(PerfumeCatalogReloadedEvent event) {
+		current.set(build(event.snapshot()));
+	}
+
+	/**
+	 * 사용자 보유 note id 목록의 bitset. index가 아직 없으면 null (호출한 쪽은 이름 비교로 처리한다.)
+	 **/
+	public Inventory inventory(Collection<Integer> noteIds) {
+		Index index = current.get();
+		if (index == null) return null;
+
+		long[] bits = new long[index.words()];
+		for (Integer noteId : noteIds) {
+			if (noteId == null) continue;
+			int note = index.snapshot().indexOfNote(noteId);
+			if (note < 0) continue;
+			int bit = index.bitOfNote()[note];
+			if (bit >= 0) bits[bit >>> 6] |= 1L << bit;
+		}
+		return new Inventory(index, bits);
+	}
+
+	/**
+	 * 한 사용자의 보유 note bitset. 같은 snapshot으로 만든 index만 쓴다.
+	 **/
+	public static final class Inventory {
+		private final Index index;
+		private final long[] bits;
+
+		private Inventory(Index index, long[] bits) {
+			this.index = index;
+			this.bits = bits;
+		}
+
+		/**
+		 * 향수의 note 중 사용자가 가진 note 수 (모든 layer 합). 모르는 향수면 0.
+		 **/
+		public int countHits(int perfumeId) {
+			int perfume = index.snapshot().indexOfPerfume(perfumeId);
+			if (perfume < 0) return 0;
+
+			long[] perfumeBits = index.perfumeBits();
+			int base = perfume * bits.length;
+			int count = 0;
+			for (int w = 0; w < bits.length; w++) {
+				count += Long.bitCount(perfumeBits[base + w] & bits[w]);
+			}
+			return count;
+		}
+
+		/**
+		 * layer -> 일치한 note 이름 (향수 note 순서, layer는 top/middle/base 순으로 항상 셋 다 담는다.)
+		 **/
+		public Map<String, List<String>> hitNames(int perfumeId) {
+			Map<String, List<String>> hits = new LinkedHashMap<>();
+			for (String layer : LAYERS) {
+				hits.put(layer, new ArrayList<>());
+			}
+			CatalogSnapshot snapshot = index.snapshot();
+			int perfume = snapshot.indexOfPerfume(perfumeId);
+			if (perfume < 0) return hits;
+
+			// 같은 bit의 note가 두 번 나오면 한 번만 담는다. (countHits와 같은 개수)
+			long[] pending = bits.clone();
+			PerfumeRows notes = snapshot.notes();
+			for (int k = notes.start(perfume); k < notes.end(perfume); k++) {
+				int note = notes.label(k);
+				int bit = index.bitOfNote()[note];
+				if (bit < 0 || (pending[bit >>> 6] & (1L << bit)) == 0) continue;
+				pending[bit >>> 6] &= ~(1L << bit);
+				hits.get(LAYERS.get(layerOf(bit >>> 6))).add(snapshot.noteName(note));
+			}
+			return hits;
+		}
+
+		private int layerOf(int word) {
+			int layer = 0;
+			while (word >= index.layerStart()[layer + 1]) layer++;
+			return layer;
+		}
+	}
+
+	static Index build(CatalogSnapshot snapshot) {
+		// layer별로 이름마다 slot을 준다. (같은 layer의 같은 이름은 한 note로 본다.)
+		List<Map<String, Integer>> slots = new ArrayList<>();
+		for (int l = 0; l < LAYERS.size(); l++) {
+			slots.add(new HashMap<>());
+		}
+		int[] layerOfNote = new int[snapshot.noteCount()];
+		int[] slotOfNote = new int[snapshot.noteCount()];
+		for (int n = 0; n < snapshot.noteCount(); n++) {
+			String type = snapshot.noteType(n);
+			String name = snapshot.noteName(n);
+			int layer = type == null || name == null ? -1 : LAYERS.indexOf(type.toLowerCase());
+			layerOfNote[n] = layer;
+			if (layer < 0) continue;
+			Map<String, Integer> layerSlots = slots.get(layer);
+			slotOfNote[n] = layerSlots.computeIfAbsent(name, key -> layerSlots.size());
+		}
+
+		int[] layerStart = new int[LAYERS.size() + 1];
+		for (int l = 0; l < LAYERS.size(); l++) {
+			layerStart[l + 1] = layerStart[l] + (slots.get(l).size() + 63) / 64;
+		}
+		int[] bitOfNote = new int[snapshot.noteCount()];
+		for (int n = 0; n < snapshot.noteCount(); n++) {
+			bitOfNote[n] = layerOfNote[n] < 0 ? -1 : layerStart[layerOfNote[n]] * 64 + slotOfNote[n];
+		}
+
+		int words = layerStart[LAYERS.size()];
+		long[] perfumeBits = new long[snapshot.perfumeCount() * words];
+		PerfumeRows notes = snapshot.notes();
+		for (int p = 0; p < snapshot.perfumeCount(); p++) {
+			for (int k = notes.start(p); k < notes.end(p); k++) {
+				int bit = bitOfNote[notes.label(k)];
+				if (bit >= 0) perfumeBits[p * words + (bit >>> 6)] |= 1L << bit;
+			}
+		}
+		return new Index(snapshot, bitOfNote, layerStart, perfumeBits);
+	}
+}
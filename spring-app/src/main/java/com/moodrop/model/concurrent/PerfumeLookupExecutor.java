@@ -0,0 +1,120 @@
+package com.moodrop.model.concurrent;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 향수 상세 정보의 테이블별 조회를 동시에 실행하기 위한 전용 Thread Pool.
+ * pool-size가 전체 동시 조회 수(= 사용하는 DB Connection 수)의 상한이고,
+ * per-request-limit이 요청 하나가 동시에 쓸 수 있는 조회 수의 상한이다.
+ * 대기열까지 가득 차면 요청 Thread에서 대신 실행하지 않고 거절한다. (그러면 상한을 넘어 DB Connection을 쓰게 된다.)
+ * (Executor Bean으로 등록하면 Spring 기본 applicationTaskExecutor가 빠지므로 Component로 감싼다.)
+ */
+@Component
+public class PerfumeLookupExecutor implements DisposableBean {
+
+	private final ThreadPoolExecutor pool;
+	private final int perRequestLimit;
+
+	public PerfumeLookupExecutor(
+			@Value("${moodrop.perfume.lookup.pool-size:8}") int poolSize,
+			@Value("${moodrop.perfume.lookup.per-request-limit:4}") int perRequestLimit) {
+		this.pool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(poolSize * 16),
+				new CustomizableThreadFactory("perfume-lookup-"),
+				// 큐가 가득 차면 RejectedExecutionException (FanOut.await()에서 취소 후 그대로 던진다.)
+				new ThreadPoolExecutor.AbortPolicy());
+		this.pool.allowCoreThreadTimeOut(true);
+		this.perRequestLimit = Math.max(1, perRequestLimit);
+	}
+
+	/**
+	 * 요청 하나에 대한 조회 묶음을 만든다.
+	 */
+	public FanOut newFanOut() {
+		return new FanOut();
+	}
+
+	@Override
+	public void destroy() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * 요청 하나의 조회 묶음.
+	 * add()로 조회를 등록하고 await()에서 최대 perRequestLimit개씩 실행한다.
+	 * 하나라도 실패하면 나머지 조회를 취소하고 SQLException을 던진다.
+	 * pool이 가득 차 조회를 넣지 못하면 나머지 조회를 취소하고 RejectedExecutionException을 던진다. (호출한 쪽에서 순차 조회로 대신한다.)
+	 */
+	public class FanOut {
+		private final List<FutureTask<?>> tasks = new ArrayList<>();
+
+		public <T> Future<T> add(Callable<T> lookup) {
+			FutureTask<T> task = new FutureTask<>(lookup);
+			tasks.add(task);
+			return task;
+		}
+
+		public void await() throws SQLException {
+			BlockingQueue<FutureTask<?>> done = new LinkedBlockingQueue<>();
+			int next = 0;
+			int running = 0;
+			try {
+				while (next < tasks.size() && running < perRequestLimit) {
+					start(tasks.get(next++), done);
+					running++;
+				}
+				while (running > 0) {
+					FutureTask<?> finished = done.take();
+					running--;
+					finished.get();
+					if (next < tasks.size()) {
+						start(tasks.get(next++), done);
+						running++;
+					}
+				}
+			} catch (RejectedExecutionException e) {
+				cancelAll();
+				throw e;
+			} catch (ExecutionException e) {
+				cancelAll();
+				Throwable cause = e.getCause();
+				if (cause instanceof SQLException sqlException) throw sqlException;
+				throw new SQLException("Perfume lookup failed", cause);
+			} catch (InterruptedException e) {
+				cancelAll();
+				Thread.currentThread().interrupt();
+				throw new SQLException("Perfume lookup interrupted", e);
+			}
+		}
+
+		private void start(FutureTask<?> task, BlockingQueue<FutureTask<?>> done) {
+			pool.execute(() -> {
+				task.run();
+				done.add(task);
+			});
+		}
+
+		private void cancelAll() {
+			for (FutureTask<?> task : tasks) {
+				task.cancel(true);
+			}
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.moodrop.model.dao;
+
+import org.apache.ibatis.session.ResultHandler;
+
+import com.moodrop.model.dto.PerfumeBasicDto;
+
+public interface CatalogDao {
+	// 향수 카탈로그 snapshot 생성을 위한 전체 테이블 조회
+	// 결과를 List로 모으지 않고 ResultHandler로 한 row씩 넘겨서 Builder에 바로 쌓는다.
+	void selectCatalogNotes(ResultHandler<NoteRow> handler);
+	
+	void selectCatalogAccords(ResultHandler<AccordRow> handler);
+	
+	void selectCatalogPerfumes(ResultHandler<PerfumeBasicDto> handler);
+	
+	void selectCatalogComments(ResultHandler<AttributeRow> handler);
+	
+	void selectCatalogDayNight(ResultHandler<AttributeRow> handler);
+	
+	void selectCatalogLongevity(ResultHandler<AttributeRow> handler);
+	
+	void selectCatalogSeason(ResultHandler<AttributeRow> handler);
+	
+	void selectCatalogSillage(ResultHandler<AttributeRow> handler);
+	
+	void selectCatalogMainAccords(ResultHandler<RefRow> handler);
+	
+	void selectCatalogPerfumeNotes(ResultHandler<RefRow> handler);
+	
+	void selectCatalogDeterminedNotes(ResultHandler<RefRow> handler);
+	
+	// ---- Row DTOs (내부 클래스) ----
+	class NoteRow { public int id; public String name; public String koreanName; public String type; }
+	class AccordRow { public int id; public String name; }
+	// 문자열 label + 정수 값 (dayNight, longevity, season, sillage, comment)
+	class AttributeRow { public int perfumeId; public String label; public int value; }
+	// note/accord id 참조 + 가중치 (main accord, perfume note, determined note)
+	class RefRow { public int perfumeId; public int refId; public int value; public float weight; }
+}
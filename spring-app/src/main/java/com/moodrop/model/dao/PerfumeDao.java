@@ -12,6 +12,7 @@ import com.moodrop.model.dto.MainAccordDto;
 import com.moodrop.model.dto.MoodAccordDto;
 import com.moodrop.model.dto.NotesDto;
 import com.moodrop.model.dto.PerfumeBasicDto;
+import com.moodrop.model.dto.PerfumeCommentDto;
 import com.moodrop.model.dto.PerfumeMatchDto;
 import com.moodrop.model.dto.PerfumeWrapperExtended;
 import com.moodrop.model.dto.SeasonDto;
@@ -19,8 +20,12 @@ import com.moodrop.model.dto.SillageDto;
 import com.moodrop.model.dto.UserNoteDto;
 
 public interface PerfumeDao {
-	// Accord로 Perfume Basic 정보 조회
-	List<PerfumeMatchDto> searchByAccord(List<String> accords);
+	// Accord id로 Perfume 후보 조회 (weight 합 내림차순 limit개)
+	List<PerfumeMatchDto> searchByAccord(@Param("accordIds") List<Integer> accordIds, @Param("limit") int limit);
+	
+	// Perfume Wrapper의 전체 정보를 한 번의 round trip(multi result set)으로 갖고 온다.
+	// 결과 순서: basic, comment, dayNight, longevity, season, sillage, mainAccord, notes
+	List<List<?>> selectPerfumeDetailByPerfumeId(int id);
 	
 	// Perfume Wrapper의 전체 정보를 갖고 오기 위한 Query 문
 	// 테이블 마다 DAO를 이용해 필요한 DB정보를 갖고 온다.
@@ -40,11 +45,36 @@ public interface PerfumeDao {
 	
 	List<String> selectCommentByPerfumeId(int id);
 	
+	// 여러 Perfume의 정보를 테이블 당 한 번의 Query(IN list)로 갖고 온다.
+	// 결과 row의 perfumeId로 Service에서 향수별로 묶는다.
+	List<PerfumeBasicDto> selectPerfumeBasicByPerfumeIds(@Param("ids") List<Integer> ids);
+	
+	List<PerfumeCommentDto> selectCommentByPerfumeIds(@Param("ids") List<Integer> ids);
+	
+	List<DayNightDto> selectDayNightByPerfumeIds(@Param("ids") List<Integer> ids);
+	
+	List<LongevityDto> selectLongevityByPerfumeIds(@Param("ids") List<Integer> ids);
+	
+	List<SeasonDto> selectSeasonByPerfumeIds(@Param("ids") List<Integer> ids);
+	
+	List<SillageDto> selectSillageByPerfumeIds(@Param("ids") List<Integer> ids);
+	
+	List<MainAccordDto> selectMainAccordByPerfumeIds(@Param("ids") List<Integer> ids);
+	
+	List<NotesDto> selectNotesByPerfumeIds(@Param("ids") List<Integer> ids);
+	
 	// 카테고리 정보
 	List<Map<Integer, String>> selectCategoryInfo();
 	
 	List<CategoryMoodDto> selectCategoryMoodInfo();
 	
+	// 기준 정보(ReferenceDataRegistry) 적재용 mood, mood_accord 전체 조회
+	List<MoodRow> selectMoodInfo();
+	
+	List<MoodAccordRow> selectMoodAccordInfo();
+	
+	List<AccordNoteRow> selectAccordNoteInfo();
+	
 	// Mood -> Accord 값 가져오기
 	List<MoodAccordDto> selectMoodAccords(@Param("moodIdList") List<Integer> moodIdList);
 	
@@ -58,19 +88,26 @@ public interface PerfumeDao {
 	// 사용자 보유 노트 가져오기
 	List<NotesDto> selectUserNotes(String userId);
 	
-	// 사용자 보유 노트 삭제
-	int deleteUserNote(@Param("userId") String userId, @Param("note") String noteName);
+	// 사용자 보유 노트 id와 보유량(g)
+	List<UserNoteGramRow> selectUserNoteGrams(String userId);
+	
+	// 사용자 보유 노트 삭제 (같은 이름의 note id 전체)
+	int deleteUserNote(@Param("userId") String userId, @Param("noteIds") List<Integer> noteIds);
 	
 	// 사용자 보유 노트 수정
 	int updateUserNotes(UserNoteDto userNote, String userId);	
 	
-	// Note로 만들 수 있는 PerfumeId 찾기( 만들 수 있는 향수 개수도 반환, 최대 500개 반환 후 Service에서 개수 통제)
+	// Note로 만들 수 있는 PerfumeId 찾기 (id 오름차순, afterId 다음부터 최대 limit개)
 	// listSize만큼을 perfume에서 모두 가져야, perfume 반환.
-	List<Integer> selectPerfumeByNotes(@Param("noteList") List<String> noteList, @Param("listSize") int listSize );
+	List<Integer> selectPerfumeByNotes(@Param("noteIds") List<Integer> noteIds, @Param("listSize") int listSize,
+			@Param("afterId") Integer afterId, @Param("limit") int limit);
 	
 	// Note로 만들 수 있는 perfumeId 찾기
 	// noteList 중 perfume이 노트를 모두 다 담고 있을 경우 (혹은 향후 조정을 위해 minCount이상), perfume 반환.
-	List<PerfumeWrapperExtended> selectPerfumeByNotesAtLeastMin(@Param("noteList") List<String> noteList, @Param("minCount") int minCount);
+	// noteGroups[i]는 검색 note i번째 이름의 id 목록이고, 맞은 note는 matchedMask의 i번째 bit로 돌려준다.
+	// (matchCount DESC, id ASC) 순서에서 (afterCount, afterId) 다음부터 최대 limit개
+	List<NoteMatchRow> selectPerfumeByNotesAtLeastMin(@Param("noteGroups") List<List<Integer>> noteGroups, @Param("minCount") int minCount,
+			@Param("afterCount") Integer afterCount, @Param("afterId") Integer afterId, @Param("limit") int limit);
 	
 	
 	
@@ -90,5 +127,9 @@ public interface PerfumeDao {
     class NoteRow { public Long id; public String name; public String type; }
     class AccordRow { public Long id; public String name; }
     class AccordNoteRow { public Long noteId; public Long accordId; public double weight; }
+    class MoodRow { public int id; public String description; }
+    class MoodAccordRow { public int moodId; public int accordId; public String accord; public float weight; }
+    class UserNoteGramRow { public int noteId; public float gram; }
+    class NoteMatchRow { public int perfumeId; public int matchCount; public long matchedMask; }
 	
 }
@@ -0,0 +1,59 @@
+package com.moodrop.model.dao;
+
+import java.sql.Statement;
+import java.util.List;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 레시피 쓰기용 MyBatis BATCH executor.
+ * 여기서 얻은 mapper의 INSERT/UPDATE는 바로 보내지 않고 모아 두었다가 flush() 때 JDBC batch 한 번으로 보낸다.
+ * (datasource의 rewriteBatchedStatements=true면 MySQL driver가 이를 multi-row INSERT로 다시 써서 보낸다.)
+ * 같은 transaction에서는 SqlSession 하나를 같이 쓰고, 이미 SIMPLE executor로 연 transaction은 BATCH로 바꿀 수 없으므로
+ * 레시피를 쓰는 transaction은 처음부터 끝까지 이 mapper만 쓴다.
+ **/
+@Component
+public class RecipeBatchWriter {
+
+	private final SqlSessionTemplate session;
+
+	public RecipeBatchWriter(SqlSessionFactory sqlSessionFactory) {
+		this.session = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+	}
+
+	/**
+	 * BATCH executor의 RecipeDao. transaction 밖에서는 호출마다 commit되어 모을 수 없으므로 IllegalStateException
+	 **/
+	public RecipeDao recipeDao() {
+		requireTransaction();
+		return session.getMapper(RecipeDao.class);
+	}
+
+	/**
+	 * 모아 둔 statement를 보내고 반영된 row 수 합을 돌려준다.
+	 * driver가 개수를 알려 주지 않는 row(SUCCESS_NO_INFO, multi-row로 다시 쓴 경우)는 1로 센다.
+	 * useGeneratedKeys인 INSERT의 key도 이때 채워진다.
+	 **/
+	public int flush() {
+		requireTransaction();
+		List<BatchResult> results = session.flushStatements();
+		int rows = 0;
+		for (BatchResult result : results) {
+			for (int count : result.getUpdateCounts()) {
+				rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+			}
+		}
+		return rows;
+	}
+
+	private static void requireTransaction() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			throw new IllegalStateException("Recipe batch writes need an active transaction");
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package com.moodrop.model.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.data.repository.query.Param;
 
@@ -11,14 +13,14 @@ public interface RecipeDao {
 		// 사용자 보유 레시피 가져오기
 		List<UserRecipeDto> selectUserRecipe(String userId);
 		
-		// Composition 일괄적으로 INSERT (notes.name -> id 서브쿼리 매핑)
-	    int insertCompositionsInRecipe(
+		// Composition 한 row INSERT (item.noteId는 Service에서 미리 채운다. RecipeBatchWriter로 모아서 보낸다.)
+	    int insertCompositionInRecipe(
 	        @Param("userPerfumeId") Integer userPerfumeId,
-	        @Param("items") List<NotesDto> items
+	        @Param("item") NotesDto item
 	    );
 	    
-	    // Note의 id 반환
-	    List<Integer> selectNoteIdByName(@Param("names") List<NotesDto> names);
+	    // Note 이름(영문) -> 가장 작은 id (NotesDto의 noteId, name만 채운다. 모르는 이름은 빠진다.)
+	    List<NotesDto> selectNoteIdByName(@Param("names") Collection<String> names);
 	    
 	    // 사용자 레시피 작성하기
 	    int insertUserRecipe(UserRecipeDto userRecipe /*, @Param("userId") Integer userId*/);
@@ -29,7 +31,7 @@ public interface RecipeDao {
 	    // 레시피 수정하기
 	    int updateUserRecipe(UserRecipeDto userRecipe);
 	    
-	    int upsertCompositionsInRecipe(@Param("recipeId") Integer recipeId, @Param("items") List<NotesDto> items);
+	    int upsertCompositionInRecipe(@Param("recipeId") Integer recipeId, @Param("item") NotesDto item);
 	    
 	    
 	    // recipeId로 레시피 삭제하기
@@ -37,8 +39,11 @@ public interface RecipeDao {
 	    
 	    int deleteCompositionById(int recipeId);
 	    
-	    // recipeId 로 userId로 레시피 복사하기
-	    // int insertRecipeToUser(int userId, int recipeId);
+	    // recipeIds 레시피를 userIdString 사용자에게 복사할 row (recipeId: 원본 id, userId: 복사받을 사용자 id)
+	    List<UserRecipeDto> selectRecipesToCopy(@Param("userIdString") String userIdString, @Param("recipeIds") List<Integer> recipeIds);
+	    
+	    // 원본 레시피 id -> 새 레시피 id 짝대로 composition 복사하기
+	    int copyCompositions(Map<Integer, Integer> newIdBySource);
 	    
 	    
 }
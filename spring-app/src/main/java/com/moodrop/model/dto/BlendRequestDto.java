@@ -0,0 +1,22 @@
+package com.moodrop.model.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlendRequestDto {
+	private List<Integer> moodIds;
+	
+	// 반올림 단위와 총량 (없으면 5, 100)
+	private Integer unit;
+	private Integer total;
+}
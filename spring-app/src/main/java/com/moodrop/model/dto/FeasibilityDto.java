@@ -0,0 +1,30 @@
+package com.moodrop.model.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class FeasibilityDto {
+	private int perfumeId;
+	private String perfumeName;
+	private String brandName;
+	
+	// 보유량으로 만들 수 있는 최대 양(g)과 그 양을 정하는 note
+	private float maxAmount;
+	private String limitingNote;
+	
+	// 목표 용량을 만들 수 있는지
+	private boolean feasible;
+	
+	// 목표 용량 기준으로 모자라는 note (모자라는 양 내림차순)
+	private List<NoteShortfallDto> shortfalls;
+}
@@ -22,4 +22,8 @@ public class LongevityDto {
 	// Longevity 정보
 	private String length;
     private int voteNum;
+	
+	// ...ByPerfumeIds 일괄 조회 시 향수별로 묶는 용도로 쓴다.
+	@JsonIgnore
+	private int perfumeId;
 }
@@ -5,6 +5,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -20,4 +22,8 @@ public class MainAccordDto {
 	// Accord 이름 및 비중
 	private String name;
 	private int weight;
+	
+	// ...ByPerfumeIds 일괄 조회 시 향수별로 묶는 용도로 쓴다.
+	@JsonIgnore
+	private int perfumeId;
 }
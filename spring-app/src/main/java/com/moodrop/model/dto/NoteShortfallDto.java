@@ -0,0 +1,21 @@
+package com.moodrop.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class NoteShortfallDto {
+	private String name;
+	
+	// 목표 용량에 필요한 양, 보유량, 모자라는 양 (g)
+	private float required;
+	private float owned;
+	private float shortfall;
+}
@@ -0,0 +1,22 @@
+package com.moodrop.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class NoteSuggestionDto {
+	// POST /perfume/note 등에 그대로 넘기는 이름
+	private String name;
+	private String koreanName;
+	private String type;
+	
+	// determined_notes에 나온 횟수
+	private int popularity;
+}
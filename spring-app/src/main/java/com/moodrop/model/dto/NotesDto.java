@@ -20,4 +20,8 @@ public class NotesDto {
 	private String name;
 	private String type;
 	private Integer weight;
+	
+	// ...ByPerfumeIds 일괄 조회 시 향수별로 묶는 용도로 쓴다.
+	@JsonIgnore
+	private int perfumeId;
 }
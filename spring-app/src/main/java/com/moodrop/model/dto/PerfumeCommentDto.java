@@ -0,0 +1,18 @@
+package com.moodrop.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class PerfumeCommentDto {
+	// selectCommentByPerfumeIds 결과 (향수별 comment)
+	private int perfumeId;
+	private String comment;
+}
@@ -18,6 +18,7 @@ import lombok.ToString;
 @NoArgsConstructor
 public class PerfumeExtendedDto extends PerfumeBasicDto{
 	private int accordMatchCount;
+	private float accordScore;
 	private Map<String, Integer> sillage;
 	private Map<String, Integer> longevity;
 	private Map<String, List<String>> notes;
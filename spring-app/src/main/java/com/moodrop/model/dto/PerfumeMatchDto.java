@@ -14,4 +14,7 @@ import lombok.ToString;
 public class PerfumeMatchDto {
 	private int perfumeId;
 	private int accordMatchCount;
+	
+	// 선택한 accord의 perfume_main_accords.weight 합
+	private float accordScore;
 }
@@ -14,6 +14,10 @@ import lombok.ToString;
 @AllArgsConstructor
 @NoArgsConstructor
 public class PerfumeResponseDto {
+	// note별 비율 (반올림 전, 합 1, 큰 순)
 	NoteScoreDto[] selectedNotes;
+	// note 이름 -> 양 (unit 단위로 반올림, 합 total)
     Map<String, Integer> ratios;
+    // 반올림한 조합의 accord 분포와 목표 accord 분포의 거리 (L2, 0이면 같다)
+    double fitError;
 }
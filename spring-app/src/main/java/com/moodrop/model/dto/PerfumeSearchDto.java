@@ -0,0 +1,21 @@
+package com.moodrop.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class PerfumeSearchDto {
+	private int perfumeId;
+	private String perfumeName;
+	private String brandName;
+	
+	// 검색어 trigram 중 이름/브랜드와 겹친 비율 (0 ~ 1)
+	private float score;
+}
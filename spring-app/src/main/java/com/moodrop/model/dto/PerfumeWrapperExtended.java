@@ -22,11 +22,7 @@ public class PerfumeWrapperExtended extends PerfumeWrapper{
 	private int matchId;
 	private int matchCount;
 	
-	// DAO 결과 받는 용도로 쓴다.
-	@JsonIgnore
-	private String matchedNotesJson;
-	
-	// Json형식으로 된 전체 String을, TypeHandler를 이용해서 List<String> 형식으로 바꿔준다.
+	// 검색 note 중 이 향수에 들어 있는 것 (검색 순서)
 	private List<String> matchedNotes;
 	
 	public static PerfumeWrapperExtended of(PerfumeWrapper base,
@@ -0,0 +1,18 @@
+package com.moodrop.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipeImportErrorDto {
+	// 요청 body의 줄 번호 (1부터)
+	private long line;
+	private String message;
+}
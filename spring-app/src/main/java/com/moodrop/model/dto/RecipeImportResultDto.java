@@ -0,0 +1,27 @@
+package com.moodrop.model.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecipeImportResultDto {
+	// 읽은 레시피 줄 수 (빈 줄, CSV header 제외)
+	private long lines;
+	private long imported;
+	private long failed;
+	
+	// 실패한 줄 (앞에서부터 최대 moodrop.recipe.import.max-errors개, 나머지는 failed에만 센다.)
+	private List<RecipeImportErrorDto> errors;
+	
+	// 요청 body를 끝까지 읽지 못했으면 그 사유 (그 전까지 읽은 줄은 위 개수에 들어 있다.) 끝까지 읽었으면 null
+	private String aborted;
+}
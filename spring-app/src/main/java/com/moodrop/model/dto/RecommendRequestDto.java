@@ -0,0 +1,19 @@
+package com.moodrop.model.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecommendRequestDto {
+	private String userId;
+	private List<Integer> moodIds;
+}
@@ -0,0 +1,21 @@
+package com.moodrop.model.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchPageDto<T> {
+	private List<T> items;
+	
+	// 다음 페이지 요청 시 그대로 넘긴다. (마지막 페이지면 null)
+	private String nextCursor;
+}
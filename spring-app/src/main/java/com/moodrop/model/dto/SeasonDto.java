@@ -22,4 +22,8 @@ public class SeasonDto {
 	// Season 정보
     private String season;
     private int weight;
+	
+	// ...ByPerfumeIds 일괄 조회 시 향수별로 묶는 용도로 쓴다.
+	@JsonIgnore
+	private int perfumeId;
 }
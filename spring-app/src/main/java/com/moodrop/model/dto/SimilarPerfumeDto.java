@@ -0,0 +1,21 @@
+package com.moodrop.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class SimilarPerfumeDto {
+	private int perfumeId;
+	private String perfumeName;
+	private String brandName;
+	
+	// accord + note 벡터의 cosine 유사도 (0 ~ 1)
+	private float similarity;
+}
@@ -2,6 +2,8 @@ package com.moodrop.model.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -18,4 +20,8 @@ public class UserNoteDto {
 	private String note;
 	private int userNoteGram;
 	private String memo;
+	
+	// note 이름을 NameDictionary로 바꾼 id (insert 용도)
+	@JsonIgnore
+	private Integer noteId;
 }
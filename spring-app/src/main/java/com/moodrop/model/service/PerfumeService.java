@@ -1,25 +1,43 @@
 package com.moodrop.model.service;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 import com.moodrop.model.dto.CategoryMoodDto;
+import com.moodrop.model.dto.FeasibilityDto;
 import com.moodrop.model.dto.MoodAccordDto;
+import com.moodrop.model.dto.NoteSuggestionDto;
 import com.moodrop.model.dto.NotesDto;
+import com.moodrop.model.dto.PerfumeResponseDto;
+import com.moodrop.model.dto.PerfumeSearchDto;
 import com.moodrop.model.dto.PerfumeWrapper;
 import com.moodrop.model.dto.PerfumeWrapperExtended;
+import com.moodrop.model.dto.SearchPageDto;
+import com.moodrop.model.dto.SimilarPerfumeDto;
 import com.moodrop.model.dto.UserNoteDto;
 
 public interface PerfumeService {
+	// 없는 향수면 NoSuchElementException
 	PerfumeWrapper getPerfumeWrapper(int id) throws SQLException;
 	
+	// 여러 Perfume의 전체 정보를 한 번에 조회한다. (입력 순서 유지, 없는 id 제외)
+	List<PerfumeWrapper> getPerfumeWrappers(Collection<Integer> ids) throws SQLException;
+	
 	List<Map<Integer, String>> getCategory() throws SQLException;
 	
 	List<CategoryMoodDto>getCategoryMood() throws SQLException;
 
 	Map<String, Object> filterByAccordWithUserNotes(String userId, List<String> accords) throws SQLException;
 	
+	/**
+	 * mood 선택부터 accord 후보 검색, 사용자 노트 일치, 카드 조립까지 한 번에 실행한다.
+	 * 단계별 소요 시간은 timer에 남는다. moodIdList가 비어 있으면 IllegalArgumentException
+	 * **/
+	Map<String, Object> recommend(String userId, List<Integer> moodIdList, StageTimer timer) throws SQLException;
+	
 	List<MoodAccordDto>calculateAccordWithMood(List<Integer> moods);
 	
 	List<NotesDto> getDeterminedNotes(int perfumeId);
@@ -28,22 +46,72 @@ public interface PerfumeService {
 	
 	List<NotesDto> getUserNotes(String userId);
 	
+	/**
+	 * note 이름 자동완성 (영문/한글, 한글 초성). 카탈로그가 적재되지 않았으면 IllegalStateException
+	 * **/
+	List<NoteSuggestionDto> suggestNotes(String query, int limit);
+	
 	int insertUserNote(UserNoteDto userNote) throws SQLException;
 
 	int deleteUserNote(String userId, String note) throws SQLException;
+	
+	/**
+	 * 사용자 보유량으로 향수별 제조 가능량, 부족한 note를 계산한다.
+	 * perfumeIds가 null이면 전체 카탈로그에서 만들 수 있는 양이 많은 순으로 limit개.
+	 * **/
+	List<FeasibilityDto> getFeasibility(String userId, float bottleSize, List<Integer> perfumeIds, int limit);
+	
+	/**
+	 * accord weight와 note 구성이 비슷한 향수 (유사도 내림차순, 최대 limit개)
+	 * 이웃 목록이 아직 계산되지 않았으면 IllegalStateException, 없는 향수면 NoSuchElementException
+	 * **/
+	List<SimilarPerfumeDto> getSimilarPerfumes(int perfumeId, int limit);
+	
+	/**
+	 * 향수 이름/브랜드 검색 (trigram, 오타 허용). 카탈로그가 적재되지 않았으면 IllegalStateException
+	 * **/
+	List<PerfumeSearchDto> searchPerfumes(String query, int limit);
+	
+	/**
+	 * mood 선택의 상위 accord 분포를 사용자 보유 note로 가장 가깝게 맞추는 배합 (accord_note 기준, NNLS)
+	 * 양은 unit 단위로 반올림하고 합은 total이다. total이 unit의 배수가 아니면 IllegalArgumentException,
+	 * 기준 정보가 적재되지 않았으면 IllegalStateException
+	 * **/
+	PerfumeResponseDto composeBlend(String userId, List<Integer> moodIdList, int unit, int total);
 
 	/**
-	 * 노트 일부만 담고 있는 향수를 검색한다.(최대 500개 반환 후 Service에서 개수 통제)
+	 * 노트 일부만 담고 있는 향수를 검색한다.(최대 100개, 첫 페이지)
 	 * @throws SQLException 
 	 * **/
 	List<PerfumeWrapper> selectPerfumeByNote(List<String> noteList) throws SQLException;
 	
 	/**
-	 * 모든 노트를 담고 있는 향수를 검색한다.(최대 500개 반환 후 Service에서 개수 통제)
+	 * 모든 노트를 담고 있는 향수를 검색한다.(최대 100개, 첫 페이지)
 	 * @throws SQLException 
 	 * **/
 	List<PerfumeWrapperExtended> selectPerfumeByAtLeastKNotes(List<String> noteList) throws SQLException;
 	
+	/**
+	 * note 검색의 keyset paging 버전. cursor는 이전 페이지의 nextCursor (첫 페이지면 null)
+	 * 잘못된 cursor면 IllegalArgumentException
+	 * **/
+	SearchPageDto<PerfumeWrapper> selectPerfumeByNote(List<String> noteList, int size, String cursor) throws SQLException;
+	
+	SearchPageDto<PerfumeWrapperExtended> selectPerfumeByAtLeastKNotes(List<String> noteList, int size, String cursor) throws SQLException;
+	
+	/**
+	 * note 검색의 streaming 버전. 결과를 batchSize개씩 조립하는 대로 sink에 넘긴다.
+	 * **/
+	void streamPerfumeByNote(List<String> noteList, int batchSize, SearchResultSink<PerfumeWrapper> sink) throws SQLException, IOException;
+	
+	void streamPerfumeByAtLeastKNotes(List<String> noteList, int batchSize, SearchResultSink<PerfumeWrapperExtended> sink) throws SQLException, IOException;
+	
+	/**
+	 * streamPerfumeByAtLeastKNotes가 받을 수 없는 검색어(note 수 초과)면 IllegalArgumentException.
+	 * streaming 응답은 200을 보낸 뒤 상태를 바꿀 수 없으므로 body를 만들기 전에 부른다.
+	 * **/
+	void checkAtLeastKNotes(List<String> noteList);
+	
 	
 	
 }
@@ -0,0 +1,21 @@
+package com.moodrop.model.service;
+
+import java.io.IOException;
+
+import com.moodrop.model.dto.UserRecipeDto;
+
+/**
+ * 레시피 일괄 가져오기에서 레시피를 한 줄씩 넘겨주는 쪽. (요청 body를 읽는 대로 넘긴다.)
+ * 형식이 틀린 줄도 건너뛰지 않고 error를 채워 넘겨, Service가 줄 번호와 함께 알려 줄 수 있게 한다.
+ **/
+public interface RecipeImportSource {
+	
+	// 다음 레시피 줄. 더 없으면 null
+	Line next() throws IOException;
+	
+	/**
+	 * lineNumber는 1부터. recipe와 error 중 하나만 있다.
+	 **/
+	record Line(long lineNumber, UserRecipeDto recipe, String error) {
+	}
+}
@@ -3,6 +3,7 @@ package com.moodrop.model.service;
 import java.sql.SQLException;
 import java.util.List;
 
+import com.moodrop.model.dto.RecipeImportResultDto;
 import com.moodrop.model.dto.UserRecipeDto;
 
 public interface RecipeService {
@@ -24,5 +25,11 @@ public interface RecipeService {
 	// 특정 recipeId를 나의 레시피로 복사한다.
 	int copyRecipeIntoUser(int recipeId, String userId) throws SQLException;
 	
+	// 여러 recipeId를 나의 레시피로 한 번에 복사한다. 복사된 레시피 수
+	int copyRecipesIntoUser(List<Integer> recipeIds, String userId);
+	
+	// 레시피를 줄 단위로 읽어 chunk마다 commit하며 넣고, 실패한 줄을 알려 준다. (읽기 실패는 결과의 aborted)
+	RecipeImportResultDto importRecipes(RecipeImportSource source);
+	
 	
 }
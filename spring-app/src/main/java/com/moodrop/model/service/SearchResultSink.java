@@ -0,0 +1,15 @@
+package com.moodrop.model.service;
+
+import java.io.IOException;
+
+/**
+ * 검색 결과를 조립되는 대로 받는 쪽. (NDJSON streaming 응답 등)
+ * IOException을 던지면 Service는 남은 조립을 멈춘다.
+ **/
+public interface SearchResultSink<T> {
+	
+	void accept(T item) throws IOException;
+	
+	// batch 하나를 다 넘긴 뒤 호출한다.
+	void flush() throws IOException;
+}
@@ -0,0 +1,42 @@
+package com.moodrop.model.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * 요청 하나를 여러 단계로 나눠 실행할 때 단계별 소요 시간을 잰다.
+ * lap을 부를 때마다 직전 lap(또는 생성) 이후의 시간이 그 단계에 더해진다. (Thread 하나에서만 쓴다.)
+ **/
+public final class StageTimer {
+
+	private final long startedAt = System.nanoTime();
+	private final Map<String, Long> nanos = new LinkedHashMap<>();
+	private long mark = startedAt;
+
+	public void lap(String stage) {
+		long now = System.nanoTime();
+		nanos.merge(stage, now - mark, Long::sum);
+		mark = now;
+	}
+
+	// 단계 -> 소요 시간(ns), 기록한 순서
+	public Map<String, Long> stages() {
+		return new LinkedHashMap<>(nanos);
+	}
+
+	/**
+	 * Server-Timing 헤더 값. 예) accord;dur=0.12, candidate;dur=0.45, total;dur=1.30 (ms)
+	 **/
+	public String toServerTiming() {
+		StringJoiner header = new StringJoiner(", ");
+		nanos.forEach((stage, elapsed) -> header.add(entry(stage, elapsed)));
+		header.add(entry("total", System.nanoTime() - startedAt));
+		return header.toString();
+	}
+
+	private static String entry(String stage, long elapsed) {
+		return String.format(Locale.ROOT, "%s;dur=%.2f", stage, elapsed / 1_000_000.0);
+	}
+}
@@ -1,35 +1,71 @@
 package com.moodrop.model.serviceImpl;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import com.moodrop.config.CacheConfig;
+import com.moodrop.model.catalog.AccordScoringEngine;
+import com.moodrop.model.catalog.CatalogSnapshot;
+import com.moodrop.model.catalog.NameDictionary;
+import com.moodrop.model.catalog.NoteFeasibilityEngine;
+import com.moodrop.model.catalog.NoteInvertedIndex;
+import com.moodrop.model.catalog.NoteSuggestIndex;
+import com.moodrop.model.catalog.NoteThresholdMatcher;
+import com.moodrop.model.catalog.PerfumeCatalog;
+import com.moodrop.model.catalog.PerfumeSearchIndex;
+import com.moodrop.model.catalog.ReferenceDataRegistry;
+import com.moodrop.model.catalog.SearchCursor;
+import com.moodrop.model.catalog.SimilarPerfumeIndex;
+import com.moodrop.model.catalog.UserNoteMatcher;
+import com.moodrop.model.concurrent.PerfumeLookupExecutor;
 import com.moodrop.model.dao.PerfumeDao;
 import com.moodrop.model.dto.CategoryMoodDto;
 import com.moodrop.model.dto.DayNightDto;
+import com.moodrop.model.dto.FeasibilityDto;
 import com.moodrop.model.dto.LongevityDto;
 import com.moodrop.model.dto.MainAccordDto;
 import com.moodrop.model.dto.MoodAccordDto;
+import com.moodrop.model.dto.NoteScoreDto;
+import com.moodrop.model.dto.NoteSuggestionDto;
 import com.moodrop.model.dto.NotesDto;
 import com.moodrop.model.dto.PerfumeBasicDto;
+import com.moodrop.model.dto.PerfumeCommentDto;
 import com.moodrop.model.dto.PerfumeExtendedDto;
 import com.moodrop.model.dto.PerfumeMatchDto;
+import com.moodrop.model.dto.PerfumeResponseDto;
+import com.moodrop.model.dto.PerfumeSearchDto;
 import com.moodrop.model.dto.PerfumeWithMatch;
 import com.moodrop.model.dto.PerfumeWrapper;
 import com.moodrop.model.dto.PerfumeWrapperExtended;
+import com.moodrop.model.dto.SearchPageDto;
 import com.moodrop.model.dto.SeasonDto;
 import com.moodrop.model.dto.SillageDto;
+import com.moodrop.model.dto.SimilarPerfumeDto;
 import com.moodrop.model.dto.UserNoteDto;
 import com.moodrop.model.service.PerfumeService;
+import com.moodrop.model.service.SearchResultSink;
+import com.moodrop.model.service.StageTimer;
 
 import lombok.RequiredArgsConstructor;
 
@@ -39,6 +75,26 @@ import lombok.RequiredArgsConstructor;
 public class PerfumeServiceImpl implements PerfumeService{
 	
 	private final PerfumeDao dao;
+	private final PerfumeLookupExecutor lookupExecutor;
+	private final PerfumeCatalog catalog;
+	private final ReferenceDataRegistry referenceData;
+	private final NoteInvertedIndex noteIndex;
+	private final NoteThresholdMatcher thresholdMatcher;
+	private final NameDictionary dictionary;
+	private final NoteFeasibilityEngine feasibilityEngine;
+	private final AccordScoringEngine accordScoring;
+	private final UserNoteMatcher userNoteMatcher;
+	private final SimilarPerfumeIndex similarIndex;
+	private final NoteSuggestIndex noteSuggest;
+	private final PerfumeSearchIndex searchIndex;
+	
+	// 향수 상세 조회 방식 (single: multi result set 한 번, parallel: 테이블별 조회 동시 실행)
+	@Value("${moodrop.perfume.detail-mode:single}")
+	private String detailMode;
+	
+	// filterByAccordWithUserNotes에서 accord 점수로 뽑는 후보 수
+	@Value("${moodrop.perfume.accord.top-k:20}")
+	private int accordTopK;
 	//private final NoteRepository noteRepository;
 	//private final AccordRepository accordRepository;
 	//private final AccordNoteRepository accordNoteRepository;
@@ -49,67 +105,122 @@ public class PerfumeServiceImpl implements PerfumeService{
 	// selectPerfumeByNotesAtLeastK
 	private static final int RESTRICT_COUNT = 100;
 	
-	// JSON String -> List<String> Parsing 용도로 쓰임.
-	private static final com.fasterxml.jackson.databind.ObjectMapper OM = new com.fasterxml.jackson.databind.ObjectMapper();
-
-	private static java.util.List<String> parseNotes(String json) {
-	    if (json == null || json.isBlank()) return java.util.List.of();
-	    try {
-	        return OM.readValue(json, new com.fasterxml.jackson.core.type.TypeReference<java.util.List<String>>() {});
-	    } catch (Exception e) {
-	        // 필요하면 로그
-	        // log.warn("Failed to parse matchedNotesJson: {}", json, e);
-	        return java.util.List.of();
-	    }
-	}
+	// selectPerfumeByNotesAtLeastMin의 matched_mask(BIGINT)에 담을 수 있는 검색 note 수
+	private static final int MAX_MASK_NOTES = 63;
+	
+	// calculateAccordWithMood (selectMoodAccords의 LIMIT 12)
+	private static final int MOOD_ACCORD_COUNT = 12;
 	
 	 /**
 	 Perfume에 대한 전체 정보 조회
+	 같은 향수에 대한 동시 miss는 한 번만 조회한다. (sync)
 	 **/
 	@Override
+	@Cacheable(cacheNames = CacheConfig.PERFUME, key = "#id", sync = true)
+	@SuppressWarnings("unchecked")
 	public PerfumeWrapper getPerfumeWrapper(int id) throws SQLException {
+		// 카탈로그 snapshot이 있으면 DB 없이 조립한다.
+		CatalogSnapshot snapshot = catalog.snapshot();
+		if (snapshot != null) {
+			int perfumeIndex = snapshot.indexOfPerfume(id);
+			if (perfumeIndex < 0) throw new NoSuchElementException("Perfume not found");
+			return snapshot.toWrapper(perfumeIndex, true);
+		}
+		
+		if ("parallel".equalsIgnoreCase(detailMode)) {
+			try {
+				return getPerfumeWrapperParallel(id);
+			} catch (RejectedExecutionException e) {
+				// 조회 pool이 가득 찼다. 요청 Thread에서 한 번의 round trip으로 조회한다.
+			}
+		}
+		
 		// perfumeId로 perfume 전체 정보 조회
-		// 정보 없으면 SQL Exception을 띄운다.
-		// DAO에서 DB의 정보를 갖고 오고, Service에서 조립한다.
+		// 정보 없으면 NoSuchElementException을 띄운다. (Controller에서 404)
+		// DAO에서 한 번의 round trip으로 모든 테이블 정보를 갖고 오고, Service에서 조립한다.
 		// 조립한 정보를 DTO를 이용해서 서로 다른 MVC Layer에서 정보를 주고 받는 데 쓴다.
-		PerfumeBasicDto basic = dao.selectPerfumeBasicByPerfumeId(id);
-		if(basic == null) throw new SQLException("Perfume Not Found");		
-		List<String> comments = dao.selectCommentByPerfumeId(id);
-		basic.setComments(comments);
+		List<List<?>> detail = dao.selectPerfumeDetailByPerfumeId(id);
+		List<PerfumeBasicDto> basicList = (List<PerfumeBasicDto>) detail.get(0);
+		if(basicList.isEmpty()) throw new NoSuchElementException("Perfume not found");
+		
+		PerfumeBasicDto basic = basicList.get(0);
+		basic.setComments((List<String>) detail.get(1));
+		
+		return assemblePerfumeWrapper(basic,
+				(List<DayNightDto>) detail.get(2),
+				(List<LongevityDto>) detail.get(3),
+				(List<SeasonDto>) detail.get(4),
+				(List<SillageDto>) detail.get(5),
+				(List<MainAccordDto>) detail.get(6),
+				(List<NotesDto>) detail.get(7));
+	}
+	
+	/**
+	 * 테이블 별 조회를 전용 Thread Pool에서 동시에 실행해 PerfumeWrapper를 조립한다.
+	 * 요청 당 동시 조회 수는 per-request-limit으로 제한되고, 하나라도 실패하면 나머지는 취소된다.
+	 **/
+	private PerfumeWrapper getPerfumeWrapperParallel(int id) throws SQLException {
+		PerfumeLookupExecutor.FanOut fanOut = lookupExecutor.newFanOut();
+		Future<PerfumeBasicDto> basic = fanOut.add(() -> dao.selectPerfumeBasicByPerfumeId(id));
+		Future<List<String>> comments = fanOut.add(() -> dao.selectCommentByPerfumeId(id));
+		Future<List<DayNightDto>> dayNight = fanOut.add(() -> dao.selectDayNightByPerfumeId(id));
+		Future<List<LongevityDto>> longevity = fanOut.add(() -> dao.selectLongevityByPerfumeId(id));
+		Future<List<SeasonDto>> season = fanOut.add(() -> dao.selectSeasonByPerfumeId(id));
+		Future<List<SillageDto>> sillage = fanOut.add(() -> dao.selectSillageByPerfumeId(id));
+		Future<List<MainAccordDto>> mainAccord = fanOut.add(() -> dao.selectMainAccordByPerfumeId(id));
+		Future<List<NotesDto>> notes = fanOut.add(() -> dao.selectNotesByPerfumeId(id));
+		fanOut.await();
 		
+		try {
+			PerfumeBasicDto basicDto = basic.get();
+			if(basicDto == null) throw new NoSuchElementException("Perfume not found");
+			basicDto.setComments(comments.get());
+			
+			return assemblePerfumeWrapper(basicDto, dayNight.get(), longevity.get(), season.get(),
+					sillage.get(), mainAccord.get(), notes.get());
+		} catch (InterruptedException | ExecutionException e) {
+			// await() 이후에는 모든 조회가 끝난 상태라 발생하지 않는다.
+			throw new SQLException("Perfume lookup failed", e);
+		}
+	}
+	
+	/**
+	 * 테이블 별로 조회한 정보를 PerfumeWrapper로 조립한다.
+	 **/
+	private static PerfumeWrapper assemblePerfumeWrapper(PerfumeBasicDto basic,
+			List<DayNightDto> dayNightList,
+			List<LongevityDto> longevityList,
+			List<SeasonDto> seasonList,
+			List<SillageDto> sillageList,
+			List<MainAccordDto> mainAccord,
+			List<NotesDto> notesList) {
 		// dayNightInfo
-		List<DayNightDto> dayNightList = dao.selectDayNightByPerfumeId(id);
 		Map<String, Integer> dayNightInfo = new HashMap<>();
 		for (DayNightDto dto : dayNightList) {
 		    dayNightInfo.put(dto.getDayNight(), dto.getWeight());
 		}
 
 		// longevityInfo
-		List<LongevityDto> longevityList = dao.selectLongevityByPerfumeId(id);
 		Map<String, Integer> longevityInfo = new HashMap<>();
 		for (LongevityDto dto : longevityList) {
 		    longevityInfo.put(dto.getLength(), dto.getVoteNum());
 		}
 
 		// seasonInfo
-		List<SeasonDto> seasonList = dao.selectSeasonByPerfumeId(id);
 		Map<String, Integer> seasonInfo = new HashMap<>();
 		for (SeasonDto dto : seasonList) {
 		    seasonInfo.put(dto.getSeason(), dto.getWeight());
 		}
 
 		// sillageInfo
-		List<SillageDto> sillageList = dao.selectSillageByPerfumeId(id);
 		Map<String, Integer> sillageInfo = new HashMap<>();
 		for (SillageDto dto : sillageList) {
 		    sillageInfo.put(dto.getStrength(), dto.getVoteNum());
 		}
 		
-		List<MainAccordDto> mainAccord = dao.selectMainAccordByPerfumeId(id);
-		
-		List<NotesDto> notesList = dao.selectNotesByPerfumeId(id);
 		Map<String, List<String>> notesMap = new LinkedHashMap<>();
         for(NotesDto n: notesList) {
+        	if (n == null || n.getType() == null || n.getName() == null) continue;
         	String key = n.getType().toLowerCase();
         	
         	if(!notesMap.containsKey(key)) {
@@ -120,10 +231,78 @@ public class PerfumeServiceImpl implements PerfumeService{
         	
         }
         
-        
-		PerfumeWrapper perfumeWrapper = new PerfumeWrapper(basic, dayNightInfo, longevityInfo, mainAccord, notesMap, seasonInfo, sillageInfo);
+		return new PerfumeWrapper(basic, dayNightInfo, longevityInfo, mainAccord, notesMap, seasonInfo, sillageInfo);
+	}
+	
+	/**
+	 * 여러 Perfume의 전체 정보를 조회한다.
+	 * 테이블 당 한 번의 Query로 갖고 온 뒤 메모리에서 향수별로 묶기 때문에, 결과 개수와 관계없이 Query 수가 고정된다.
+	 * 입력 순서를 유지하고, 존재하지 않는 id는 제외한다.
+	 **/
+	@Override
+	public List<PerfumeWrapper> getPerfumeWrappers(Collection<Integer> ids) throws SQLException {
+		return new ArrayList<>(loadPerfumeWrappers(ids, true).values());
+	}
+	
+	/**
+	 * perfumeId -> PerfumeWrapper (입력 순서 유지)
+	 * withComments가 false면 comment 테이블은 조회하지 않는다.
+	 **/
+	private Map<Integer, PerfumeWrapper> loadPerfumeWrappers(Collection<Integer> ids, boolean withComments) {
+		Map<Integer, PerfumeWrapper> result = new LinkedHashMap<>();
+		if (ids == null || ids.isEmpty()) return result;
+		List<Integer> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+		
+		CatalogSnapshot snapshot = catalog.snapshot();
+		if (snapshot != null) {
+			for (Integer id : idList) {
+				int perfumeIndex = snapshot.indexOfPerfume(id);
+				if (perfumeIndex >= 0) result.put(id, snapshot.toWrapper(perfumeIndex, withComments));
+			}
+			return result;
+		}
+		
+		Map<Integer, PerfumeBasicDto> basics = new HashMap<>();
+		for (PerfumeBasicDto basic : dao.selectPerfumeBasicByPerfumeIds(idList)) {
+			basics.put(basic.getId(), basic);
+		}
+		if (basics.isEmpty()) return result;
+		
+		Map<Integer, List<String>> comments = new HashMap<>();
+		if (withComments) {
+			for (PerfumeCommentDto c : dao.selectCommentByPerfumeIds(idList)) {
+				comments.computeIfAbsent(c.getPerfumeId(), k -> new ArrayList<>()).add(c.getComment());
+			}
+		}
+		Map<Integer, List<DayNightDto>> dayNight = groupByPerfumeId(dao.selectDayNightByPerfumeIds(idList), DayNightDto::getPerfumeId);
+		Map<Integer, List<LongevityDto>> longevity = groupByPerfumeId(dao.selectLongevityByPerfumeIds(idList), LongevityDto::getPerfumeId);
+		Map<Integer, List<SeasonDto>> season = groupByPerfumeId(dao.selectSeasonByPerfumeIds(idList), SeasonDto::getPerfumeId);
+		Map<Integer, List<SillageDto>> sillage = groupByPerfumeId(dao.selectSillageByPerfumeIds(idList), SillageDto::getPerfumeId);
+		Map<Integer, List<MainAccordDto>> mainAccord = groupByPerfumeId(dao.selectMainAccordByPerfumeIds(idList), MainAccordDto::getPerfumeId);
+		Map<Integer, List<NotesDto>> notes = groupByPerfumeId(dao.selectNotesByPerfumeIds(idList), NotesDto::getPerfumeId);
 		
-		return perfumeWrapper;
+		for (Integer id : idList) {
+			PerfumeBasicDto basic = basics.get(id);
+			if (basic == null) continue;
+			if (withComments) basic.setComments(comments.getOrDefault(id, new ArrayList<>()));
+			
+			result.put(id, assemblePerfumeWrapper(basic,
+					dayNight.getOrDefault(id, List.of()),
+					longevity.getOrDefault(id, List.of()),
+					season.getOrDefault(id, List.of()),
+					sillage.getOrDefault(id, List.of()),
+					mainAccord.getOrDefault(id, new ArrayList<>()),
+					notes.getOrDefault(id, List.of())));
+		}
+		return result;
+	}
+	
+	private static <T> Map<Integer, List<T>> groupByPerfumeId(List<T> rows, ToIntFunction<T> perfumeId) {
+		Map<Integer, List<T>> grouped = new HashMap<>();
+		for (T row : rows) {
+			grouped.computeIfAbsent(perfumeId.applyAsInt(row), k -> new ArrayList<>()).add(row);
+		}
+		return grouped;
 	}
 
 	
@@ -135,106 +314,135 @@ public class PerfumeServiceImpl implements PerfumeService{
 	        String userId,            
 	        List<String> accords
 	) throws SQLException {
+	    // 이름 -> id는 NameDictionary로 바꾼다.
+	    return splitByUserNotes(userId, dictionary.accordIds(accords), new StageTimer());
+	    
+	    //return new AccordCompareResponse(matched, noMatched);
+	}
+	
+	/**
+	 * 카탈로그가 없을 때의 사용자 note 일치 (layer -> 이름 Set 비교). layer는 top/middle/base 순으로 항상 셋 다 담는다.
+	 **/
+	static Map<String, List<String>> hitsByName(Map<String, List<String>> perfumeNotes, Map<String, Set<String>> userNotes) {
+	    Map<String, List<String>> hit = new LinkedHashMap<>();
+	    for (String layer : UserNoteMatcher.LAYERS) {
+	        Set<String> owned = userNotes.getOrDefault(layer, Set.of());
+	        hit.put(layer, perfumeNotes.getOrDefault(layer, List.of()).stream()
+	                .filter(owned::contains)
+	                .collect(Collectors.toList()));
+	    }
+	    return hit;
+	}
+	
+	/**
+	 * mood 선택 -> 상위 accord -> accord 후보 향수 -> 사용자 노트 일치 -> 카드 조립을 한 번에 실행한다.
+	 * /perfume/accord, /perfume/accord/{userId}를 차례로 부르던 것과 같은 결과에 accords를 더해 돌려준다.
+	 **/
+	@Override
+	public Map<String, Object> recommend(String userId, List<Integer> moodIdList, StageTimer timer) throws SQLException {
+		if (moodIdList == null || moodIdList.isEmpty()) throw new IllegalArgumentException("moodId is required");
+		
+		// 1) mood -> accord 가중치 합 상위 12개 (accord 이름은 거치지 않고 id를 그대로 넘긴다.)
+		List<MoodAccordDto> moodAccords = calculateAccordWithMood(moodIdList);
+		List<Integer> accordIds = new ArrayList<>();
+		for (MoodAccordDto accord : moodAccords) {
+			accordIds.add(accord.getAccordId());
+		}
+		timer.lap("accord");
+		
+		Map<String, Object> res = new LinkedHashMap<>();
+		res.put("accords", moodAccords);
+		res.putAll(splitByUserNotes(userId, accordIds, timer));
+		return res;
+	}
+	
+	/**
+	 * accord 후보 향수를 사용자 보유 note와 일치하는 것(Match)과 아닌 것(NoMatch)으로 나눈다.
+	 * 단계(candidate, match, card)가 끝날 때마다 timer에 기록한다.
+	 **/
+	private Map<String, Object> splitByUserNotes(String userId, List<Integer> accordIds, StageTimer timer) throws SQLException {
+	    // 1) Accord weight 합으로 상위 후보 조회
+	    // 카탈로그가 있으면 메모리에서 점수를 매기고, 없으면 SQL로 조회한다.
+	    List<PerfumeMatchDto> filtered = accordIds.isEmpty() ? new ArrayList<>() : accordScoring.topPerfumes(accordIds, accordTopK);
+	    if (filtered == null) filtered = dao.searchByAccord(accordIds, accordTopK);
+	    
+	    List<Integer> candidateIds = new ArrayList<>();
+	    for (PerfumeMatchDto p : filtered) {
+	        candidateIds.add(p.getPerfumeId());
+	    }
+	    timer.lap("candidate");
 
+	    // 2) 사용자 노트와 교집합
 	    // DB에서 사용자 노트 기준 -> Determined Notes의 향수를 찾는다.
 	    List<NotesDto> userNotesList = dao.selectUserNotes(userId);
 
-	    // Map<String, List<String>> 형태로 변환
-	    Map<String, List<String>> userNotes = new LinkedHashMap<>();
+	    // 카탈로그가 있으면 보유 note를 layer별 bitset으로 만들고, 향수마다 AND + bitCount로 센다.
+	    List<Integer> userNoteIds = new ArrayList<>();
 	    for (NotesDto n : userNotesList) {
-	        if (n == null || n.getType() == null || n.getName() == null) continue;
-	        userNotes.computeIfAbsent(n.getType(), k -> new ArrayList<>()).add(n.getName());
+	        if (n != null) userNoteIds.add(n.getNoteId());
 	    }
+	    UserNoteMatcher.Inventory inventory = userNoteMatcher.inventory(userNoteIds);
 
-	    // Set으로 변환(중복 제거만)
-	    Set<String> uTop    = new HashSet<>(userNotes.getOrDefault("top",    List.of()));
-	    Set<String> uMiddle = new HashSet<>(userNotes.getOrDefault("middle", List.of()));
-	    Set<String> uBase   = new HashSet<>(userNotes.getOrDefault("base",   List.of()));
+	    // 카탈로그가 없으면 후보 향수 정보를 먼저 읽고, layer -> 이름 Set으로 비교한다.
+	    Map<Integer, PerfumeWrapper> wrappers = null;
+	    Map<String, Set<String>> userNotes = new LinkedHashMap<>();
+	    if (inventory == null) {
+	        wrappers = loadPerfumeWrappers(candidateIds, false);
+	        for (NotesDto n : userNotesList) {
+	            if (n == null || n.getType() == null || n.getName() == null) continue;
+	            userNotes.computeIfAbsent(n.getType(), k -> new HashSet<>()).add(n.getName());
+	        }
+	    }
 
-	    // 1) Accord로 후보 조회
-	    List<PerfumeMatchDto> filtered = dao.searchByAccord(accords);
+	    // 후보별 일치 note (bitset이면 개수를 먼저 세고, 일치한 향수만 이름 목록을 만든다.)
+	    List<Map<String, List<String>>> hits = new ArrayList<>(filtered.size());
+	    int[] hitCounts = new int[filtered.size()];
+	    for (int i = 0; i < filtered.size(); i++) {
+	        int perfumeId = filtered.get(i).getPerfumeId();
+	        Map<String, List<String>> hit = null;
+	        if (inventory != null) {
+	            hitCounts[i] = inventory.countHits(perfumeId);
+	            if (hitCounts[i] > 0) hit = inventory.hitNames(perfumeId);
+	        } else if (wrappers.containsKey(perfumeId)) {
+	            hit = hitsByName(wrappers.get(perfumeId).getNotes(), userNotes);
+	            for (List<String> layerHit : hit.values()) {
+	                hitCounts[i] += layerHit.size();
+	            }
+	        }
+	        hits.add(hit);
+	    }
+	    timer.lap("match");
+	    
+	    // 3) 카드 조립
+	    // 후보 향수 정보를 테이블 당 한 번의 Query로 갖고 온다. (comment는 쓰지 않는다.)
+	    if (wrappers == null) wrappers = loadPerfumeWrappers(candidateIds, false);
 	    
 	    List<PerfumeWithMatch> matched = new ArrayList<>();
 	    List<PerfumeExtendedDto> noMatched = new ArrayList<>();
+	    for (int i = 0; i < filtered.size(); i++) {
+	        PerfumeMatchDto p = filtered.get(i);
+	        PerfumeWrapper w = wrappers.get(p.getPerfumeId());
+	        if (w == null) continue;
 
-	    for (PerfumeMatchDto p : filtered) {
-	        int pfId = p.getPerfumeId();
-
-	        // 기본 정보 + 부가 정보
-	        PerfumeBasicDto basic = dao.selectPerfumeBasicByPerfumeId(pfId);
-	        PerfumeExtendedDto dto = new PerfumeExtendedDto();
-	        BeanUtils.copyProperties(basic, dto);
+	        // 기본 정보 + 부가 정보 (일치하면 처음부터 PerfumeWithMatch로 만든다.)
+	        int hitCount = hitCounts[i];
+	        PerfumeExtendedDto dto = hitCount > 0 ? new PerfumeWithMatch() : new PerfumeExtendedDto();
+	        BeanUtils.copyProperties(w.getPerfumeBasic(), dto);
 	        dto.setAccordMatchCount(p.getAccordMatchCount());
+	        dto.setAccordScore(p.getAccordScore());
+	        dto.setSillage(w.getSillageInfo());
+	        dto.setLongevity(w.getLongevityInfo());
+	        dto.setNotes(w.getNotes());
 	        
-	        Map<String, Integer> sillageMap = new HashMap<>();
-	        for (SillageDto s : dao.selectSillageByPerfumeId(pfId)) {
-	            sillageMap.put(s.getStrength(), s.getVoteNum());
-	        }
-	        dto.setSillage(sillageMap);
-
-	        Map<String, Integer> longevityMap = new HashMap<>();
-	        for (LongevityDto l : dao.selectLongevityByPerfumeId(pfId)) {
-	            longevityMap.put(l.getLength(), l.getVoteNum());
-	        }
-	        dto.setLongevity(longevityMap);
-
-	        // notes
-	        Map<String, List<String>> notesMap = new LinkedHashMap<>();
-	        for (NotesDto n : dao.selectNotesByPerfumeId(pfId)) {
-	            if (n == null || n.getType() == null || n.getName() == null) continue;
-	            notesMap.computeIfAbsent(n.getType(), k -> new ArrayList<>()).add(n.getName());
-	        }
-	        dto.setNotes(notesMap);
-	        
-	        // dayNight 정보
-	        Map<String, Integer> dayNightMap = new LinkedHashMap<>();
-	        for(DayNightDto dn: dao.selectDayNightByPerfumeId(pfId)) {
-	        	dayNightMap.put(dn.getDayNight(), dn.getWeight());
-	        }
-	        dto.setDayNight(dayNightMap);
-	        
-	        // season 정보
-	        Map<String, Integer> seasonMap = new LinkedHashMap<>();
-	        for(SeasonDto s: dao.selectSeasonByPerfumeId(pfId)) {
-	        	seasonMap.put( s.getSeason(), s.getWeight());
-	        }
-	        dto.setSeason(seasonMap);
-	        
-	        
-	        // 2) 사용자 노트와 교집합
-	        Map<String, List<String>> hit = new LinkedHashMap<>();
-	        int hitCount = 0;
-
-	        List<String> topHit = notesMap.getOrDefault("top", List.of()).stream()
-	                .filter(uTop::contains)
-	                .collect(Collectors.toList());
-	        hit.put("top", topHit);
-	        hitCount += topHit.size();
-
-	        List<String> midHit = notesMap.getOrDefault("middle", List.of()).stream()
-	                .filter(uMiddle::contains)
-	                .collect(Collectors.toList());
-	        hit.put("middle", midHit);
-	        hitCount += midHit.size();
-
-	        List<String> baseHit = notesMap.getOrDefault("base", List.of()).stream()
-	                .filter(uBase::contains)
-	                .collect(Collectors.toList());
-	        hit.put("base", baseHit);
-	        hitCount += baseHit.size();
+	        // dayNight, season 정보
+	        dto.setDayNight(w.getDayNightInfo());
+	        dto.setSeason(w.getSeasonInfo());
 
 	        if (hitCount > 0) {
-	            PerfumeWithMatch with = new PerfumeWithMatch();
-	            BeanUtils.copyProperties(dto, with);
-	            with.setUserNoteMatch(hit);
+	            PerfumeWithMatch with = (PerfumeWithMatch) dto;
+	            with.setUserNoteMatch(hits.get(i));
 	            with.setNoteMatchCount(hitCount);
-	            
-	            Map<String, List<String>> matchNotesMap = new LinkedHashMap<>();
-	            matchNotesMap.put("top", topHit);
-	            matchNotesMap.put("middle", midHit);
-	            matchNotesMap.put("base", baseHit);
-	            with.setMatchNotes(matchNotesMap);
-	            
+	            with.setMatchNotes(new LinkedHashMap<>(hits.get(i)));
 	            matched.add(with);
 	        } else {
 	            noMatched.add(dto);
@@ -244,10 +452,9 @@ public class PerfumeServiceImpl implements PerfumeService{
 	    Map<String, Object> res = new LinkedHashMap<>();
 	    res.put("Match", matched);
 	    res.put("NoMatch",noMatched);
+	    timer.lap("card");
 	    
 	    return res;
-	    
-	    //return new AccordCompareResponse(matched, noMatched);
 	}
 
 	/**
@@ -255,6 +462,8 @@ public class PerfumeServiceImpl implements PerfumeService{
 	**/
 	@Override
 	public List<Map<Integer, String>> getCategory() throws SQLException {
+		ReferenceDataRegistry.ReferenceData reference = referenceData.get();
+		if (reference != null) return reference.categories();
 	    return dao.selectCategoryInfo();
 	}
 	
@@ -263,15 +472,21 @@ public class PerfumeServiceImpl implements PerfumeService{
 	 * **/
 	@Override
 	public List<CategoryMoodDto> getCategoryMood() throws SQLException{
+		ReferenceDataRegistry.ReferenceData reference = referenceData.get();
+		if (reference != null) return reference.categoryMoods();
 		return dao.selectCategoryMoodInfo();
 	}
 	
 	
 	/**
 	 *  Mood에 따른 Accord 합 가중치를 내림차순으로 정렬하고, 상위 12개의 Accord를 전달한다.
+	 *  기준 정보가 적재되어 있으면 mood x accord 행렬로 계산하고 DB는 조회하지 않는다.
 	 * **/
 	@Override
 	public List<MoodAccordDto> calculateAccordWithMood(List<Integer> moodIdList) {
+		ReferenceDataRegistry.ReferenceData reference = referenceData.get();
+		if (reference != null) return reference.moodAccordMatrix().topAccords(moodIdList, MOOD_ACCORD_COUNT);
+		
 		List<MoodAccordDto> moodAccords = dao.selectMoodAccords(moodIdList);
 		
 		return moodAccords;
@@ -284,6 +499,12 @@ public class PerfumeServiceImpl implements PerfumeService{
 	 * */
 	@Override
 	public List<NotesDto> getDeterminedNotes(int perfumeId) {
+		CatalogSnapshot snapshot = catalog.snapshot();
+		if (snapshot != null) {
+			int perfumeIndex = snapshot.indexOfPerfume(perfumeId);
+			return perfumeIndex < 0 ? new ArrayList<>() : snapshot.toDeterminedNotes(perfumeIndex);
+		}
+		
 		List<NotesDto> result = dao.selectDeterminedNotes(perfumeId);
 		
 		return result;
@@ -299,12 +520,134 @@ public class PerfumeServiceImpl implements PerfumeService{
 		return userNotes;
 	}
 
+	/**
+	 * 메모리의 정렬 배열에서 앞부분이 같은 note를 찾는다. (DB의 LIKE 검색 없음)
+	 **/
+	@Override
+	public List<NoteSuggestionDto> suggestNotes(String query, int limit) {
+		List<NoteSuggestionDto> result = noteSuggest.suggest(query, pageSize(limit));
+		if (result == null) throw new IllegalStateException("Perfume catalog is not loaded");
+		return result;
+	}
+	
+	/**
+	 * 카탈로그 적재 때 미리 계산한 이웃 목록에서 앞 limit개만 읽는다.
+	 **/
+	@Override
+	public List<SimilarPerfumeDto> getSimilarPerfumes(int perfumeId, int limit) {
+		SimilarPerfumeIndex.Neighbors neighbors = similarIndex.neighbors(perfumeId, pageSize(limit));
+		if (neighbors == null) throw new IllegalStateException("Similar perfume index is not ready");
+		CatalogSnapshot snapshot = neighbors.snapshot();
+		if (snapshot.indexOfPerfume(perfumeId) < 0) throw new NoSuchElementException("Perfume not found");
+		
+		List<SimilarPerfumeDto> result = new ArrayList<>(neighbors.perfumeIndexes().length);
+		for (int i = 0; i < neighbors.perfumeIndexes().length; i++) {
+			int p = neighbors.perfumeIndexes()[i];
+			result.add(new SimilarPerfumeDto(snapshot.perfumeId(p), snapshot.perfumeName(p), snapshot.brandName(p),
+					neighbors.scores()[i]));
+		}
+		return result;
+	}
+	
+	/**
+	 * 메모리의 trigram index로 찾는다. (DB 조회 없음)
+	 **/
+	@Override
+	public List<PerfumeSearchDto> searchPerfumes(String query, int limit) {
+		PerfumeSearchIndex.Hits hits = searchIndex.search(query, pageSize(limit));
+		if (hits == null) throw new IllegalStateException("Perfume catalog is not loaded");
+		CatalogSnapshot snapshot = hits.snapshot();
+		
+		List<PerfumeSearchDto> result = new ArrayList<>(hits.perfumeIndexes().length);
+		for (int i = 0; i < hits.perfumeIndexes().length; i++) {
+			int p = hits.perfumeIndexes()[i];
+			result.add(new PerfumeSearchDto(snapshot.perfumeId(p), snapshot.perfumeName(p), snapshot.brandName(p),
+					hits.scores()[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * 목표: mood 선택의 상위 accord 가중치, 재료: 사용자 보유 note.
+	 * accord x note 행렬에서 NNLS로 비율을 구한 뒤, 최대 나머지 방식으로 unit 단위 양(합 total)으로 나눈다.
+	 **/
+	@Override
+	public PerfumeResponseDto composeBlend(String userId, List<Integer> moodIdList, int unit, int total) {
+		if (unit <= 0 || total <= 0 || total % unit != 0) throw new IllegalArgumentException("total must be a positive multiple of unit");
+		if (moodIdList == null || moodIdList.isEmpty()) throw new IllegalArgumentException("moodId is required");
+		ReferenceDataRegistry.ReferenceData reference = referenceData.get();
+		if (reference == null) throw new IllegalStateException("Reference data is not loaded");
+		
+		Map<Integer, Float> target = new HashMap<>();
+		for (MoodAccordDto accord : calculateAccordWithMood(moodIdList)) {
+			target.merge(accord.getAccordId(), accord.getTotalWeight(), Float::sum);
+		}
+		
+		// 같은 note를 여러 번 등록했으면 한 번만 쓴다.
+		Map<Integer, String> owned = new LinkedHashMap<>();
+		for (NotesDto note : dao.selectUserNotes(userId)) {
+			if (note != null) owned.putIfAbsent(note.getNoteId(), note.getName());
+		}
+		int[] noteIds = owned.keySet().stream().mapToInt(Integer::intValue).toArray();
+		double[] proportions = reference.accordNoteMatrix().solve(target, noteIds);
+		
+		// unit 단위 칸(total / unit개)을 비율대로 나누고, 남는 칸은 소수점 아래가 큰 note부터 준다.
+		int slots = total / unit;
+		int[] assigned = new int[noteIds.length];
+		int remaining = proportions.length == 0 || Arrays.stream(proportions).sum() == 0 ? 0 : slots;
+		for (int j = 0; j < noteIds.length; j++) {
+			assigned[j] = (int) Math.floor(proportions[j] * slots);
+			remaining -= assigned[j];
+		}
+		Integer[] order = new Integer[noteIds.length];
+		for (int j = 0; j < order.length; j++) order[j] = j;
+		Arrays.sort(order, (a, b) -> Double.compare(proportions[b] * slots - assigned[b], proportions[a] * slots - assigned[a]));
+		for (int r = 0; r < remaining && r < order.length; r++) {
+			assigned[order[r]]++;
+		}
+		
+		Arrays.sort(order, (a, b) -> Double.compare(proportions[b], proportions[a]));
+		List<NoteScoreDto> selected = new ArrayList<>();
+		Map<String, Integer> ratios = new LinkedHashMap<>();
+		double[] rounded = new double[noteIds.length];
+		for (int j : order) {
+			if (proportions[j] > 0) selected.add(new NoteScoreDto(owned.get(noteIds[j]), proportions[j]));
+			if (assigned[j] > 0) ratios.merge(owned.get(noteIds[j]), assigned[j] * unit, Integer::sum);
+			rounded[j] = (double) assigned[j] / slots;
+		}
+		double fitError = reference.accordNoteMatrix().fitError(target, noteIds, rounded);
+		return new PerfumeResponseDto(selected.toArray(new NoteScoreDto[0]), ratios, fitError);
+	}
+
+	/**
+	 * 사용자 보유량(user_note_gram)으로 향수별 제조 가능량과 부족한 note를 계산한다.
+	 * 카탈로그가 적재되지 않았으면 IllegalStateException
+	 **/
+	@Override
+	public List<FeasibilityDto> getFeasibility(String userId, float bottleSize, List<Integer> perfumeIds, int limit) {
+		if (!(bottleSize > 0)) throw new IllegalArgumentException("bottleSize must be positive");
+		
+		// 같은 note를 여러 번 등록했으면 합친다.
+		Map<Integer, Float> owned = new HashMap<>();
+		for (PerfumeDao.UserNoteGramRow row : dao.selectUserNoteGrams(userId)) {
+			owned.merge(row.noteId, row.gram, Float::sum);
+		}
+		
+		List<FeasibilityDto> result = feasibilityEngine.evaluate(owned, bottleSize, perfumeIds, pageSize(limit));
+		if (result == null) throw new IllegalStateException("Perfume catalog is not loaded");
+		return result;
+	}
+	
 	/**
 	 * 사용자 보유 Note를 추가한다.
 	 * @throws SQLException 
 	 **/
 	@Override
 	public int insertUserNote(UserNoteDto userNote) throws SQLException {
+		// 모르는 note면 insert하지 않는다.
+		Integer noteId = dictionary.firstNoteId(userNote.getNote());
+		if (noteId == null) throw new SQLException("Note Not Found");
+		userNote.setNoteId(noteId);
 		
 		int result = dao.insertUserNote(userNote);
 		if (result == 0) throw new SQLException();  
@@ -319,36 +662,84 @@ public class PerfumeServiceImpl implements PerfumeService{
 	@Override
 	public int deleteUserNote(String userId, String noteName) throws SQLException {
 		
-		int result = dao.deleteUserNote(userId, noteName);
+		List<Integer> noteIds = dictionary.noteIds(List.of(noteName));
+		if (noteIds.isEmpty()) throw new SQLException("Note Not Found");
+		int result = dao.deleteUserNote(userId, noteIds);
 		if (result == 0 ) throw new SQLException();
 		return result;
 	}
 
 	/**
-	 * 노트 일부만 담고 있는 향수를 검색한다.(최대 500개 반환 후 Service에서 개수 통제)
+	 * 노트 일부만 담고 있는 향수를 검색한다.(최대 RESTRICT_COUNT개, 첫 페이지)
 	 * noteList을 입력값으로 넣으면, perfumeId 반환.
 	 * perfumeId 이용해 전체 perfumeWrapper List 반환.
 	 * @throws SQLException 
 	 * **/
 	@Override
 	public List<PerfumeWrapper> selectPerfumeByNote(List<String> noteList) throws SQLException{
-		// noteList 및 listSize입력 시, perfumeId 반환.
-		// myBatis에서 listSize 반환 오류로 인해, service에서 추출.
-		int listSize = noteList.size();
-		List<Integer> searchedPerfumes = dao.selectPerfumeByNotes(noteList, listSize);
+		return selectPerfumeByNote(noteList, RESTRICT_COUNT, null).getItems();
+	}
+	
+	/**
+	 * 노트를 모두 담고 있는 향수를 perfumeId 오름차순으로 size개씩 나눠 검색한다.
+	 * cursor는 이전 페이지의 nextCursor (첫 페이지면 null)
+	 * **/
+	@Override
+	public SearchPageDto<PerfumeWrapper> selectPerfumeByNote(List<String> noteList, int size, String cursor) throws SQLException{
+		SearchCursor after = SearchCursor.decode(cursor);
+		if (noteList == null || noteList.isEmpty()) return new SearchPageDto<>(new ArrayList<>(), null);
+		int pageSize = pageSize(size);
+		Set<String> distinctNotes = new LinkedHashSet<>(noteList);
+		
+		// 다음 페이지 여부를 알기 위해 한 개 더 찾는다.
+		List<Integer> searchedPerfumes = findPerfumesContainingAll(distinctNotes, after, pageSize + 1);
+		
+		// 이번 페이지의 PerfumeWrapper만 한 번에 조회한다.
+		List<Integer> page = searchedPerfumes.subList(0, Math.min(searchedPerfumes.size(), pageSize));
+		String nextCursor = searchedPerfumes.size() > pageSize
+				? new SearchCursor(distinctNotes.size(), page.get(page.size() - 1)).encode()
+				: null;
+		return new SearchPageDto<>(getPerfumeWrappers(page), nextCursor);
+	}
+	
+	/**
+	 * selectPerfumeByNote와 같은 결과를 batchSize개씩 조립해 바로 sink로 넘긴다.
+	 * 한 번에 들고 있는 PerfumeWrapper는 batch 하나뿐이고, sink에서 IOException이 나면(연결 끊김) 멈춘다.
+	 * **/
+	@Override
+	public void streamPerfumeByNote(List<String> noteList, int batchSize, SearchResultSink<PerfumeWrapper> sink) throws SQLException, IOException{
+		if (noteList == null || noteList.isEmpty()) return;
+		List<Integer> searchedPerfumes = findPerfumesContainingAll(new LinkedHashSet<>(noteList), null, RESTRICT_COUNT);
 		
-		// perfumeId 이용해 전체 PerfumeWrapper List 반환.
-		int restrictCount = 100;
-		int count = 0;
-		List<PerfumeWrapper> searchResult = new ArrayList<>(); 
-		for(Integer perfume: searchedPerfumes) {
-			int perfumeId = perfume;
-			searchResult.add(getPerfumeWrapper(perfumeId));
-			count++;
-			if( count== RESTRICT_COUNT) break;
+		int batch = Math.max(1, batchSize);
+		for (int from = 0; from < searchedPerfumes.size(); from += batch) {
+			List<Integer> ids = searchedPerfumes.subList(from, Math.min(searchedPerfumes.size(), from + batch));
+			for (PerfumeWrapper wrapper : getPerfumeWrappers(ids)) {
+				sink.accept(wrapper);
+			}
+			sink.flush();
+		}
+	}
+	
+	// 노트를 모두 담고 있는 perfumeId를 after 다음부터 오름차순으로 최대 limit개 찾는다.
+	List<Integer> findPerfumesContainingAll(Set<String> distinctNotes, SearchCursor after, int limit) throws SQLException{
+		// 메모리의 note -> 향수 index가 있으면 교집합으로 바로 찾는다.
+		int[] indexed = noteIndex.perfumesContainingAll(distinctNotes, after == null ? Integer.MIN_VALUE : after.perfumeId(), limit);
+		if (indexed != null) {
+			return Arrays.stream(indexed).boxed().toList();
 		}
 		
-		return searchResult;
+		// 모르는 note가 하나라도 있으면 모두 담은 향수는 없다.
+		for (String note : distinctNotes) {
+			if (dictionary.noteIds(note).length == 0) return new ArrayList<>();
+		}
+		// myBatis에서 listSize 반환 오류로 인해, service에서 추출.
+		// 같은 note의 영문/한글 이름은 한 묶음이므로 이름 수가 아니라 묶음 수로 센다. (HAVING COUNT(DISTINCT n.name)과 같은 기준)
+		List<List<Integer>> noteGroups = new ArrayList<>();
+		groupNoteIds(new ArrayList<>(distinctNotes), new ArrayList<>(), noteGroups);
+		int listSize = noteGroups.size();
+		return dao.selectPerfumeByNotes(noteGroups.stream().flatMap(List::stream).toList(), listSize,
+				after == null ? null : after.perfumeId(), limit);
 	}
 	
 	
@@ -356,43 +747,149 @@ public class PerfumeServiceImpl implements PerfumeService{
 		
 		PerfumeWrapper baseInfo = getPerfumeWrapper(id);
 		
-		List<PerfumeWrapperExtended> extendedInfo = dao.selectPerfumeByNotesAtLeastMin(noteList, minCount);
 		return null;
 	}
 	
 	
 	/**
-	 * 모든 노트를 담고 있는 향수를 검색한다.(최대 500개 반환 후 Service에서 개수 통제) 
+	 * 모든 노트를 담고 있는 향수를 검색한다.(최대 RESTRICT_COUNT개, 첫 페이지) 
 	 **/
 	@Override
 	public List<PerfumeWrapperExtended> selectPerfumeByAtLeastKNotes(List<String> noteList) throws SQLException{
+		return selectPerfumeByAtLeastKNotes(noteList, RESTRICT_COUNT, null).getItems();
+	}
+	
+	/**
+	 * 노트를 MIN_COUNT개 이상 담고 있는 향수를 (일치 개수 내림차순, perfumeId 오름차순)으로 size개씩 나눠 검색한다.
+	 * cursor는 이전 페이지의 nextCursor (첫 페이지면 null)
+	 **/
+	@Override
+	public SearchPageDto<PerfumeWrapperExtended> selectPerfumeByAtLeastKNotes(List<String> noteList, int size, String cursor) throws SQLException{
+		SearchCursor after = SearchCursor.decode(cursor);
+		int pageSize = pageSize(size);
+		
+		// 다음 페이지 여부를 알기 위해 한 개 더 찾는다.
+		List<NoteThresholdMatcher.Hit> matches = findAtLeastKNotes(noteList, after, pageSize + 1);
+		
+		// 이번 페이지의 perfume 정보만 한 번에 가져온다.
+		List<NoteThresholdMatcher.Hit> page = matches.subList(0, Math.min(matches.size(), pageSize));
+		
+		String nextCursor = null;
+		if (matches.size() > pageSize) {
+			NoteThresholdMatcher.Hit last = page.get(page.size() - 1);
+			nextCursor = new SearchCursor(last.matchCount(), last.perfumeId()).encode();
+		}
+		return new SearchPageDto<>(toExtended(page), nextCursor);
+	}
+	
+	/**
+	 * selectPerfumeByAtLeastKNotes와 같은 결과를 batchSize개씩 조립해 바로 sink로 넘긴다.
+	 * 한 번에 들고 있는 PerfumeWrapper는 batch 하나뿐이고, sink에서 IOException이 나면(연결 끊김) 멈춘다.
+	 **/
+	@Override
+	public void streamPerfumeByAtLeastKNotes(List<String> noteList, int batchSize, SearchResultSink<PerfumeWrapperExtended> sink) throws SQLException, IOException{
+		List<NoteThresholdMatcher.Hit> matches = findAtLeastKNotes(noteList, null, RESTRICT_COUNT);
+		
+		int batch = Math.max(1, batchSize);
+		for (int from = 0; from < matches.size(); from += batch) {
+			for (PerfumeWrapperExtended ext : toExtended(matches.subList(from, Math.min(matches.size(), from + batch)))) {
+				sink.accept(ext);
+			}
+			sink.flush();
+		}
+	}
+	
+	/**
+	 * at-least-K 검색이 SQL 경로에서 IllegalArgumentException을 낼 검색어인지 미리 확인한다.
+	 * (메모리 index가 있으면 note 수 제한이 없다.)
+	 **/
+	@Override
+	public void checkAtLeastKNotes(List<String> noteList) {
+		if (noteList == null || noteIndex.isReady()) return;
+		List<List<Integer>> noteGroups = new ArrayList<>();
+		groupNoteIds(noteList, new ArrayList<>(), noteGroups);
+		if (noteGroups.size() >= MIN_COUNT) requireMaskable(noteGroups.size());
+	}
+	
+	// note 이름별 id 묶음 (이름 중복 제거, 같은 id는 처음 나온 이름에만, 모르는 이름은 빠진다.)
+	private void groupNoteIds(List<String> noteList, List<String> positions, List<List<Integer>> noteGroups) {
+		Set<Integer> grouped = new HashSet<>();
+		for (String name : new LinkedHashSet<>(noteList)) {
+			List<Integer> group = new ArrayList<>();
+			for (int noteId : dictionary.noteIds(name)) {
+				if (grouped.add(noteId)) group.add(noteId);
+			}
+			if (group.isEmpty()) continue;
+			positions.add(name);
+			noteGroups.add(group);
+		}
+	}
+	
+	private static void requireMaskable(int noteCount) {
+		if (noteCount > MAX_MASK_NOTES) {
+			throw new IllegalArgumentException("Too many notes: " + noteCount + " (max " + MAX_MASK_NOTES + ")");
+		}
+	}
+	
+	// 노트를 MIN_COUNT개 이상 담고 있는 향수를 after 다음부터 최대 limit개 찾는다.
+	private List<NoteThresholdMatcher.Hit> findAtLeastKNotes(List<String> noteList, SearchCursor after, int limit) throws SQLException{
+		// 메모리의 note -> 향수 index가 있으면 ScanCount로 바로 세고, SQL 집계와 JSON Parsing은 하지 않는다.
+		List<NoteThresholdMatcher.Hit> matches = thresholdMatcher.match(noteList, MIN_COUNT, after, limit);
+		if (matches != null) return matches;
+		
 		// Perfume의 Note가 noteList 내 MinCount이상 들어 있는, perfumeId를 반환한다.
-		List<PerfumeWrapperExtended> hits = dao.selectPerfumeByNotesAtLeastMin(noteList, MIN_COUNT);
+		// 검색 note 이름마다 bit 위치를 주고, DB는 향수별로 맞은 위치의 bitmask만 돌려준다. (JSON 생성/Parsing 없음)
+		// 같은 id는 처음 나온 이름에만 넣어서, 한 note가 두 번 세어지지 않게 한다. (모르는 이름은 빠진다.)
+		if (noteList == null) return new ArrayList<>();
+		List<String> positions = new ArrayList<>();
+		List<List<Integer>> noteGroups = new ArrayList<>();
+		groupNoteIds(noteList, positions, noteGroups);
+		if (noteGroups.size() < MIN_COUNT) return new ArrayList<>();
+		requireMaskable(noteGroups.size());
+		
+		List<PerfumeDao.NoteMatchRow> hits = dao.selectPerfumeByNotesAtLeastMin(noteGroups, MIN_COUNT,
+				after == null ? null : after.matchCount(), after == null ? null : after.perfumeId(), limit);
+		
+		// bitmask -> 맞은 note 이름 (검색 순서)
+		matches = new ArrayList<>();
+		for (PerfumeDao.NoteMatchRow hit : hits) {
+			matches.add(new NoteThresholdMatcher.Hit(hit.perfumeId, hit.matchCount, matchedNotes(hit.matchedMask, positions)));
+		}
+		return matches;
+	}
+	
+	// matched_mask의 켜진 bit 위치 -> 검색 note 이름 (검색 순서)
+	static List<String> matchedNotes(long matchedMask, List<String> positions) {
+		List<String> matchedNotes = new ArrayList<>(Long.bitCount(matchedMask));
+		for (long mask = matchedMask; mask != 0; mask &= mask - 1) {
+			matchedNotes.add(positions.get(Long.numberOfTrailingZeros(mask)));
+		}
+		return matchedNotes;
+	}
+	
+	// 검색 결과에 perfume 정보를 한 번에 붙인다. (순서 유지, 없는 향수 제외)
+	private List<PerfumeWrapperExtended> toExtended(List<NoteThresholdMatcher.Hit> matches) throws SQLException{
+		List<Integer> perfumeIds = new ArrayList<>();
+		for (NoteThresholdMatcher.Hit match : matches) {
+			perfumeIds.add(match.perfumeId());
+		}
+		Map<Integer, PerfumeWrapper> wrappers = loadPerfumeWrappers(perfumeIds, true);
 		
-		int count = 0;
 		List<PerfumeWrapperExtended> searchResult = new ArrayList<>();
-		for(PerfumeWrapperExtended hit: hits) {
-			int perfumeId = hit.getMatchId();
-			
-			System.out.println(hit.getMatchedNotesJson());
-			
-			// perfume 기본 정보를 가져온다.
-			PerfumeWrapper baseInfo = getPerfumeWrapper(perfumeId);
-			
-			// JSON String -> List<String> 정보를 Parsing해서 쓴다.
-			List<String> matchedNotes = parseNotes(hit.getMatchedNotesJson());
+		for (NoteThresholdMatcher.Hit match : matches) {
+			PerfumeWrapper baseInfo = wrappers.get(match.perfumeId());
+			if (baseInfo == null) continue;
 			
 			// noteMatchCount, MatchedNotes 정보를 추가한다.
-			PerfumeWrapperExtended ext = PerfumeWrapperExtended.of(baseInfo, perfumeId, hit.getMatchCount(), matchedNotes);
-			
-			// 검색 정보 List에 추가한다.
-			searchResult.add(ext);
-			
-			count++;
-			if( count == RESTRICT_COUNT ) break;
+			searchResult.add(PerfumeWrapperExtended.of(baseInfo, match.perfumeId(), match.matchCount(), match.matchedNotes()));
 		}
 		return searchResult;
 	}
 	
+	// 페이지 크기는 1 ~ RESTRICT_COUNT
+	private static int pageSize(int size) {
+		return Math.max(1, Math.min(size, RESTRICT_COUNT));
+	}
+	
 	
 }
@@ -1,15 +1,31 @@
 package com.moodrop.model.serviceImpl;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.moodrop.model.dao.RecipeBatchWriter;
 import com.moodrop.model.dao.RecipeDao;
-import com.moodrop.model.dao.UserDao;
+import com.moodrop.model.dto.NotesDto;
+import com.moodrop.model.dto.RecipeImportErrorDto;
+import com.moodrop.model.dto.RecipeImportResultDto;
 import com.moodrop.model.dto.UserRecipeDto;
+import com.moodrop.model.service.RecipeImportSource;
 import com.moodrop.model.service.RecipeService;
 
 @Service
@@ -18,8 +34,21 @@ public class RecipeServiceImpl implements RecipeService{
 	@Autowired
 	RecipeDao dao;
 	
+	// 레시피 쓰기 transaction은 BATCH executor mapper만 쓴다.
 	@Autowired
-	UserDao userDao;
+	RecipeBatchWriter batchWriter;
+	
+	// 일괄 가져오기는 chunk마다 따로 commit한다.
+	@Autowired
+	TransactionTemplate transactionTemplate;
+	
+	// 일괄 가져오기에서 한 transaction(JDBC batch)에 넣는 레시피 수
+	@Value("${moodrop.recipe.import.chunk-size:500}")
+	private int importChunkSize;
+	
+	// 일괄 가져오기 결과에 담는 실패 줄 최대 개수
+	@Value("${moodrop.recipe.import.max-errors:1000}")
+	private int importMaxErrors;
 	
 //	private final MoodropApplication moodropApplication;
 //    RecipeServiceImpl(MoodropApplication moodropApplication) {
@@ -41,6 +70,7 @@ public class RecipeServiceImpl implements RecipeService{
 	 * 사용자의 레시피를 작성한다.
 	 * userRecipe 및 composition이 insert돼야 commit되게 한다.
 	 * 그렇지 않으면 Rollback. 
+	 * 모르는 note가 있으면 아무것도 쓰기 전에 IllegalArgumentException.
 	 * 추가 구현 사항: userId 포함, perfumeName 동일 시 rollBack 및 오류 메시지, rating_table 만들어서 평균 값 가져오기 
 	 * */
 	@Override
@@ -48,17 +78,11 @@ public class RecipeServiceImpl implements RecipeService{
 	public int createUserRecipe(UserRecipeDto userRecipe) {
 		// 사용자 userId 받을 시(UserRecipeDto userRecipe, userId)
 		// userRecipe.setUserId(userId)
-		int resultStatus = dao.insertUserRecipe(userRecipe);
-		int userPerfumeId = userRecipe.getRecipeId();
-		if( userPerfumeId == 0) {
-			throw new IllegalStateException("userPerfume을 가져오는 데 실패했습니다.");
-		}
+		RecipeDao batchDao = batchWriter.recipeDao();
+		userRecipe.setComposition(resolveNoteIds(batchDao, userRecipe.getComposition()));
 		
-		if(userRecipe.getComposition() != null) {			
-			dao.insertCompositionsInRecipe(userPerfumeId, userRecipe.getComposition());
-		}
-		
-		return userPerfumeId;
+		insertRecipes(batchDao, List.of(userRecipe));
+		return userRecipe.getRecipeId();
 	}
 	
 	// recipeId로 레시피를 조회한다.
@@ -71,14 +95,22 @@ public class RecipeServiceImpl implements RecipeService{
 		return result;
 	}
 	
-	// recipe를 수정한다.
+	// recipe를 수정한다. 모르는 note가 있으면 아무것도 쓰기 전에 IllegalArgumentException.
 	@Override
+	@Transactional
 	public int updateUserRecipe(UserRecipeDto userRecipe) {
-		int updateRecipeResult = dao.updateUserRecipe(userRecipe);
+		RecipeDao batchDao = batchWriter.recipeDao();
+		List<NotesDto> composition = resolveNoteIds(batchDao, userRecipe.getComposition());
+		
+		batchDao.updateUserRecipe(userRecipe);
+		int updateRecipeResult = batchWriter.flush();
 		int recipeId = userRecipe.getRecipeId();
 		
-		int updateCompositionResult = dao.upsertCompositionsInRecipe(recipeId, userRecipe.getComposition());
-		if(updateRecipeResult >0 && updateCompositionResult>0) {
+		for (NotesDto note : composition) {
+			batchDao.upsertCompositionInRecipe(recipeId, note);
+		}
+		int updateCompositionResult = batchWriter.flush();
+		if(updateRecipeResult >0 && (composition.isEmpty() || updateCompositionResult>0)) {
 			return 1;
 		}
 		
@@ -101,40 +133,238 @@ public class RecipeServiceImpl implements RecipeService{
 		
 	}
 	
-	// 특정 사용자의 recipe를 나의 레시피로 복사한다.
+	// 특정 사용자의 recipe를 나의 레시피로 복사한다. (없는 사용자/레시피면 0)
 	@Override
 	@Transactional
 	public int copyRecipeIntoUser(int recipeId, String userIdString) throws SQLException {
+		return copyRecipesIntoUser(List.of(recipeId), userIdString) == 1 ? 1 : 0;
+	}
+	
+	/**
+	 * 여러 레시피를 나의 레시피로 복사한다. 개수와 상관없이 원본 조회 1번, user_perfumes batch 1번, composition INSERT ... SELECT 1번으로 끝난다.
+	 * 새 레시피 id는 batch의 생성 key로 받아 원본 id와 짝지어 넘기므로, 동시에 들어온 INSERT와 id가 섞여도 composition이 엇갈리지 않는다.
+	 * 같은 id는 한 번만 복사하고, 없는 id는 빠진다. 복사된 레시피 수를 돌려준다.
+	 **/
+	@Override
+	@Transactional
+	public int copyRecipesIntoUser(List<Integer> recipeIds, String userIdString) {
+		if (recipeIds == null || userIdString == null) return 0;
+		List<Integer> distinctIds = recipeIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+		if (distinctIds.isEmpty()) return 0;
 		
-		int userId = userDao.selectUserByString(userIdString);
-		if(userId != 0) {
-			// RecipeId로 recipe 넣기
-			// userId를 로그인한 사람의 것으로 설정한다.
-			UserRecipeDto recipe = dao.selectRecipeById(recipeId);
-			recipe.setUserId(userId);
-			// System.out.println(userId);
-			
-			int userRecipeResult = dao.insertUserRecipe(recipe);
-			if (userRecipeResult == 0) throw new SQLException("Insert user_perfumes failed");
-			// System.out.println(userRecipeResult);
-			
-			// Generated PK 사용.
-			int newRecipeId = recipe.getRecipeId();
-			
-			// composition이 존재한다면, recipeId에 맞게 composition을 넣어준다.
-			if(recipe.getComposition() != null) {			
-				int compositionResult = dao.insertCompositionsInRecipe( newRecipeId, recipe.getComposition());
-				if(compositionResult == 0 ) throw new SQLException("Insert compositions failed");
-			}
-			
-			return 1;
-		}else {
-			return 0;
+		RecipeDao batchDao = batchWriter.recipeDao();
+		List<UserRecipeDto> copies = batchDao.selectRecipesToCopy(userIdString, distinctIds);
+		if (copies.isEmpty()) return 0;
+		
+		List<Integer> sourceIds = new ArrayList<>(copies.size());
+		for (UserRecipeDto copy : copies) {
+			sourceIds.add(copy.getRecipeId());
+			copy.setRecipeId(0);
+			batchDao.insertUserRecipe(copy);
 		}
+		batchWriter.flush();
 		
+		Map<Integer, Integer> newIdBySource = new LinkedHashMap<>();
+		for (int i = 0; i < copies.size(); i++) {
+			if (copies.get(i).getRecipeId() == 0) {
+				throw new IllegalStateException("userPerfume을 가져오는 데 실패했습니다.");
+			}
+			newIdBySource.put(sourceIds.get(i), copies.get(i).getRecipeId());
+		}
+		batchDao.copyCompositions(newIdBySource);
+		batchWriter.flush();
+		return copies.size();
+	}
+	
+	/**
+	 * 레시피를 NDJSON/CSV 줄 단위로 읽어 importChunkSize개씩 넣는다. chunk마다 commit하므로 앞 chunk는 뒤에서 실패해도 남는다.
+	 * 형식이 틀리거나 모르는 note가 있는 줄은 쓰기 전에 빼고, chunk가 DB에서 실패하면 그 chunk만 레시피 하나씩 다시 넣어 실패한 줄을 찾는다.
+	 * note 이름은 chunk마다 한 번에 조회한다.
+	 * 읽는 대로 넣으므로 들고 있는 메모리는 chunk 하나와 실패 목록(importMaxErrors개까지) 크기다.
+	 * body를 읽다가 IOException이 나면 그때까지 읽은 줄은 넣고, 결과의 aborted에 사유와 마지막 줄 번호를 담아 돌려준다.
+	 * (앞 chunk는 이미 commit되어 있으므로 예외로 던지면 호출한 쪽이 어디까지 들어갔는지 알 수 없다.)
+	 **/
+	@Override
+	public RecipeImportResultDto importRecipes(RecipeImportSource source) {
+		RecipeImportResultDto result = new RecipeImportResultDto(0, 0, 0, new ArrayList<>(), null);
+		int chunkSize = Math.max(1, importChunkSize);
+		List<UserRecipeDto> chunk = new ArrayList<>(chunkSize);
+		List<Long> chunkLines = new ArrayList<>(chunkSize);
 		
+		long lastLine = 0;
+		RecipeImportSource.Line line;
+		while ((line = nextLine(source, lastLine, result)) != null) {
+			lastLine = line.lineNumber();
+			result.setLines(result.getLines() + 1);
+			String error = line.error() != null ? line.error() : validateImport(line.recipe());
+			if (error != null) {
+				addImportError(result, line.lineNumber(), error);
+				continue;
+			}
+			chunk.add(line.recipe());
+			chunkLines.add(line.lineNumber());
+			if (chunk.size() == chunkSize) {
+				importChunk(chunk, chunkLines, result);
+				chunk.clear();
+				chunkLines.clear();
+			}
+		}
+		importChunk(chunk, chunkLines, result);
+		return result;
+	}
+	
+	// 다음 줄. 끝이거나 읽기에 실패하면 null (실패 사유는 result.aborted)
+	private static RecipeImportSource.Line nextLine(RecipeImportSource source, long lastLine, RecipeImportResultDto result) {
+		try {
+			return source.next();
+		} catch (IOException e) {
+			result.setAborted("Request body read failed after line " + lastLine + ": " + rootMessage(e));
+			return null;
+		}
+	}
+	
+	// chunk 하나를 한 transaction으로 넣는다. 실패하면 레시피마다 따로 넣어 본다.
+	private void importChunk(List<UserRecipeDto> chunk, List<Long> chunkLines, RecipeImportResultDto result) {
+		removeUnresolved(chunk, chunkLines, result);
+		if (chunk.isEmpty()) return;
+		try {
+			transactionTemplate.executeWithoutResult(status -> insertRecipes(batchWriter.recipeDao(), chunk));
+			result.setImported(result.getImported() + chunk.size());
+			return;
+		} catch (RuntimeException e) {
+			if (chunk.size() == 1) {
+				addImportError(result, chunkLines.get(0), rootMessage(e));
+				return;
+			}
+		}
+		for (int i = 0; i < chunk.size(); i++) {
+			UserRecipeDto recipe = chunk.get(i);
+			recipe.setRecipeId(0);
+			try {
+				transactionTemplate.executeWithoutResult(status -> insertRecipes(batchWriter.recipeDao(), List.of(recipe)));
+				result.setImported(result.getImported() + 1);
+			} catch (RuntimeException e) {
+				addImportError(result, chunkLines.get(i), rootMessage(e));
+			}
+		}
+	}
+	
+	// 쓰기 전에 걸러낼 수 있는 형식 오류. 없으면 null (note 이름은 importChunk에서 chunk 단위로 확인한다.)
+	private String validateImport(UserRecipeDto recipe) {
+		if (recipe == null) return "Empty recipe";
+		if (recipe.getUserId() <= 0) return "userId is required";
+		if (recipe.getPerfumeName() == null || recipe.getPerfumeName().isBlank()) return "perfumeName is required";
+		if (recipe.getComposition() == null) recipe.setComposition(new ArrayList<>());
+		return null;
+	}
+	
+	// chunk 전체의 note 이름을 한 번에 id로 바꾸고, 모르는 note나 중복 note가 있는 줄은 실패로 빼낸다.
+	private void removeUnresolved(List<UserRecipeDto> chunk, List<Long> chunkLines, RecipeImportResultDto result) {
+		List<NotesDto> notes = new ArrayList<>();
+		for (UserRecipeDto recipe : chunk) {
+			notes.addAll(recipe.getComposition());
+		}
+		Map<String, Integer> noteIds = noteIdsByName(dao, notes);
 		
+		int kept = 0;
+		for (int i = 0; i < chunk.size(); i++) {
+			UserRecipeDto recipe = chunk.get(i);
+			String error = assignNoteIds(recipe.getComposition(), noteIds);
+			Set<Integer> seen = new HashSet<>();
+			for (NotesDto note : recipe.getComposition()) {
+				if (error == null && !seen.add(note.getNoteId())) error = "Duplicate note: " + note.getName();
+			}
+			if (error != null) {
+				addImportError(result, chunkLines.get(i), error);
+				continue;
+			}
+			chunk.set(kept, recipe);
+			chunkLines.set(kept++, chunkLines.get(i));
+		}
+		chunk.subList(kept, chunk.size()).clear();
+		chunkLines.subList(kept, chunkLines.size()).clear();
+	}
+	
+	private void addImportError(RecipeImportResultDto result, long lineNumber, String message) {
+		result.setFailed(result.getFailed() + 1);
+		if (result.getErrors().size() < importMaxErrors) {
+			result.getErrors().add(new RecipeImportErrorDto(lineNumber, message));
+		}
+	}
+	
+	private static String rootMessage(Throwable e) {
+		Throwable root = e;
+		while (root.getCause() != null && root.getCause() != root) {
+			root = root.getCause();
+		}
+		return root.getMessage() == null ? root.getClass().getSimpleName() : root.getMessage();
+	}
+	
+	/**
+	 * user_perfumes를 모두 batch로 넣고(flush 때 생성된 id가 채워진다.) 그 id로 composition을 batch로 넣는다.
+	 * composition은 resolveNoteIds를 거친 것이어야 한다. 같은 transaction 안에서 호출한다.
+	 **/
+	private void insertRecipes(RecipeDao batchDao, List<UserRecipeDto> recipes) {
+		for (UserRecipeDto recipe : recipes) {
+			batchDao.insertUserRecipe(recipe);
+		}
+		batchWriter.flush();
 		
+		int compositionCount = 0;
+		for (UserRecipeDto recipe : recipes) {
+			int userPerfumeId = recipe.getRecipeId();
+			if( userPerfumeId == 0) {
+				throw new IllegalStateException("userPerfume을 가져오는 데 실패했습니다.");
+			}
+			for (NotesDto note : recipe.getComposition()) {
+				batchDao.insertCompositionInRecipe(userPerfumeId, note);
+				compositionCount++;
+			}
+		}
+		int compositionResult = batchWriter.flush();
+		if (compositionResult < compositionCount) {
+			throw new IllegalStateException("Insert compositions failed");
+		}
+	}
+	
+	/**
+	 * composition의 note 이름을 selectNoteIdByName 한 번으로 id로 바꿔 둔다. (같은 이름이 여러 개면 가장 작은 id)
+	 * DB를 바로 읽으므로 카탈로그 적재 뒤에 추가된 note도 쓸 수 있다. 이름은 이전처럼 영문 name만 받는다.
+	 * 이름이 없거나 모르는 note가 하나라도 있으면 모두 모아 IllegalArgumentException. null이면 빈 목록.
+	 **/
+	private List<NotesDto> resolveNoteIds(RecipeDao recipeDao, List<NotesDto> composition) {
+		if (composition == null) return new ArrayList<>();
+		String error = assignNoteIds(composition, noteIdsByName(recipeDao, composition));
+		if (error != null) throw new IllegalArgumentException(error);
+		return composition;
+	}
+	
+	// note 이름 -> id (DB collation처럼 대소문자는 가리지 않는다.) 이름이 없으면 조회하지 않는다.
+	private static Map<String, Integer> noteIdsByName(RecipeDao recipeDao, Collection<NotesDto> notes) {
+		Map<String, Integer> noteIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		Set<String> names = new LinkedHashSet<>();
+		for (NotesDto note : notes) {
+			if (note != null && note.getName() != null) names.add(note.getName());
+		}
+		if (names.isEmpty()) return noteIds;
+		for (NotesDto row : recipeDao.selectNoteIdByName(names)) {
+			noteIds.merge(row.getName(), row.getNoteId(), Math::min);
+		}
+		return noteIds;
+	}
+	
+	// 조회한 id를 composition에 채운다. 이름이 없거나 모르는 note가 있으면 그 목록을 담은 메시지, 없으면 null.
+	private static String assignNoteIds(List<NotesDto> composition, Map<String, Integer> noteIds) {
+		Set<String> unknown = new LinkedHashSet<>();
+		for (NotesDto note : composition) {
+			Integer noteId = note == null || note.getName() == null ? null : noteIds.get(note.getName());
+			if (noteId == null) {
+				unknown.add(note == null ? null : note.getName());
+				continue;
+			}
+			note.setNoteId(noteId);
+		}
+		return unknown.isEmpty() ? null : "Unknown notes: " + unknown;
 	}
 	
 	
@@ -0,0 +1,40 @@
+package com.moodrop.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.moodrop.model.service.SearchResultSink;
+
+/**
+ * 검색 결과를 한 줄에 JSON 하나씩(NDJSON) 응답에 바로 쓴다.
+ * 항목마다 byte[]로 바꿔 쓰고 버리므로, 결과 개수와 상관없이 들고 있는 메모리는 항목 하나 크기다.
+ * client 연결이 끊기면 write/flush에서 IOException이 나고, Service는 거기서 멈춘다.
+ **/
+public class NdjsonResultWriter<T> implements SearchResultSink<T> {
+	
+	public static final String NDJSON_VALUE = "application/x-ndjson";
+	public static final MediaType NDJSON = MediaType.parseMediaType(NDJSON_VALUE);
+	
+	private final OutputStream out;
+	private final ObjectWriter writer;
+	
+	public NdjsonResultWriter(OutputStream out, ObjectMapper objectMapper) {
+		this.out = out;
+		this.writer = objectMapper.writer();
+	}
+	
+	@Override
+	public void accept(T item) throws IOException {
+		out.write(writer.writeValueAsBytes(item));
+		out.write('\n');
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+}
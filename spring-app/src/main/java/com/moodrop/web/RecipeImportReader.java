@@ -0,0 +1,150 @@
+package com.moodrop.web;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.moodrop.model.dto.NotesDto;
+import com.moodrop.model.dto.UserRecipeDto;
+import com.moodrop.model.service.RecipeImportSource;
+
+/**
+ * 레시피 일괄 가져오기 요청 body를 한 줄씩 읽는다. 들고 있는 메모리는 줄 하나 크기다.
+ * 줄 하나는 MAX_LINE_CHARS까지만 담고, 그보다 긴 줄은 다음 줄바꿈까지 버리고 실패한 줄로 돌려준다.
+ * NDJSON: 한 줄에 UserRecipeDto JSON 하나. 줄마다 따로 parse해서, 틀린 줄이 있어도 다음 줄부터 다시 읽는다.
+ * CSV: userId,perfumeName,description,composition (첫 줄이 userId로 시작하면 header로 보고 건너뛴다.)
+ *      composition은 "note:weight|note:weight", 쉼표나 따옴표가 들어간 값은 큰따옴표로 감싸고 안의 따옴표는 두 번 쓴다.
+ **/
+public class RecipeImportReader implements RecipeImportSource {
+
+	public static final String CSV_VALUE = "text/csv";
+	public static final MediaType CSV = MediaType.parseMediaType(CSV_VALUE);
+
+	private static final int CSV_COLUMNS = 4;
+
+	// 줄 하나의 최대 글자 수 (레시피 하나에는 충분히 크다.)
+	static final int MAX_LINE_CHARS = 64 * 1024;
+
+	private final BufferedReader in;
+	private final boolean csv;
+	private final ObjectReader reader;
+	private final StringBuilder buffer = new StringBuilder();
+	private boolean tooLong;
+	private long lineNumber;
+
+	public RecipeImportReader(InputStream in, boolean csv, ObjectMapper objectMapper) {
+		this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		this.csv = csv;
+		this.reader = objectMapper.readerFor(UserRecipeDto.class);
+	}
+
+	@Override
+	public Line next() throws IOException {
+		String line;
+		while ((line = readLine()) != null) {
+			lineNumber++;
+			if (tooLong) return new Line(lineNumber, null, "Line too long (max " + MAX_LINE_CHARS + " characters)");
+			if (line.isBlank()) continue;
+			if (csv && lineNumber == 1 && line.stripLeading().regionMatches(true, 0, "userId", 0, 6)) continue;
+			try {
+				return new Line(lineNumber, csv ? parseCsv(line) : reader.readValue(line), null);
+			} catch (JsonProcessingException e) {
+				return new Line(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+			} catch (IllegalArgumentException e) {
+				return new Line(lineNumber, null, e.getMessage());
+			}
+		}
+		return null;
+	}
+
+	// BufferedReader.readLine과 같이 \n, \r, \r\n을 줄 끝으로 보되, MAX_LINE_CHARS를 넘는 부분은 담지 않는다. (EOF면 null)
+	private String readLine() throws IOException {
+		buffer.setLength(0);
+		tooLong = false;
+		boolean empty = true;
+		int c;
+		while ((c = in.read()) != -1) {
+			empty = false;
+			if (c == '\n') break;
+			if (c == '\r') {
+				in.mark(1);
+				if (in.read() != '\n') in.reset();
+				break;
+			}
+			if (buffer.length() < MAX_LINE_CHARS) buffer.append((char) c);
+			else tooLong = true;
+		}
+		return empty ? null : buffer.toString();
+	}
+
+	private static UserRecipeDto parseCsv(String line) {
+		List<String> fields = splitCsv(line);
+		if (fields.size() != CSV_COLUMNS) {
+			throw new IllegalArgumentException("Expected " + CSV_COLUMNS + " columns but got " + fields.size());
+		}
+		UserRecipeDto recipe = new UserRecipeDto();
+		recipe.setUserId(parseInt(fields.get(0), "userId"));
+		recipe.setPerfumeName(fields.get(1));
+		recipe.setDescription(fields.get(2).isEmpty() ? null : fields.get(2));
+
+		List<NotesDto> composition = new ArrayList<>();
+		for (String part : fields.get(3).split("\\|")) {
+			if (part.isBlank()) continue;
+			int colon = part.lastIndexOf(':');
+			if (colon < 0) throw new IllegalArgumentException("Composition item needs note:weight: " + part);
+			NotesDto note = new NotesDto();
+			note.setName(part.substring(0, colon).trim());
+			note.setWeight(parseInt(part.substring(colon + 1), "weight"));
+			composition.add(note);
+		}
+		recipe.setComposition(composition);
+		return recipe;
+	}
+
+	// 큰따옴표로 감싼 값 안의 쉼표와 "" 를 처리한다. (한 줄 안에서만)
+	private static List<String> splitCsv(String line) {
+		List<String> fields = new ArrayList<>(CSV_COLUMNS);
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c != '"') {
+					field.append(c);
+				} else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else {
+					quoted = false;
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString().trim());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		if (quoted) throw new IllegalArgumentException("Unterminated quoted field");
+		fields.add(field.toString().trim());
+		return fields;
+	}
+
+	private static int parseInt(String value, String column) {
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + column + ": " + value);
+		}
+	}
+}
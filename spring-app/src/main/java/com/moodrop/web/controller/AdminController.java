@@ -0,0 +1,137 @@
+package com.moodrop.web.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.moodrop.config.CacheConfig;
+import com.moodrop.model.catalog.PerfumeCatalog;
+import com.moodrop.model.catalog.ReferenceDataRegistry;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+	@Autowired
+	PerfumeCatalog catalog;
+	
+	@Autowired
+	CacheManager cacheManager;
+	
+	@Autowired
+	ReferenceDataRegistry referenceData;
+	
+	/**
+	 * 현재 향수 카탈로그 snapshot의 메모리 사용량을 확인한다.
+	 **/
+	@GetMapping("/catalog")
+	public ResponseEntity<?> getCatalogFootprint(){
+		Map<String, Object> footprint = catalog.footprint();
+		if(footprint == null) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Catalog not loaded");
+		}
+		return ResponseEntity.ok(footprint);
+	}
+	
+	/**
+	 * 스크래퍼 적재 후, 향수 카탈로그 snapshot을 새로 만들어 교체한다.
+	 **/
+	@PostMapping("/catalog/reload")
+	public ResponseEntity<?> reloadCatalog(){
+		try {
+			return ResponseEntity.ok(catalog.reload());
+		}catch(Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
+	/**
+	 * category, mood, category_mood, mood_accord 기준 정보를 다시 읽는다.
+	 **/
+	@PostMapping("/reference/reload")
+	public ResponseEntity<?> reloadReferenceData(){
+		try {
+			ReferenceDataRegistry.ReferenceData reference = referenceData.reload();
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("categories", reference.categories().size());
+			result.put("categoryMoods", reference.categoryMoods().size());
+			result.put("moods", reference.moods().size());
+			result.put("moodAccords", reference.moodAccords().size());
+			return ResponseEntity.ok(result);
+		}catch(Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
+	/**
+	 * namespace(cache 이름)별 hit/miss/eviction 통계를 확인한다.
+	 **/
+	@GetMapping("/cache")
+	public ResponseEntity<?> getCacheStats(){
+		Map<String, Object> result = new LinkedHashMap<>();
+		for(String name : cacheManager.getCacheNames()) {
+			Cache cache = cacheManager.getCache(name);
+			if(!(cache instanceof CaffeineCache caffeineCache)) continue;
+			
+			com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+			CacheStats stats = nativeCache.stats();
+			Map<String, Object> info = new LinkedHashMap<>();
+			info.put("estimatedSize", nativeCache.estimatedSize());
+			nativeCache.policy().eviction().ifPresent(eviction -> {
+				eviction.weightedSize().ifPresent(size -> info.put("weightedBytes", size));
+				info.put("maximumBytes", eviction.getMaximum());
+			});
+			info.put("hitCount", stats.hitCount());
+			info.put("missCount", stats.missCount());
+			info.put("hitRate", stats.hitRate());
+			info.put("loadCount", stats.loadCount());
+			info.put("evictionCount", stats.evictionCount());
+			info.put("evictionBytes", stats.evictionWeight());
+			result.put(name, info);
+		}
+		return ResponseEntity.ok(result);
+	}
+	
+	/**
+	 * namespace 전체를 비운다. (perfume을 비우면 perfumeJson도 같이 비운다.)
+	 **/
+	@DeleteMapping("/cache/{name}")
+	public ResponseEntity<?> clearCache(@PathVariable("name") String name){
+		if(cacheManager.getCache(name) == null) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Cache not found");
+		}
+		for(String target : CacheConfig.withDerived(name)) {
+			cacheManager.getCache(target).clear();
+		}
+		return ResponseEntity.ok("Successfully Cleared");
+	}
+	
+	/**
+	 * namespace에서 perfumeId 하나만 비운다. (perfume에서 비우면 perfumeJson의 byte[]와 ETag도 같이 비운다.)
+	 **/
+	@DeleteMapping("/cache/{name}/{perfumeId}")
+	public ResponseEntity<?> evictCache(@PathVariable("name") String name, @PathVariable("perfumeId") int perfumeId){
+		if(cacheManager.getCache(name) == null) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Cache not found");
+		}
+		for(String target : CacheConfig.withDerived(name)) {
+			cacheManager.getCache(target).evict(perfumeId);
+		}
+		return ResponseEntity.ok("Successfully Evicted");
+	}
+	
+}
@@ -1,12 +1,17 @@
 package com.moodrop.web.controller;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,14 +21,31 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.moodrop.model.cache.PerfumeJsonCache;
+import com.moodrop.model.cache.RenderedJson;
+import com.moodrop.model.catalog.ReferenceDataRegistry;
+import com.moodrop.model.dto.BlendRequestDto;
 import com.moodrop.model.dto.CategoryMoodDto;
+import com.moodrop.model.dto.FeasibilityDto;
 import com.moodrop.model.dto.MoodAccordDto;
+import com.moodrop.model.dto.NoteSuggestionDto;
 import com.moodrop.model.dto.NotesDto;
+import com.moodrop.model.dto.PerfumeResponseDto;
+import com.moodrop.model.dto.PerfumeSearchDto;
 import com.moodrop.model.dto.PerfumeWrapper;
 import com.moodrop.model.dto.PerfumeWrapperExtended;
+import com.moodrop.model.dto.RecommendRequestDto;
+import com.moodrop.model.dto.SearchPageDto;
+import com.moodrop.model.dto.SimilarPerfumeDto;
 import com.moodrop.model.dto.UserNoteDto;
 import com.moodrop.model.service.PerfumeService;
+import com.moodrop.model.service.StageTimer;
+import com.moodrop.web.NdjsonResultWriter;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -33,6 +55,30 @@ import jakarta.servlet.http.HttpServletResponse;
 public class PerfumeController {
 	@Autowired
 	PerfumeService service;
+	
+	@Autowired
+	PerfumeJsonCache perfumeJsonCache;
+	
+	@Autowired
+	ReferenceDataRegistry referenceData;
+	
+	// category, categoryMood 응답의 Cache-Control max-age
+	@Value("${moodrop.reference.max-age-seconds:600}")
+	long referenceMaxAgeSeconds;
+	
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	// note 검색에서 cursor만 주고 size를 안 줬을 때의 페이지 크기
+	private static final int DEFAULT_PAGE_SIZE = 20;
+	
+	// NDJSON 검색 응답에서 한 번에 조립하고 flush하는 개수
+	private static final int STREAM_BATCH_SIZE = 10;
+	
+	// note 배합 계산의 기본 반올림 단위와 총량
+	private static final int DEFAULT_BLEND_UNIT = 5;
+	private static final int DEFAULT_BLEND_TOTAL = 100;
+	
 	// Test
 	@GetMapping("/test")
 	public ResponseEntity<String> test(){
@@ -40,11 +86,18 @@ public class PerfumeController {
 	}
 	
 	// Perfume 전체 정보 가져오기
+	// 미리 직렬화한 JSON을 돌려주고, If-None-Match가 ETag와 같으면 304를 돌려준다.
 	@GetMapping("/perfume/{perfumeId}")
 	public ResponseEntity<?> getPerfumeById(@PathVariable int perfumeId, HttpServletRequest request, HttpServletResponse response){
 		try {
-	        PerfumeWrapper perfume = service.getPerfumeWrapper(perfumeId);
-	        return ResponseEntity.ok(perfume);
+			RenderedJson perfume = perfumeJsonCache.render(perfumeId);
+			if (new ServletWebRequest(request, response).checkNotModified(perfume.etag())) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(perfume.etag()).build();
+			}
+	        return ResponseEntity.ok()
+	        		.eTag(perfume.etag())
+	        		.contentType(MediaType.APPLICATION_JSON)
+	        		.body(perfume.body());
 	    } catch (SQLException e) {
 	        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("DB Error occurred");
 	    } catch (NoSuchElementException e) {
@@ -70,10 +123,33 @@ public class PerfumeController {
 	    }	
 	}
 	
+	// mood 선택 -> 상위 accord -> 후보 향수 -> 사용자 노트 일치 -> 카드 조립을 한 번의 요청으로 처리한다.
+	// 단계별 소요 시간은 Server-Timing 헤더로 돌려준다.
+	@PostMapping("/recommend")
+	public ResponseEntity<?> recommend(@RequestBody RecommendRequestDto body, HttpServletRequest request, HttpServletResponse response){
+		try {
+			StageTimer timer = new StageTimer();
+			Map<String, Object> result = service.recommend(body.getUserId(), body.getMoodIds(), timer);
+			return ResponseEntity.ok()
+					.header("Server-Timing", timer.toServerTiming())
+					.body(result);
+		}catch(IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}catch(Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
 	// 대분류 가져오기
+	// 기준 정보가 메모리에 있으면 미리 직렬화한 JSON을 Cache-Control, ETag와 함께 돌려준다.
 	@GetMapping("/category")
 	public ResponseEntity<?> getCategory(HttpServletRequest request, HttpServletResponse response) throws SQLException{
 		try {
+			ReferenceDataRegistry.ReferenceData reference = referenceData.get();
+			if(reference != null) {
+				return renderedReference(reference.categoryJson(), request, response);
+			}
 			List<Map<Integer,String>> category = service.getCategory();
 			return ResponseEntity.ok(category);			
 		}catch(Exception e) {
@@ -87,6 +163,10 @@ public class PerfumeController {
 	@GetMapping("/categoryMood")
 	public ResponseEntity<?> getCategoryMood(HttpServletRequest request, HttpServletResponse response) throws SQLException{
 		try {
+			ReferenceDataRegistry.ReferenceData reference = referenceData.get();
+			if(reference != null) {
+				return renderedReference(reference.categoryMoodJson(), request, response);
+			}
 			List<CategoryMoodDto> categoryMood = service.getCategoryMood();
 			return ResponseEntity.ok(categoryMood);			
 		}catch(Exception e) {
@@ -95,6 +175,19 @@ public class PerfumeController {
 		}
 	}
 	
+	// 기준 정보 JSON 응답 (If-None-Match가 같으면 304)
+	private ResponseEntity<?> renderedReference(RenderedJson json, HttpServletRequest request, HttpServletResponse response){
+		CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(referenceMaxAgeSeconds)).cachePublic();
+		if (new ServletWebRequest(request, response).checkNotModified(json.etag())) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(json.etag()).cacheControl(cacheControl).build();
+		}
+		return ResponseEntity.ok()
+				.eTag(json.etag())
+				.cacheControl(cacheControl)
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(json.body());
+	}
+	
 	// Mood를 선택 후, accord 가중치 합이 가장 높은 12개를 가져온다.
 	@GetMapping("/perfume/accord")
 	public ResponseEntity<?> getAccordByMood(@RequestParam("moodId") List<Integer> moodIdList, HttpServletRequest request, HttpServletResponse response) throws SQLException{		
@@ -139,6 +232,102 @@ public class PerfumeController {
 		
 	}
 	
+	/**
+	 * 사용자 보유량으로 향수를 얼마나 만들 수 있는지 계산한다.
+	 * bottleSize(g) 기준으로 부족한 note와 양을 함께 준다. perfumeId를 주면 그 향수들만 평가한다.
+	 * **/
+	@GetMapping("/perfume/feasibility/{userId}")
+	public ResponseEntity<?> getFeasibility(@PathVariable("userId") String userId,
+			@RequestParam(defaultValue = "50") float bottleSize,
+			@RequestParam(required = false) List<Integer> perfumeId,
+			@RequestParam(defaultValue = "20") int limit,
+			HttpServletRequest request, HttpServletResponse response){
+		
+		try {
+			List<FeasibilityDto> result = service.getFeasibility(userId, bottleSize, perfumeId, limit);
+			return ResponseEntity.ok(result);
+		}catch(IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}catch(IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+		}catch(Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
+	// accord weight와 note 구성이 비슷한 향수 (미리 계산한 이웃 목록)
+	@GetMapping("/perfume/{perfumeId}/similar")
+	public ResponseEntity<?> getSimilarPerfumes(@PathVariable("perfumeId") int perfumeId,
+			@RequestParam(defaultValue = "10") int limit,
+			HttpServletRequest request, HttpServletResponse response){
+		try {
+			List<SimilarPerfumeDto> result = service.getSimilarPerfumes(perfumeId, limit);
+			return ResponseEntity.ok(result);
+		}catch(NoSuchElementException e) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Perfume not found");
+		}catch(IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+		}catch(Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
+	// 향수 이름/브랜드 검색 (오타 허용, 비슷한 순)
+	@GetMapping("/perfume/search")
+	public ResponseEntity<?> searchPerfumes(@RequestParam("q") String query,
+			@RequestParam(defaultValue = "10") int limit,
+			HttpServletRequest request, HttpServletResponse response){
+		try {
+			List<PerfumeSearchDto> result = service.searchPerfumes(query, limit);
+			return ResponseEntity.ok(result);
+		}catch(IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+		}catch(Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
+	/**
+	 * 선택한 mood의 accord 분포를 사용자 보유 note로 맞추는 배합을 계산한다.
+	 * unit(기본 5) 단위로 반올림하고, 합은 total(기본 100)이다.
+	 * **/
+	@PostMapping("/perfume/blend/{userId}")
+	public ResponseEntity<?> composeBlend(@PathVariable("userId") String userId, @RequestBody BlendRequestDto body,
+			HttpServletRequest request, HttpServletResponse response){
+		try {
+			int unit = body.getUnit() == null ? DEFAULT_BLEND_UNIT : body.getUnit();
+			int total = body.getTotal() == null ? DEFAULT_BLEND_TOTAL : body.getTotal();
+			PerfumeResponseDto result = service.composeBlend(userId, body.getMoodIds(), unit, total);
+			return ResponseEntity.ok(result);
+		}catch(IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}catch(IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+		}catch(Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
+	// note 이름 자동완성 (영문, 한글, 한글 초성 앞부분). 많이 쓰이는 note부터 준다.
+	@GetMapping("/notes/suggest")
+	public ResponseEntity<?> suggestNotes(@RequestParam("q") String query,
+			@RequestParam(defaultValue = "10") int limit,
+			HttpServletRequest request, HttpServletResponse response){
+		try {
+			List<NoteSuggestionDto> result = service.suggestNotes(query, limit);
+			return ResponseEntity.ok(result);
+		}catch(IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+		}catch(Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
 	// 사용자의 보유 Note를 추가한다.
 	@PostMapping("/perfume/note")
 	public ResponseEntity<?> postUserNotes(@RequestBody UserNoteDto UserNoteDto ,HttpServletRequest request, HttpServletResponse response){
@@ -173,18 +362,27 @@ public class PerfumeController {
 	
 	/**
 	 * 노트 일부만 담고 있는 향수를 검색한다.
+	 * size 또는 cursor를 주면 { items, nextCursor } 형태로 나눠서 준다.
 	 * **/
 	@PostMapping("/perfume/searchPartNote")
-	public ResponseEntity<?> searchPerfumeByNote(@RequestBody Map<String, List<String>> noteList, HttpServletRequest request, HttpServletResponse response ) throws SQLException{
+	public ResponseEntity<?> searchPerfumeByNote(@RequestBody Map<String, List<String>> noteList,
+			@RequestParam(required = false) Integer size, @RequestParam(required = false) String cursor,
+			HttpServletRequest request, HttpServletResponse response ) throws SQLException{
 		
 		try {
 			List<String> extractedNoteList = noteList.get("noteList");
+			if (size != null || cursor != null) {
+				SearchPageDto<PerfumeWrapper> page = service.selectPerfumeByNote(extractedNoteList, size == null ? DEFAULT_PAGE_SIZE : size, cursor);
+				return ResponseEntity.ok(page);
+			}
 			List<PerfumeWrapper>searchResult = service.selectPerfumeByNote(extractedNoteList);
 
 			return ResponseEntity.ok(searchResult);			
 			
 			// return ResponseEntity.ok("Done");
 			
+		}catch(IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
 		}catch(Exception e) {
 			e.printStackTrace();
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -192,18 +390,45 @@ public class PerfumeController {
 		
 	}
 	
+	/**
+	 * 노트 일부만 담고 있는 향수를 검색한다. (Accept: application/x-ndjson)
+	 * 결과를 조립되는 대로 한 줄씩 쓰고, STREAM_BATCH_SIZE개마다 flush한다.
+	 * **/
+	@PostMapping(value = "/perfume/searchPartNote", produces = NdjsonResultWriter.NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamPerfumeByNote(@RequestBody Map<String, List<String>> noteList){
+		List<String> extractedNoteList = noteList.get("noteList");
+		StreamingResponseBody body = out -> {
+			try {
+				service.streamPerfumeByNote(extractedNoteList, STREAM_BATCH_SIZE, new NdjsonResultWriter<>(out, objectMapper));
+			} catch (SQLException e) {
+				// 이미 200으로 보내기 시작했으므로, 응답을 끊어서 실패를 알린다.
+				throw new IOException(e);
+			}
+		};
+		return ResponseEntity.ok().contentType(NdjsonResultWriter.NDJSON).body(body);
+	}
+	
 	/**
 	 * 모든 노트를 담고 있는 향수를 검색한다.
+	 * size 또는 cursor를 주면 { items, nextCursor } 형태로 나눠서 준다.
 	 * **/
 	@PostMapping("/perfume/searchAllNote")
-	public ResponseEntity<?> searchPerfumeByAllnote(@RequestBody Map<String, List<String>> noteList, HttpServletRequest request, HttpServletResponse response){
+	public ResponseEntity<?> searchPerfumeByAllnote(@RequestBody Map<String, List<String>> noteList,
+			@RequestParam(required = false) Integer size, @RequestParam(required = false) String cursor,
+			HttpServletRequest request, HttpServletResponse response){
 		
 		try {
 			List<String> extractedNoteList= noteList.get("noteList");
+			if (size != null || cursor != null) {
+				SearchPageDto<PerfumeWrapperExtended> page = service.selectPerfumeByAtLeastKNotes(extractedNoteList, size == null ? DEFAULT_PAGE_SIZE : size, cursor);
+				return ResponseEntity.ok(page);
+			}
 			List<PerfumeWrapperExtended> searchResult = service.selectPerfumeByAtLeastKNotes(extractedNoteList);
 			
 			return ResponseEntity.ok(searchResult);
 			
+		}catch(IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
 		}catch(Exception e) {
 			e.printStackTrace();
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -212,6 +437,30 @@ public class PerfumeController {
 		
 	}
 	
+	/**
+	 * 모든 노트를 담고 있는 향수를 검색한다. (Accept: application/x-ndjson)
+	 * 결과를 조립되는 대로 한 줄씩 쓰고, STREAM_BATCH_SIZE개마다 flush한다.
+	 * **/
+	@PostMapping(value = "/perfume/searchAllNote", produces = NdjsonResultWriter.NDJSON_VALUE)
+	public ResponseEntity<?> streamPerfumeByAllnote(@RequestBody Map<String, List<String>> noteList){
+		List<String> extractedNoteList = noteList.get("noteList");
+		// body를 쓰기 시작하면 400으로 바꿀 수 없으므로 먼저 확인한다.
+		try {
+			service.checkAtLeastKNotes(extractedNoteList);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+		}
+		StreamingResponseBody body = out -> {
+			try {
+				service.streamPerfumeByAtLeastKNotes(extractedNoteList, STREAM_BATCH_SIZE, new NdjsonResultWriter<>(out, objectMapper));
+			} catch (SQLException e) {
+				// 이미 200으로 보내기 시작했으므로, 응답을 끊어서 실패를 알린다.
+				throw new IOException(e);
+			}
+		};
+		return ResponseEntity.ok().contentType(NdjsonResultWriter.NDJSON).body(body);
+	}
+	
 	
 	
 }
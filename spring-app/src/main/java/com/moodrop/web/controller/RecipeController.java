@@ -6,6 +6,7 @@ import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,8 +17,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrop.model.dto.RecipeImportResultDto;
 import com.moodrop.model.dto.UserRecipeDto;
 import com.moodrop.model.service.RecipeService;
+import com.moodrop.web.NdjsonResultWriter;
+import com.moodrop.web.RecipeImportReader;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -28,6 +33,9 @@ public class RecipeController {
 	@Autowired
 	RecipeService service;
 	
+	@Autowired
+	ObjectMapper objectMapper;
+	
 //	@GetMapping("/usertest")
 //	public ResponseEntity<String> user(){
 //		return ResponseEntity.ok("Hi there");
@@ -52,7 +60,13 @@ public class RecipeController {
 	    // Integer userId = jwtUtil.getUserIdFromToken(token); // 클레임 파싱
 		
 		// int userPerfumeId = service.createUserRecipe(userRecipeDto, userId);
-		int userPerfumeId = service.createUserRecipe(userRecipeDto);
+		int userPerfumeId;
+		try {
+			userPerfumeId = service.createUserRecipe(userRecipeDto);
+		}catch(IllegalArgumentException e) {
+			// 모르는 note
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
 		
 		if(userPerfumeId != 0) {
 			return ResponseEntity.ok("Successfully Inserted");			
@@ -84,7 +98,13 @@ public class RecipeController {
 	@PatchMapping("/recipe")
 	public ResponseEntity<?> patchPerfume(@RequestBody UserRecipeDto userRecipeDto, HttpServletRequest request, HttpServletResponse response){
 		
-		int result = service.updateUserRecipe(userRecipeDto);
+		int result;
+		try {
+			result = service.updateUserRecipe(userRecipeDto);
+		}catch(IllegalArgumentException e) {
+			// 모르는 note
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+		}
 		
 		if(result == 1) {
 			return ResponseEntity.ok("Successfully Updated data");
@@ -126,5 +146,46 @@ public class RecipeController {
 		
 	}
 	
+	/**
+	 * 여러 레시피를 나의 레시피로 한 번에 복사한다. body: { recipeIds: [...], userId }
+	 * 복사된 레시피 수를 돌려준다. (없는 레시피는 빠진다.)
+	 * **/
+	@PostMapping("/recipe/copy/many")
+	public ResponseEntity<?> copyUserRecipes(@RequestBody Map<String, Object> body, HttpServletRequest request, HttpServletResponse response){
+		try {
+			@SuppressWarnings("unchecked")
+			List<Integer> recipeIds = (List<Integer>) body.get("recipeIds");
+			String userId = (String) body.get("userId");
+			
+			int result = service.copyRecipesIntoUser(recipeIds, userId);
+			return ResponseEntity.ok(result);
+		}catch(ClassCastException e) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("recipeIds must be a list of ids and userId a string");
+		}catch(Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
+	/**
+	 * 레시피 일괄 가져오기. body는 NDJSON(한 줄에 레시피 JSON 하나) 또는 CSV(userId,perfumeName,description,composition)
+	 * 읽는 대로 chunk 단위로 넣고 commit하며, 실패한 줄은 줄 번호와 사유로 알려 준다.
+	 * body를 끝까지 읽지 못하면 400과 함께 그때까지의 결과를 돌려준다. (앞 chunk는 이미 commit되어 있다.)
+	 * **/
+	@PostMapping(value = "/recipe/import", consumes = { NdjsonResultWriter.NDJSON_VALUE, RecipeImportReader.CSV_VALUE })
+	public ResponseEntity<?> importRecipes(HttpServletRequest request, HttpServletResponse response){
+		try {
+			boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(RecipeImportReader.CSV);
+			RecipeImportResultDto result = service.importRecipes(new RecipeImportReader(request.getInputStream(), csv, objectMapper));
+			if (result.getAborted() != null) {
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(result);
+			}
+			return ResponseEntity.ok(result);
+		}catch(Exception e) {
+			e.printStackTrace();
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+	
 	
 }
@@ -0,0 +1,99 @@
+package com.moodrop.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.mybatis.spring.SqlSessionTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.moodrop.model.catalog.CatalogTestSupport;
+import com.moodrop.model.catalog.NoteInvertedIndex;
+import com.moodrop.model.dao.PerfumeDao;
+import com.moodrop.support.H2Database;
+import com.moodrop.support.MyBatisTestSupport;
+import com.moodrop.support.SyntheticCatalog;
+
+/**
+ * 모든 note를 담은 향수 검색: NoteInvertedIndex vs SQL(selectPerfumeByNotes, GROUP BY/HAVING)
+ * 향수 100k개, note 이름 400개의 임의 카탈로그를 H2(MySQL mode)에 넣고, note 1~15개 검색어를 돌아가며 조회한다.
+ * SQL 쪽은 같은 JVM의 H2라 network round trip이 빠져 있다. (실제 MySQL보다 유리한 조건)
+ *
+ * 실행: mvn -B test-compile 후 IDE에서 main() 또는
+ *   java -cp target/test-classes:target/classes:<test classpath> com.moodrop.bench.NoteSearchBenchmark
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class NoteSearchBenchmark {
+
+	private static final int PERFUMES = 100_000;
+	private static final int LIMIT = 100;
+	private static final int QUERIES = 64;
+
+	@Param({"1", "3", "5", "10", "15"})
+	public int noteCount;
+
+	private NoteInvertedIndex index;
+	private PerfumeDao dao;
+	private List<List<String>> queries;
+	private List<List<Integer>> queryNoteIds;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		DataSource dataSource = H2Database.create("catalog-schema.sql");
+		SyntheticCatalog catalog = SyntheticCatalog.populate(dataSource, PERFUMES, 400, 42L);
+		dao = new SqlSessionTemplate(MyBatisTestSupport.sessionFactory(dataSource, "PerfumeMapper.xml")).getMapper(PerfumeDao.class);
+		index = CatalogTestSupport.noteIndex(CatalogTestSupport.load(dataSource));
+
+		Random random = new Random(noteCount);
+		queries = new ArrayList<>();
+		queryNoteIds = new ArrayList<>();
+		for (int q = 0; q < QUERIES; q++) {
+			List<String> names = catalog.pickNames(random, noteCount);
+			List<Integer> ids = new ArrayList<>();
+			for (String name : names) {
+				ids.addAll(catalog.noteIds(name));
+			}
+			queries.add(names);
+			queryNoteIds.add(ids);
+		}
+	}
+
+	@Benchmark
+	public int[] index() {
+		int q = next++ & (QUERIES - 1);
+		return index.perfumesContainingAll(queries.get(q), Integer.MIN_VALUE, LIMIT);
+	}
+
+	@Benchmark
+	public List<Integer> sql() {
+		int q = next++ & (QUERIES - 1);
+		return dao.selectPerfumeByNotes(queryNoteIds.get(q), noteCount, null, LIMIT);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(NoteSearchBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,99 @@
+package com.moodrop.bench;
+
+import static org.mockito.Mockito.mock;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.moodrop.model.catalog.PerfumeCatalog;
+import com.moodrop.model.concurrent.PerfumeLookupExecutor;
+import com.moodrop.model.dao.PerfumeDao;
+import com.moodrop.model.dto.PerfumeWrapper;
+import com.moodrop.model.serviceImpl.PerfumeServiceImpl;
+import com.moodrop.support.MyBatisTestSupport;
+import com.moodrop.support.PerfumeDetailFixture;
+import com.moodrop.support.ScriptedDataSource;
+
+/**
+ * 향수 상세 조회: single(multi result set 한 번) vs parallel(테이블별 8번을 lookup pool에서 동시에)
+ * DB 대신 statement마다 latencyMicros 만큼 멈추는 ScriptedDataSource를 쓴다. (round trip 비용만 비교)
+ * 요청 Thread 8개가 하나의 lookup pool을 같이 쓰므로 parallel 쪽은 pool 포화(순차 대체)까지 포함된다.
+ * poolSize / perRequestLimit은 moodrop.perfume.lookup.pool-size / per-request-limit 설정값 후보이다. (single에는 영향 없음)
+ *
+ * 실행: mvn -B test-compile 후 IDE에서 main() 또는
+ *   java -cp target/test-classes:target/classes:<test classpath> com.moodrop.bench.PerfumeDetailBenchmark
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+public class PerfumeDetailBenchmark {
+
+	@Param({"single", "parallel"})
+	public String detailMode;
+
+	@Param({"200", "1000"})
+	public int latencyMicros;
+
+	@Param({"2", "4", "8", "16"})
+	public int poolSize;
+
+	@Param({"2", "4", "8"})
+	public int perRequestLimit;
+
+	private PerfumeLookupExecutor executor;
+	private PerfumeServiceImpl service;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		long latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+		ScriptedDataSource dataSource = new ScriptedDataSource(sql -> {
+			LockSupport.parkNanos(latencyNanos);
+			return PerfumeDetailFixture.forSql(sql, 7);
+		});
+		SqlSessionFactory factory = MyBatisTestSupport.sessionFactory(dataSource, "PerfumeMapper.xml");
+		PerfumeDao dao = new SqlSessionTemplate(factory).getMapper(PerfumeDao.class);
+		executor = new PerfumeLookupExecutor(poolSize, perRequestLimit);
+		service = new PerfumeServiceImpl(dao, executor, mock(PerfumeCatalog.class), null, null, null, null, null, null, null, null, null, null);
+		ReflectionTestUtils.setField(service, "detailMode", detailMode);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		executor.destroy();
+	}
+
+	@Benchmark
+	public PerfumeWrapper perfumeDetail() throws SQLException {
+		return service.getPerfumeWrapper(7);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PerfumeDetailBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,79 @@
+package com.moodrop.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.moodrop.model.catalog.CatalogTestSupport;
+import com.moodrop.model.catalog.PerfumeCatalogReloadedEvent;
+import com.moodrop.model.catalog.PerfumeSearchIndex;
+import com.moodrop.support.H2Database;
+import com.moodrop.support.SyntheticCatalog;
+
+/**
+ * 향수 이름/브랜드 검색 index: 향수 100k개 카탈로그에서 index를 새로 만드는 시간(build)과 검색어 하나의 검색 시간(search)
+ * 이름이 "perfumeN"이라 모든 향수가 같은 trigram을 여럿 공유한다. (trigram별 목록이 실제보다 길어 불리한 조건)
+ *
+ * 실행: mvn -B test-compile 후 IDE에서 main() 또는
+ *   java -cp target/test-classes:target/classes:<test classpath> com.moodrop.bench.PerfumeSearchBenchmark
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PerfumeSearchBenchmark {
+
+	private static final int PERFUMES = 100_000;
+	private static final int LIMIT = 20;
+
+	@Param({"perfume4242", "perfme4242", "maison"})
+	public String query;
+
+	private PerfumeCatalogReloadedEvent event;
+	private PerfumeSearchIndex index;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		DataSource dataSource = H2Database.create("catalog-schema.sql");
+		SyntheticCatalog.populate(dataSource, PERFUMES, 400, 42L);
+		event = new PerfumeCatalogReloadedEvent(CatalogTestSupport.load(dataSource));
+		index = new PerfumeSearchIndex();
+		ReflectionTestUtils.setField(index, "maxTypos", 2);
+		index.onCatalogReloaded(event);
+	}
+
+	@Benchmark
+	public PerfumeSearchIndex build() {
+		PerfumeSearchIndex rebuilt = new PerfumeSearchIndex();
+		rebuilt.onCatalogReloaded(event);
+		return rebuilt;
+	}
+
+	@Benchmark
+	public PerfumeSearchIndex.Hits search() {
+		return index.search(query, LIMIT);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PerfumeSearchBenchmark.class.getSimpleName()).build()).run();
+	}
+}
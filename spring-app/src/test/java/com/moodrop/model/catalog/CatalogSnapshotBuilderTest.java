@@ -0,0 +1,88 @@
+package com.moodrop.model.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.NestedExceptionUtils;
+
+import com.moodrop.model.dao.CatalogDao;
+import com.moodrop.support.MyBatisTestSupport;
+import com.moodrop.support.ScriptedDataSource;
+import com.moodrop.support.ScriptedDataSource.Table;
+
+class CatalogSnapshotBuilderTest {
+
+	// 배열이 몇 번 늘어나도록 초기 크기(1024)보다 많이
+	private static final int PERFUMES = 3000;
+
+	@Test
+	void buildsDenseIndexesFromOrderedRows() throws Exception {
+		ScriptedDataSource dataSource = new ScriptedDataSource(sql -> catalog(sql, false));
+		CatalogSnapshot snapshot = new CatalogSnapshotBuilder(dao(dataSource)).build();
+
+		assertEquals(PERFUMES, snapshot.perfumeCount());
+		for (int p = 0; p < PERFUMES; p++) {
+			assertEquals(p * 2 + 1, snapshot.perfumeId(p));
+			assertEquals("perfume" + p, snapshot.perfumeName(p));
+			assertEquals(p, snapshot.ratingCount(p));
+		}
+		assertEquals(2, snapshot.noteCount());
+		assertEquals("Rose", snapshot.noteName(snapshot.indexOfNote(20)));
+		assertEquals("장미", snapshot.noteKoreanName(snapshot.indexOfNote(20)));
+		assertEquals(1, snapshot.accordCount());
+
+		int first = snapshot.indexOfPerfume(1);
+		PerfumeRows notes = snapshot.notes();
+		assertEquals(2, notes.end(first) - notes.start(first));
+		assertEquals(1, snapshot.mainAccords().end(first) - snapshot.mainAccords().start(first));
+
+		// 엔티티 조회에는 ORDER BY id가 붙어 있어야 한다.
+		assertTrue(dataSource.executed().stream()
+				.filter(sql -> sql.contains("FROM notes") || sql.contains("FROM accords") || sql.contains("perfumes as p"))
+				.allMatch(sql -> sql.contains("ORDER BY")));
+	}
+
+	@Test
+	void rejectsRowsOutOfIdOrder() throws Exception {
+		ScriptedDataSource dataSource = new ScriptedDataSource(sql -> catalog(sql, true));
+		CatalogSnapshotBuilder builder = new CatalogSnapshotBuilder(dao(dataSource));
+
+		// MyBatis가 ResultHandler 예외를 감싸서 던진다.
+		RuntimeException e = assertThrows(RuntimeException.class, builder::build);
+		assertTrue(NestedExceptionUtils.getMostSpecificCause(e) instanceof IllegalStateException);
+	}
+
+	private static CatalogDao dao(ScriptedDataSource dataSource) throws Exception {
+		return new SqlSessionTemplate(MyBatisTestSupport.sessionFactory(dataSource, "CatalogMapper.xml"))
+				.getMapper(CatalogDao.class);
+	}
+
+	// CatalogMapper.xml 조회별 row. 향수 id는 1, 3, 5, ... (shuffled면 앞 두 개를 바꾼다.)
+	private static List<Table> catalog(String sql, boolean shuffled) {
+		if (sql.contains("FROM notes")) {
+			return List.of(Table.of("id", "name", "korean_name", "type").row(10, "Bergamot", "베르가못", "top").row(20, "Rose", "장미", "middle"));
+		}
+		if (sql.contains("FROM accords")) return List.of(Table.of("id", "name").row(5, "citrus"));
+		if (sql.contains("FROM perfume_notes")) return List.of(Table.of("perfume_id", "ref_id").row(1, 10).row(1, 20).row(3, 20));
+		if (sql.contains("FROM perfume_main_accords")) return List.of(Table.of("perfume_id", "ref_id", "value").row(1, 5, 100));
+		if (sql.contains("perfumes as p")) {
+			Object[][] rows = new Object[PERFUMES][];
+			for (int p = 0; p < PERFUMES; p++) {
+				rows[p] = new Object[] {p * 2 + 1, "perfume" + p, "brand", null, 1, "France", 2000, 4, p};
+			}
+			if (shuffled) {
+				Object[] first = rows[0];
+				rows[0] = rows[1];
+				rows[1] = first;
+			}
+			return List.of(new Table(new String[] {"id", "perfume_name", "brand_name", "description", "gender", "country",
+					"year", "rating_val", "rating_count"}, rows));
+		}
+		return List.of(Table.of("perfume_id", "label", "value"));
+	}
+}
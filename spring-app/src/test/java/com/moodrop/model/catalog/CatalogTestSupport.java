@@ -0,0 +1,39 @@
+package com.moodrop.model.catalog;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.mybatis.spring.SqlSessionTemplate;
+
+import com.moodrop.model.dao.CatalogDao;
+import com.moodrop.model.dao.PerfumeDao.AccordNoteRow;
+import com.moodrop.model.dao.PerfumeDao.MoodAccordRow;
+import com.moodrop.support.MyBatisTestSupport;
+
+/**
+ * 다른 package의 테스트/benchmark에서 CatalogMapper.xml로 snapshot과 파생 index를 만든다.
+ * (mood/accord/note 행렬만 필요한 테스트는 referenceData로 row 목록에서 바로 만든다.)
+ **/
+public final class CatalogTestSupport {
+
+	private CatalogTestSupport() {
+	}
+
+	public static CatalogSnapshot load(DataSource dataSource) throws Exception {
+		CatalogDao dao = new SqlSessionTemplate(MyBatisTestSupport.sessionFactory(dataSource, "CatalogMapper.xml"))
+				.getMapper(CatalogDao.class);
+		return new CatalogSnapshotBuilder(dao).build();
+	}
+
+	public static NoteInvertedIndex noteIndex(CatalogSnapshot snapshot) {
+		NoteInvertedIndex index = new NoteInvertedIndex();
+		index.onCatalogReloaded(new PerfumeCatalogReloadedEvent(snapshot));
+		return index;
+	}
+
+	public static ReferenceDataRegistry.ReferenceData referenceData(List<MoodAccordRow> moodAccords, List<AccordNoteRow> accordNotes) {
+		return new ReferenceDataRegistry.ReferenceData(null, null, null, moodAccords,
+				new MoodAccordMatrix(moodAccords, 16), new AccordNoteMatrix(accordNotes), null, null);
+	}
+}
@@ -0,0 +1,41 @@
+package com.moodrop.model.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * NoteBlendSolver.nnls가 풀 수 있는 문제는 그대로 풀고, 최소제곱 해가 음수인 문제에서는 0 이상인 해를 찾는지 확인한다.
+ **/
+class NoteBlendSolverTest {
+
+	private static final double EPSILON = 1e-6;
+
+	@Test
+	void exactlySolvableSystem() {
+		// A = [[1, 0, 1], [0, 1, 1], [1, 1, 0]] (열 단위), x = (0.2, 0.5, 0.3)
+		double[][] columns = {{1, 0, 1}, {0, 1, 1}, {1, 1, 0}};
+		double[] b = {0.5, 0.8, 0.7};
+
+		assertArrayEquals(new double[] {0.2, 0.5, 0.3}, NoteBlendSolver.nnls(columns, b), EPSILON);
+	}
+
+	@Test
+	void negativeLeastSquaresSolutionIsClamped() {
+		// 제약 없는 해는 (-1, 1). x1 = 0으로 두면 min (x2)^2 + (x2 - 1)^2 -> x2 = 0.5
+		double[][] columns = {{1, 0}, {1, 1}};
+		double[] b = {0, 1};
+
+		double[] x = NoteBlendSolver.nnls(columns, b);
+		for (double v : x) {
+			assertTrue(v >= 0, "negative proportion: " + v);
+		}
+		assertArrayEquals(new double[] {0, 0.5}, x, EPSILON);
+	}
+
+	@Test
+	void noColumnsGivesEmptySolution() {
+		assertArrayEquals(new double[0], NoteBlendSolver.nnls(new double[0][], new double[] {1, 2}));
+	}
+}
@@ -0,0 +1,78 @@
+package com.moodrop.model.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+
+import com.moodrop.model.dao.PerfumeDao;
+import com.moodrop.support.H2Database;
+import com.moodrop.support.MyBatisTestSupport;
+import com.moodrop.support.SyntheticCatalog;
+
+/**
+ * NoteInvertedIndex.perfumesContainingAll이 SQL 경로(selectPerfumeByNotes)와 같은 향수 id를 돌려주는지 확인한다.
+ **/
+class NoteInvertedIndexTest {
+
+	private static final int LIMIT = 100;
+
+	private static SyntheticCatalog catalog;
+	private static PerfumeDao dao;
+	private static NoteInvertedIndex index;
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		DataSource dataSource = H2Database.create("catalog-schema.sql");
+		catalog = SyntheticCatalog.populate(dataSource, 3000, 80, 42L);
+		dao = new SqlSessionTemplate(MyBatisTestSupport.sessionFactory(dataSource, "PerfumeMapper.xml")).getMapper(PerfumeDao.class);
+		index = CatalogTestSupport.noteIndex(CatalogTestSupport.load(dataSource));
+	}
+
+	@Test
+	void matchesSqlForRandomQueries() {
+		Random random = new Random(7);
+		int nonEmpty = 0;
+		for (int q = 0; q < 150; q++) {
+			List<String> names = catalog.pickNames(random, 1 + random.nextInt(15));
+			Integer after = random.nextInt(4) == 0 ? random.nextInt(9000) : null;
+
+			int[] expected = sql(names, after);
+			int[] actual = index.perfumesContainingAll(names, after == null ? Integer.MIN_VALUE : after, LIMIT);
+			assertArrayEquals(expected, actual, () -> "notes=" + names + ", after=" + after);
+			if (expected.length > 0) nonEmpty++;
+		}
+		// 교집합이 있는 경우도 충분히 비교했는지
+		assertTrue(nonEmpty > 30, "non-empty queries: " + nonEmpty);
+	}
+
+	@Test
+	void koreanNamesMatchEnglishNames() {
+		List<String> english = List.of(catalog.noteNames().get(0), catalog.noteNames().get(1));
+		List<String> korean = List.of(catalog.koreanNames().get(0), catalog.koreanNames().get(1));
+
+		assertArrayEquals(sql(english, null), index.perfumesContainingAll(korean, Integer.MIN_VALUE, LIMIT));
+	}
+
+	@Test
+	void unknownNoteMatchesNothing() {
+		assertEquals(0, index.perfumesContainingAll(List.of(catalog.noteNames().get(0), "nope"), Integer.MIN_VALUE, LIMIT).length);
+	}
+
+	private static int[] sql(List<String> names, Integer after) {
+		List<Integer> noteIds = new ArrayList<>();
+		for (String name : names) {
+			noteIds.addAll(catalog.noteIds(name));
+		}
+		return dao.selectPerfumeByNotes(noteIds, names.size(), after, LIMIT).stream().mapToInt(Integer::intValue).toArray();
+	}
+}
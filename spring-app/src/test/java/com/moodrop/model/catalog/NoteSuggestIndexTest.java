@@ -0,0 +1,68 @@
+package com.moodrop.model.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.moodrop.model.dto.NoteSuggestionDto;
+import com.moodrop.support.H2Database;
+import com.moodrop.support.SyntheticCatalog;
+
+/**
+ * type별 row가 여러 개인 note 이름이 한 번만 나오고, 나온 횟수가 이름 단위로 더해지는지 확인한다.
+ **/
+class NoteSuggestIndexTest {
+
+	private static SyntheticCatalog catalog;
+	private static NoteSuggestIndex index;
+	private static Map<String, Integer> popularityByName;
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		DataSource dataSource = H2Database.create("catalog-schema.sql");
+		catalog = SyntheticCatalog.populate(dataSource, 2000, 80, 42L);
+		index = new NoteSuggestIndex();
+		index.onCatalogReloaded(new PerfumeCatalogReloadedEvent(CatalogTestSupport.load(dataSource)));
+
+		popularityByName = new HashMap<>();
+		new JdbcTemplate(dataSource).query("SELECT n.name, COUNT(*) FROM determined_notes d JOIN notes n ON n.id = d.note_id GROUP BY n.name",
+				rs -> {
+					popularityByName.put(rs.getString(1), rs.getInt(2));
+				});
+	}
+
+	@Test
+	void oneSuggestionPerName() {
+		List<NoteSuggestionDto> result = index.suggest("note1", 100);
+
+		List<String> names = result.stream().map(NoteSuggestionDto::getName).collect(Collectors.toList());
+		TreeSet<String> expected = catalog.noteNames().stream().filter(n -> n.startsWith("note1")).collect(Collectors.toCollection(TreeSet::new));
+		assertEquals(expected, new TreeSet<>(names));
+		assertEquals(expected.size(), names.size(), () -> "duplicated names: " + names);
+		// 여러 row로 나뉜 이름도 있어야 의미가 있다.
+		assertTrue(expected.stream().anyMatch(n -> catalog.noteIds(n).size() > 1));
+	}
+
+	@Test
+	void popularityIsSummedOverTypes() {
+		List<NoteSuggestionDto> result = index.suggest("노트", 200);
+
+		assertEquals(catalog.noteNames().size(), result.size());
+		for (int i = 0; i < result.size(); i++) {
+			NoteSuggestionDto suggestion = result.get(i);
+			assertEquals(popularityByName.getOrDefault(suggestion.getName(), 0), suggestion.getPopularity(), suggestion::getName);
+			assertTrue(i == 0 || result.get(i - 1).getPopularity() >= suggestion.getPopularity());
+		}
+	}
+}
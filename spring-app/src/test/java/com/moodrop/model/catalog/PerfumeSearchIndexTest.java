@@ -0,0 +1,124 @@
+package com.moodrop.model.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.moodrop.support.H2Database;
+import com.moodrop.support.SyntheticCatalog;
+
+/**
+ * SyntheticCatalog("perfumeN" / Maison) 사이에 실제 이름 같은 향수 몇 개를 섞어 두고 오타, 짧은 검색어, 브랜드, 기호, 한글 검색을 확인한다.
+ **/
+class PerfumeSearchIndexTest {
+
+	private static final int LIMIT = 10;
+
+	private static PerfumeSearchIndex index;
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		DataSource dataSource = H2Database.create("catalog-schema.sql");
+		SyntheticCatalog.populate(dataSource, 3000, 40, 42L);
+
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		String[] brands = {"Chanel", "Guerlain", "Dior", "탬버린즈"};
+		for (int b = 0; b < brands.length; b++) {
+			jdbc.update("INSERT INTO brand_info (id, name) VALUES (?, ?)", 10 + b, brands[b]);
+		}
+		perfume(jdbc, 100_001, "N°5", 10);
+		perfume(jdbc, 100_002, "Coco Mademoiselle", 10);
+		perfume(jdbc, 100_003, "Shalimar", 11);
+		perfume(jdbc, 100_004, "Mitsouko", 11);
+		perfume(jdbc, 100_005, "Sauvage", 12);
+		perfume(jdbc, 100_006, "카모", 13);
+
+		index = new PerfumeSearchIndex();
+		ReflectionTestUtils.setField(index, "maxTypos", 2);
+		index.onCatalogReloaded(new PerfumeCatalogReloadedEvent(CatalogTestSupport.load(dataSource)));
+	}
+
+	private static void perfume(JdbcTemplate jdbc, int id, String name, int brandId) {
+		jdbc.update("INSERT INTO rating_info (id, rating_val, rating_count) VALUES (?, 4, 10)", id);
+		jdbc.update("INSERT INTO perfumes (id, name, brand_id, rating_id, country_id, year) VALUES (?, ?, ?, ?, 1, 2000)",
+				id, name, brandId, id);
+	}
+
+	@Test
+	void exactName() {
+		assertEquals(100_003, top("Shalimar"));
+	}
+
+	@Test
+	void oneTypo() {
+		assertEquals(100_003, top("Shalimr"));
+		assertEquals(100_004, top("Mitsuoko"));
+	}
+
+	@Test
+	void twoTypos() {
+		assertEquals(100_003, top("Shlimr"));
+		assertEquals(100_005, top("Savuge"));
+	}
+
+	@Test
+	void shortQueryAllowsOneTypo() {
+		// 5글자보다 짧으면 오타 하나까지만 본다. (Dior -> Dir)
+		assertEquals(100_005, top("Dir"));
+		assertEquals(List.of(), ids("Qxzw"));
+	}
+
+	@Test
+	void brandOnlyMatchesEveryPerfumeOfTheBrand() {
+		assertEquals(List.of(100_003, 100_004), sorted(ids("Guerlain")));
+		assertEquals(List.of(100_001, 100_002), sorted(ids("chanel")));
+	}
+
+	@Test
+	void symbolsAreNormalized() {
+		assertEquals(100_001, top("N°5"));
+		assertEquals(100_001, top("n 5"));
+		assertEquals(100_001, top("Chanel N.5"));
+	}
+
+	@Test
+	void hangulQuery() {
+		assertEquals(100_006, top("카모"));
+		assertEquals(100_006, top("탬버린즈"));
+		// 자모 하나가 틀려도 찾는다. (즈 -> 스)
+		assertEquals(100_006, top("탬버린스"));
+	}
+
+	@Test
+	void emptyQueryHasNoHits() {
+		assertEquals(List.of(), ids(" °. "));
+	}
+
+	private static int top(String query) {
+		List<Integer> ids = ids(query);
+		assertFalse(ids.isEmpty(), "no hits for " + query);
+		return ids.get(0);
+	}
+
+	private static List<Integer> ids(String query) {
+		PerfumeSearchIndex.Hits hits = index.search(query, LIMIT);
+		List<Integer> ids = new ArrayList<>();
+		for (int p : hits.perfumeIndexes()) {
+			ids.add(hits.snapshot().perfumeId(p));
+		}
+		return ids;
+	}
+
+	private static List<Integer> sorted(List<Integer> ids) {
+		return ids.stream().sorted().toList();
+	}
+}
@@ -0,0 +1,105 @@
+package com.moodrop.model.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.moodrop.support.H2Database;
+import com.moodrop.support.SyntheticCatalog;
+
+/**
+ * accord-share 양 끝(1이면 note, 0이면 accord 특징의 값이 0)에서도 이웃 계산이 끝나고,
+ * 유사도 0인 향수가 이웃으로 들어가지 않는지 확인한다.
+ **/
+class SimilarPerfumeIndexTest {
+
+	private static final int TOP_N = 20;
+	private static final int ACCORDS = 12;
+
+	private static CatalogSnapshot snapshot;
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		DataSource dataSource = H2Database.create("catalog-schema.sql");
+		SyntheticCatalog.populate(dataSource, 400, 30, 42L);
+
+		// 향수마다 main accord 1~4개 (weight 0도 섞는다.)
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		for (int a = 1; a <= ACCORDS; a++) {
+			jdbc.update("INSERT INTO accords (id, name) VALUES (?, ?)", a, "accord" + a);
+		}
+		Random random = new Random(3);
+		List<Object[]> rows = new ArrayList<>();
+		for (int id : jdbc.queryForList("SELECT id FROM perfumes", Integer.class)) {
+			int count = 1 + random.nextInt(4);
+			for (int i = 0; i < count; i++) {
+				rows.add(new Object[] {id, 1 + random.nextInt(ACCORDS), random.nextInt(5) == 0 ? 0 : 1 + random.nextInt(100)});
+			}
+		}
+		jdbc.batchUpdate("INSERT INTO perfume_main_accords (perfume_id, accord_id, weight) VALUES (?, ?, ?)", rows);
+		snapshot = CatalogTestSupport.load(dataSource);
+	}
+
+	@Test
+	void accordsOnly() {
+		SimilarPerfumeIndex.Index index = SimilarPerfumeIndex.build(snapshot, TOP_N, 1f);
+
+		assertNeighbors(index, (p, q) -> shares(snapshot.mainAccords(), p, q, true));
+	}
+
+	@Test
+	void notesOnly() {
+		SimilarPerfumeIndex.Index index = SimilarPerfumeIndex.build(snapshot, TOP_N, 0f);
+
+		assertNeighbors(index, (p, q) -> shares(snapshot.notes(), p, q, false));
+	}
+
+	@Test
+	void mixed() {
+		SimilarPerfumeIndex.Index index = SimilarPerfumeIndex.build(snapshot, TOP_N, 0.6f);
+
+		assertNeighbors(index, (p, q) -> shares(snapshot.mainAccords(), p, q, true) || shares(snapshot.notes(), p, q, false));
+	}
+
+	private interface Overlap {
+		boolean test(int p, int q);
+	}
+
+	// 이웃은 모두 유사도 > 0, 내림차순이고 실제로 특징을 공유한다. 이웃이 있는 향수도 충분히 있어야 한다.
+	private static void assertNeighbors(SimilarPerfumeIndex.Index index, Overlap overlap) {
+		int withNeighbors = 0;
+		for (int p = 0; p < snapshot.perfumeCount(); p++) {
+			int from = index.offsets()[p];
+			int to = index.offsets()[p + 1];
+			assertTrue(to - from <= TOP_N);
+			for (int r = from; r < to; r++) {
+				int q = index.neighbors()[r];
+				int perfume = p;
+				assertTrue(index.scores()[r] > 0, () -> "zero similarity: " + perfume + " -> " + q);
+				assertTrue(r == from || index.scores()[r - 1] >= index.scores()[r]);
+				assertTrue(q != p && overlap.test(p, q), () -> "no shared feature: " + perfume + " -> " + q);
+			}
+			if (to > from) withNeighbors++;
+		}
+		assertTrue(withNeighbors > snapshot.perfumeCount() / 2, "perfumes with neighbors: " + withNeighbors);
+	}
+
+	private static boolean shares(PerfumeRows rows, int p, int q, boolean positiveOnly) {
+		for (int a = rows.start(p); a < rows.end(p); a++) {
+			if (positiveOnly && rows.value(a) <= 0) continue;
+			for (int b = rows.start(q); b < rows.end(q); b++) {
+				if (positiveOnly && rows.value(b) <= 0) continue;
+				if (rows.label(a) == rows.label(b)) return true;
+			}
+		}
+		return false;
+	}
+}
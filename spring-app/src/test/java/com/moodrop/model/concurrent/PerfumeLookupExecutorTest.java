@@ -0,0 +1,56 @@
+package com.moodrop.model.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.moodrop.support.LookupPoolSupport;
+
+class PerfumeLookupExecutorTest {
+
+	private final PerfumeLookupExecutor executor = new PerfumeLookupExecutor(2, 2);
+
+	@AfterEach
+	void tearDown() {
+		executor.destroy();
+	}
+
+	@Test
+	void runsEveryLookup() throws Exception {
+		PerfumeLookupExecutor.FanOut fanOut = executor.newFanOut();
+		Future<Integer> first = fanOut.add(() -> 1);
+		Future<Integer> second = fanOut.add(() -> 2);
+		Future<Integer> third = fanOut.add(() -> 3);
+		fanOut.await();
+		assertEquals(6, first.get() + second.get() + third.get());
+	}
+
+	@Test
+	void rejectsInsteadOfRunningOnCallerWhenFull() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger ranOnCaller = new AtomicInteger();
+		Thread caller = Thread.currentThread();
+		try {
+			LookupPoolSupport.saturate(executor, release);
+			PerfumeLookupExecutor.FanOut fanOut = executor.newFanOut();
+			Future<Integer> lookup = fanOut.add(() -> {
+				if (Thread.currentThread() == caller) ranOnCaller.incrementAndGet();
+				return 1;
+			});
+
+			assertThrows(RejectedExecutionException.class, fanOut::await);
+			assertTrue(lookup.isCancelled());
+			assertEquals(0, ranOnCaller.get());
+		} finally {
+			release.countDown();
+		}
+	}
+}
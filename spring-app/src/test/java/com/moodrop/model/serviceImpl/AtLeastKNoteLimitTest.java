@@ -0,0 +1,67 @@
+package com.moodrop.model.serviceImpl;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.moodrop.model.catalog.NameDictionary;
+import com.moodrop.model.catalog.NoteInvertedIndex;
+
+class AtLeastKNoteLimitTest {
+
+	private NoteInvertedIndex noteIndex;
+	private PerfumeServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		noteIndex = mock(NoteInvertedIndex.class);
+		NameDictionary dictionary = mock(NameDictionary.class);
+		// "note{i}" -> id i, 그 외 이름은 모른다.
+		when(dictionary.noteIds(anyString())).thenAnswer(invocation -> {
+			String name = invocation.getArgument(0);
+			return name.startsWith("note") ? new int[] {Integer.parseInt(name.substring(4))} : new int[0];
+		});
+		service = new PerfumeServiceImpl(null, null, null, null, noteIndex, null, dictionary, null, null, null, null, null, null);
+	}
+
+	private static List<String> notes(int count) {
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < count; i++) names.add("note" + i);
+		return names;
+	}
+
+	@Test
+	void sqlPathRejectsMoreNotesThanTheMaskHolds() {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.checkAtLeastKNotes(notes(64)));
+		assertEquals("Too many notes: 64 (max 63)", e.getMessage());
+		assertDoesNotThrow(() -> service.checkAtLeastKNotes(notes(63)));
+	}
+
+	@Test
+	void unknownAndDuplicateNamesDoNotCount() {
+		List<String> names = notes(63);
+		names.add("note0");
+		names.add("unknown");
+		assertDoesNotThrow(() -> service.checkAtLeastKNotes(names));
+	}
+
+	@Test
+	void indexPathHasNoLimit() {
+		when(noteIndex.isReady()).thenReturn(true);
+		assertDoesNotThrow(() -> service.checkAtLeastKNotes(notes(200)));
+	}
+
+	@Test
+	void decodesMaskInQueryOrder() {
+		assertEquals(List.of("a", "c", "d"), PerfumeServiceImpl.matchedNotes(0b1101L, List.of("a", "b", "c", "d")));
+	}
+}
@@ -0,0 +1,134 @@
+package com.moodrop.model.serviceImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.moodrop.model.catalog.CatalogTestSupport;
+import com.moodrop.model.catalog.ReferenceDataRegistry;
+import com.moodrop.model.dao.PerfumeDao;
+import com.moodrop.model.dao.PerfumeDao.AccordNoteRow;
+import com.moodrop.model.dao.PerfumeDao.MoodAccordRow;
+import com.moodrop.model.dto.NoteScoreDto;
+import com.moodrop.model.dto.NotesDto;
+import com.moodrop.model.dto.PerfumeResponseDto;
+
+/**
+ * composeBlend: 보유 note 비율(NNLS)과 unit 단위 반올림, 반올림한 조합의 fitError를 확인한다.
+ * note 10 -> accord 1, note 20 -> accord 2, note 30 -> accord 1/2 반반, note 40 -> accord 3
+ **/
+class ComposeBlendTest {
+
+	private static final String USER = "user";
+	private static final double EPSILON = 1e-6;
+
+	private PerfumeDao dao;
+	private PerfumeServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		List<MoodAccordRow> moodAccords = List.of(
+				moodAccord(1, 1, 3), moodAccord(1, 2, 1),
+				moodAccord(2, 1, 1), moodAccord(2, 2, 1), moodAccord(2, 3, 1),
+				moodAccord(3, 2, 1));
+		List<AccordNoteRow> accordNotes = List.of(
+				accordNote(1, 10, 1), accordNote(2, 20, 1),
+				accordNote(1, 30, 1), accordNote(2, 30, 1),
+				accordNote(3, 40, 1));
+		ReferenceDataRegistry referenceData = mock(ReferenceDataRegistry.class);
+		when(referenceData.get()).thenReturn(CatalogTestSupport.referenceData(moodAccords, accordNotes));
+		dao = mock(PerfumeDao.class);
+		service = new PerfumeServiceImpl(dao, null, null, referenceData, null, null, null, null, null, null, null, null, null);
+	}
+
+	@Test
+	void exactlySolvableTarget() {
+		owns(10, 20);
+
+		PerfumeResponseDto blend = service.composeBlend(USER, List.of(1), 5, 100);
+
+		assertEquals(Map.of("note10", 75, "note20", 25), blend.getRatios());
+		assertEquals(0.75, blend.getSelectedNotes()[0].getScore(), EPSILON);
+		assertEquals(0.25, blend.getSelectedNotes()[1].getScore(), EPSILON);
+		assertEquals(0, blend.getFitError(), EPSILON);
+	}
+
+	@Test
+	void negativeLeastSquaresWeightStaysZero() {
+		// accord 2만 원하면 제약 없는 해는 note30 2배, note10 -1배다.
+		owns(10, 30);
+
+		PerfumeResponseDto blend = service.composeBlend(USER, List.of(3), 10, 100);
+
+		for (NoteScoreDto note : blend.getSelectedNotes()) {
+			assertTrue(note.getScore() >= 0, note.getName() + ": " + note.getScore());
+		}
+		assertEquals(Map.of("note30", 100), blend.getRatios());
+	}
+
+	@Test
+	void roundedRatiosSumToTotalInUnitSteps() {
+		// 세 note가 1/3씩이라 나누어 떨어지지 않는다.
+		owns(10, 20, 40);
+
+		for (int[] unitTotal : new int[][] {{10, 100}, {7, 98}, {1, 100}, {25, 50}}) {
+			int unit = unitTotal[0];
+			int total = unitTotal[1];
+			PerfumeResponseDto blend = service.composeBlend(USER, List.of(2), unit, total);
+
+			int sum = 0;
+			for (int amount : blend.getRatios().values()) {
+				assertEquals(0, amount % unit, () -> "unit=" + unit + ", ratios=" + blend.getRatios());
+				sum += amount;
+			}
+			assertEquals(total, sum, () -> "unit=" + unit + ", ratios=" + blend.getRatios());
+		}
+	}
+
+	@Test
+	void infeasibleTargetReportsFitError() {
+		// accord 1만 가진 note로 accord 1:2 = 3:1을 맞출 수 없다. 거리 = sqrt(0.25^2 + 0.25^2)
+		owns(10);
+
+		PerfumeResponseDto blend = service.composeBlend(USER, List.of(1), 10, 100);
+
+		assertEquals(Map.of("note10", 100), blend.getRatios());
+		assertEquals(Math.sqrt(0.125), blend.getFitError(), EPSILON);
+	}
+
+	private void owns(int... noteIds) {
+		List<NotesDto> notes = new ArrayList<>();
+		for (int noteId : noteIds) {
+			NotesDto note = new NotesDto();
+			note.setNoteId(noteId);
+			note.setName("note" + noteId);
+			notes.add(note);
+		}
+		when(dao.selectUserNotes(USER)).thenReturn(notes);
+	}
+
+	private static MoodAccordRow moodAccord(int moodId, int accordId, float weight) {
+		MoodAccordRow row = new MoodAccordRow();
+		row.moodId = moodId;
+		row.accordId = accordId;
+		row.accord = "accord" + accordId;
+		row.weight = weight;
+		return row;
+	}
+
+	private static AccordNoteRow accordNote(long accordId, long noteId, double weight) {
+		AccordNoteRow row = new AccordNoteRow();
+		row.accordId = accordId;
+		row.noteId = noteId;
+		row.weight = weight;
+		return row;
+	}
+}
@@ -0,0 +1,98 @@
+package com.moodrop.model.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * at-least-K SQL 경로에서 한 페이지(RESTRICT_COUNT = 100 row)의 맞은 note 이름을 되살리는 비용.
+ * json: 이전 방식. row마다 JSON_ARRAYAGG(n.name) 문자열을 받아 Jackson으로 List<String>을 만든다.
+ * mask: 지금 방식. row마다 BIGINT 하나를 받아 PerfumeServiceImpl.matchedNotes로 bit 위치를 이름으로 바꾼다.
+ * H2가 MySQL의 BIT_OR/BIT_COUNT/<< 를 지원하지 않아 SQL 실행은 빼고 application 쪽 비용만 잰다.
+ * (row당 전송량은 json이 이름 길이 합 + 따옴표/쉼표, mask가 8 byte)
+ *
+ * 실행: mvn -B test-compile 후 IDE에서 main() 또는
+ *   java -cp target/test-classes:target/classes:<test classpath> com.moodrop.model.serviceImpl.MatchedNotesDecodeBenchmark
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class MatchedNotesDecodeBenchmark {
+
+	private static final int ROWS = 100;
+	private static final TypeReference<List<String>> NAMES = new TypeReference<>() {
+	};
+
+	// 검색 note 수
+	@Param({"5", "15", "40"})
+	public int queryNotes;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private List<String> positions;
+	private String[] json;
+	private long[] masks;
+
+	@Setup(Level.Trial)
+	public void setUp() throws JsonProcessingException {
+		Random random = new Random(queryNotes);
+		positions = new ArrayList<>();
+		for (int i = 0; i < queryNotes; i++) {
+			positions.add("Note Name " + i);
+		}
+		json = new String[ROWS];
+		masks = new long[ROWS];
+		for (int r = 0; r < ROWS; r++) {
+			// MIN_COUNT(3)개 이상 맞은 row
+			long mask = 0;
+			while (Long.bitCount(mask) < 3) {
+				mask |= 1L << random.nextInt(queryNotes);
+				if (random.nextBoolean()) mask |= 1L << random.nextInt(queryNotes);
+			}
+			masks[r] = mask;
+			json[r] = objectMapper.writeValueAsString(PerfumeServiceImpl.matchedNotes(mask, positions));
+		}
+	}
+
+	@Benchmark
+	public void json(Blackhole blackhole) throws JsonProcessingException {
+		for (String row : json) {
+			blackhole.consume(objectMapper.readValue(row, NAMES));
+		}
+	}
+
+	@Benchmark
+	public void mask(Blackhole blackhole) {
+		for (long row : masks) {
+			blackhole.consume(PerfumeServiceImpl.matchedNotes(row, positions));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(MatchedNotesDecodeBenchmark.class.getSimpleName()).build()).run();
+	}
+}
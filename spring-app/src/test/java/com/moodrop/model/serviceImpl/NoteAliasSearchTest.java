@@ -0,0 +1,95 @@
+package com.moodrop.model.serviceImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+
+import com.moodrop.model.catalog.CatalogSnapshot;
+import com.moodrop.model.catalog.CatalogTestSupport;
+import com.moodrop.model.catalog.NameDictionary;
+import com.moodrop.model.catalog.NoteInvertedIndex;
+import com.moodrop.model.catalog.NoteThresholdMatcher;
+import com.moodrop.model.catalog.PerfumeCatalogReloadedEvent;
+import com.moodrop.model.dao.PerfumeDao;
+import com.moodrop.support.H2Database;
+import com.moodrop.support.MyBatisTestSupport;
+import com.moodrop.support.SyntheticCatalog;
+
+/**
+ * 같은 note의 영문/한글 이름("note0", "노트0")을 같이 검색해도 note 하나로 세는지 확인한다.
+ * 모두 담은 향수 검색은 index 경로와 SQL 경로(카탈로그가 아직 없을 때)의 결과가 같아야 한다.
+ **/
+class NoteAliasSearchTest {
+
+	private static final int LIMIT = 100;
+	private static final int MIN_COUNT = 3;
+
+	private static SyntheticCatalog catalog;
+	private static PerfumeServiceImpl indexed;
+	private static PerfumeServiceImpl sql;
+	private static NoteThresholdMatcher matcher;
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		DataSource dataSource = H2Database.create("catalog-schema.sql");
+		catalog = SyntheticCatalog.populate(dataSource, 3000, 80, 42L);
+		PerfumeDao dao = new SqlSessionTemplate(MyBatisTestSupport.sessionFactory(dataSource, "PerfumeMapper.xml")).getMapper(PerfumeDao.class);
+		CatalogSnapshot snapshot = CatalogTestSupport.load(dataSource);
+		NameDictionary dictionary = new NameDictionary(null);
+		dictionary.onCatalogReloaded(new PerfumeCatalogReloadedEvent(snapshot));
+
+		NoteInvertedIndex noteIndex = CatalogTestSupport.noteIndex(snapshot);
+		matcher = new NoteThresholdMatcher(noteIndex);
+		indexed = new PerfumeServiceImpl(dao, null, null, null, noteIndex, matcher, dictionary, null, null, null, null, null, null);
+		// index가 비어 있으면 SQL(selectPerfumeByNotes)로 찾는다.
+		sql = new PerfumeServiceImpl(dao, null, null, null, new NoteInvertedIndex(), null, dictionary, null, null, null, null, null, null);
+	}
+
+	@Test
+	void aliasPairContainsAllMatchesSingleName() throws Exception {
+		String english = catalog.noteNames().get(0);
+		String korean = catalog.koreanNames().get(0);
+		List<Integer> expected = sql.findPerfumesContainingAll(new LinkedHashSet<>(List.of(english)), null, LIMIT);
+		assertFalse(expected.isEmpty());
+
+		for (List<String> names : List.of(List.of(english, korean), List.of(korean, english))) {
+			LinkedHashSet<String> notes = new LinkedHashSet<>(names);
+			assertEquals(expected, sql.findPerfumesContainingAll(notes, null, LIMIT), () -> "sql " + names);
+			assertEquals(expected, indexed.findPerfumesContainingAll(notes, null, LIMIT), () -> "index " + names);
+		}
+	}
+
+	@Test
+	void aliasPairWithOtherNoteMatchesSql() throws Exception {
+		LinkedHashSet<String> notes = new LinkedHashSet<>(List.of(
+				catalog.noteNames().get(0), catalog.koreanNames().get(0), catalog.koreanNames().get(1)));
+		List<Integer> expected = sql.findPerfumesContainingAll(notes, null, LIMIT);
+
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, indexed.findPerfumesContainingAll(notes, null, LIMIT));
+	}
+
+	@Test
+	void aliasPairCountsOnceForAtLeastK() {
+		// note 둘의 영문/한글 이름 4개는 MIN_COUNT(3)개를 채우지 못한다.
+		List<String> twoNotes = List.of(catalog.noteNames().get(0), catalog.koreanNames().get(0),
+				catalog.noteNames().get(1), catalog.koreanNames().get(1));
+		assertTrue(matcher.match(twoNotes, MIN_COUNT, null, LIMIT).isEmpty());
+
+		// 한글 별명이 섞여도 먼저 나온 이름 하나로 세고 보고한다.
+		List<String> names = List.of(catalog.noteNames().get(0), catalog.noteNames().get(1), catalog.noteNames().get(2));
+		List<String> withAlias = List.of(names.get(0), catalog.koreanNames().get(0), names.get(1), names.get(2));
+		List<NoteThresholdMatcher.Hit> expected = matcher.match(names, MIN_COUNT, null, LIMIT);
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, matcher.match(withAlias, MIN_COUNT, null, LIMIT));
+	}
+}
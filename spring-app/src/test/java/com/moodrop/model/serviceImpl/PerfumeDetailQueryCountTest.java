@@ -0,0 +1,118 @@
+package com.moodrop.model.serviceImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.moodrop.model.catalog.PerfumeCatalog;
+import com.moodrop.model.concurrent.PerfumeLookupExecutor;
+import com.moodrop.model.dao.PerfumeDao;
+import com.moodrop.model.dto.PerfumeWrapper;
+import com.moodrop.support.LookupPoolSupport;
+import com.moodrop.support.MyBatisTestSupport;
+import com.moodrop.support.PerfumeDetailFixture;
+import com.moodrop.support.ScriptedDataSource;
+import com.moodrop.support.ScriptedDataSource.Table;
+
+/**
+ * 카탈로그 snapshot이 없을 때 향수 상세 조회는 요청 당 query(round trip) 한 번이어야 한다.
+ **/
+class PerfumeDetailQueryCountTest {
+
+	private ScriptedDataSource dataSource;
+	private PerfumeServiceImpl service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		dataSource = new ScriptedDataSource(sql -> PerfumeDetailFixture.all(7));
+		service = serviceOver(dataSource);
+	}
+
+	@Test
+	void oneQueryPerRequest() throws SQLException {
+		for (int request = 1; request <= 3; request++) {
+			PerfumeWrapper wrapper = service.getPerfumeWrapper(7);
+			assertEquals(request, dataSource.executed().size());
+			assertEquals(7, wrapper.getPerfumeBasic().getId());
+		}
+	}
+
+	@Test
+	void assemblesEveryResultSet() throws SQLException {
+		PerfumeWrapper wrapper = service.getPerfumeWrapper(7);
+
+		assertEquals("Sauvage", wrapper.getPerfumeBasic().getPerfumeName());
+		assertEquals("Dior", wrapper.getPerfumeBasic().getBrandName());
+		assertEquals(List.of("good", "strong"), wrapper.getPerfumeBasic().getComments());
+		assertEquals(Map.of("day", 70, "night", 30), wrapper.getDayNightInfo());
+		assertEquals(Map.of("long", 12), wrapper.getLongevityInfo());
+		assertEquals(Map.of("summer", 80), wrapper.getSeasonInfo());
+		assertEquals(Map.of("strong", 9), wrapper.getSillageInfo());
+		assertEquals(2, wrapper.getMainAccord().size());
+		assertEquals("citrus", wrapper.getMainAccord().get(0).getName());
+		assertEquals(Map.of("top", List.of("Bergamot", "Pepper"), "base", List.of("Ambroxan")), wrapper.getNotes());
+		assertEquals(1, dataSource.executed().size());
+	}
+
+	@Test
+	void missingPerfumeIsOneQuery() throws Exception {
+		ScriptedDataSource empty = new ScriptedDataSource(sql -> List.of(Table.of("id"), Table.of("comment"),
+				Table.of("day_night"), Table.of("length"), Table.of("season"), Table.of("strength"), Table.of("name"), Table.of("type")));
+		PerfumeServiceImpl missing = serviceOver(empty);
+
+		assertThrows(NoSuchElementException.class, () -> missing.getPerfumeWrapper(404));
+		assertEquals(1, empty.executed().size());
+	}
+
+	@Test
+	void parallelModeFallsBackToOneQueryWhenPoolIsFull() throws Exception {
+		ScriptedDataSource parallel = new ScriptedDataSource(sql -> PerfumeDetailFixture.forSql(sql, 7));
+		PerfumeLookupExecutor executor = new PerfumeLookupExecutor(1, 4);
+		PerfumeServiceImpl service = serviceOver(parallel, executor, "parallel");
+
+		// pool이 비어 있으면 테이블별 조회 8번
+		assertEquals("Sauvage", service.getPerfumeWrapper(7).getPerfumeBasic().getPerfumeName());
+		assertEquals(8, parallel.executed().size());
+
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			LookupPoolSupport.saturate(executor, release);
+			// 가득 차면 요청 Thread에서 한 번의 round trip
+			PerfumeWrapper wrapper = service.getPerfumeWrapper(7);
+			assertEquals(List.of("good", "strong"), wrapper.getPerfumeBasic().getComments());
+			assertEquals(9, parallel.executed().size());
+		} finally {
+			release.countDown();
+			executor.destroy();
+		}
+	}
+
+	// 카탈로그 snapshot 없음(null). 상세 조회에 쓰지 않는 의존성은 null
+	private static PerfumeServiceImpl serviceOver(ScriptedDataSource dataSource) throws Exception {
+		return serviceOver(dataSource, null, "single");
+	}
+
+	private static PerfumeServiceImpl serviceOver(ScriptedDataSource dataSource, PerfumeLookupExecutor executor,
+			String detailMode) throws Exception {
+		SqlSessionFactory factory = MyBatisTestSupport.sessionFactory(dataSource, "PerfumeMapper.xml");
+		PerfumeDao dao = new SqlSessionTemplate(factory).getMapper(PerfumeDao.class);
+		PerfumeCatalog catalog = mock(PerfumeCatalog.class);
+		when(catalog.snapshot()).thenReturn(null);
+		PerfumeServiceImpl service = new PerfumeServiceImpl(dao, executor, catalog, null, null, null, null, null, null, null, null, null, null);
+		ReflectionTestUtils.setField(service, "detailMode", detailMode);
+		return service;
+	}
+}
@@ -0,0 +1,100 @@
+package com.moodrop.model.serviceImpl;
+
+import static com.moodrop.model.serviceImpl.RecipeTestDatabase.note;
+import static com.moodrop.model.serviceImpl.RecipeTestDatabase.recipe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.moodrop.model.dto.RecipeImportResultDto;
+import com.moodrop.model.dto.UserRecipeDto;
+import com.moodrop.model.service.RecipeImportSource;
+
+/**
+ * 레시피 쓰기가 flush마다 executeBatch 한 번으로 나가고, 생성된 user_perfumes id가 채워지는지 확인한다.
+ * note 이름은 DB에서 한 번에 조회하므로 적재 뒤에 추가된 note도 받고, 한글 이름은 받지 않는다.
+ **/
+class RecipeBatchWriteTest {
+
+	private RecipeTestDatabase db;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		db = new RecipeTestDatabase(60);
+	}
+
+	@Test
+	void createSendsOneBatchPerFlush() {
+		db.dataSource.reset();
+		int recipeId = db.createInTransaction(recipe("fifty", 50));
+
+		assertTrue(recipeId > 0);
+		// user_perfumes 1번, composition 1번. 그 밖에는 note 이름 조회 한 번뿐
+		assertEquals(2, db.dataSource.batches());
+		assertEquals(1, db.dataSource.statements());
+
+		List<String> expected = new ArrayList<>();
+		for (int n = 1; n <= 50; n++) {
+			expected.add(n + ":" + n);
+		}
+		expected.sort(null);
+		List<String> actual = new ArrayList<>(db.composition(recipeId));
+		actual.sort(null);
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	void importChunkFillsEveryGeneratedKey() throws Exception {
+		List<UserRecipeDto> recipes = new ArrayList<>();
+		for (int r = 0; r < 20; r++) {
+			recipes.add(recipe("imported" + r, 1 + r));
+		}
+		db.dataSource.reset();
+		RecipeImportResultDto result = db.service.importRecipes(source(recipes));
+
+		assertEquals(20, result.getImported());
+		assertEquals(0, result.getFailed());
+		assertEquals(2, db.dataSource.batches());
+
+		Set<Integer> ids = new HashSet<>();
+		for (int r = 0; r < recipes.size(); r++) {
+			int recipeId = recipes.get(r).getRecipeId();
+			assertNotEquals(0, recipeId);
+			ids.add(recipeId);
+			assertEquals(1 + r, db.composition(recipeId).size());
+		}
+		assertEquals(20, ids.size());
+	}
+
+	@Test
+	void noteAddedAfterStartupIsAccepted() {
+		db.jdbc.update("INSERT INTO notes (id, name, korean_name, type) VALUES (500, 'fresh note', '새 노트', 'base')");
+
+		int recipeId = db.createInTransaction(recipe("fresh", List.of(note("fresh note", 3))));
+
+		assertEquals(List.of("500:3"), db.composition(recipeId));
+	}
+
+	@Test
+	void unknownAndKoreanNamesAreRejectedBeforeWriting() {
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+				() -> db.createInTransaction(recipe("bad", List.of(note("note1", 1), note("노트2", 2), note("nope", 3)))));
+
+		assertEquals("Unknown notes: [노트2, nope]", e.getMessage());
+		assertEquals(0, db.jdbc.queryForObject("SELECT COUNT(*) FROM user_perfumes", Integer.class));
+	}
+
+	private static RecipeImportSource source(List<UserRecipeDto> recipes) {
+		int[] next = {0};
+		return () -> next[0] < recipes.size() ? new RecipeImportSource.Line(next[0] + 1, recipes.get(next[0]++), null) : null;
+	}
+}
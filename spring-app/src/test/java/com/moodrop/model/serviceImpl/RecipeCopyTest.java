@@ -0,0 +1,78 @@
+package com.moodrop.model.serviceImpl;
+
+import static com.moodrop.model.serviceImpl.RecipeTestDatabase.note;
+import static com.moodrop.model.serviceImpl.RecipeTestDatabase.recipe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.moodrop.model.dto.NotesDto;
+import com.moodrop.model.dto.UserRecipeDto;
+
+/**
+ * 여러 레시피를 한 번에 복사했을 때 새 레시피마다 자기 원본의 composition이 들어가는지 확인한다.
+ **/
+class RecipeCopyTest {
+
+	private static final String OTHER = "other";
+
+	private RecipeTestDatabase db;
+
+	// 원본 레시피 id -> composition ("note_id:weight")
+	private final Map<Integer, List<String>> sources = new LinkedHashMap<>();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		db = new RecipeTestDatabase(12);
+		db.jdbc.update("INSERT INTO user (id, user_id, name) VALUES (2, ?, 'Other')", OTHER);
+
+		// 원본마다 note 수와 weight가 다르다. 사이에 다른 레시피를 끼워 id가 연속이 아니게 한다.
+		for (int r = 0; r < 5; r++) {
+			List<NotesDto> composition = new ArrayList<>();
+			for (int n = 1; n <= 2 + r; n++) {
+				composition.add(note("note" + (n + r), 10 * r + n));
+			}
+			int recipeId = db.createInTransaction(recipe("source" + r, composition));
+			sources.put(recipeId, db.composition(recipeId));
+			db.createInTransaction(recipe("gap" + r, 1));
+		}
+	}
+
+	@Test
+	void everyCopyGetsItsOwnComposition() {
+		List<Integer> sourceIds = new ArrayList<>(sources.keySet());
+		// 순서를 섞고, 중복과 없는 id를 넣는다.
+		List<Integer> request = Arrays.asList(sourceIds.get(3), sourceIds.get(0), 9999, sourceIds.get(4), sourceIds.get(0), sourceIds.get(1), null);
+
+		int copied = db.tx.execute(status -> db.service.copyRecipesIntoUser(request, OTHER));
+
+		assertEquals(4, copied);
+		List<UserRecipeDto> copies = db.jdbc.query("SELECT id, name FROM user_perfumes WHERE user_id = 2 ORDER BY id", (rs, i) -> {
+			UserRecipeDto copy = new UserRecipeDto();
+			copy.setRecipeId(rs.getInt(1));
+			copy.setPerfumeName(rs.getString(2));
+			return copy;
+		});
+		assertEquals(List.of("source0", "source1", "source3", "source4"), copies.stream().map(UserRecipeDto::getPerfumeName).toList());
+		for (UserRecipeDto copy : copies) {
+			int source = sourceIds.get(Integer.parseInt(copy.getPerfumeName().substring("source".length())));
+			assertEquals(sources.get(source), db.composition(copy.getRecipeId()), copy.getPerfumeName());
+		}
+	}
+
+	@Test
+	void unknownUserOrRecipesCopyNothing() {
+		List<Integer> sourceIds = new ArrayList<>(sources.keySet());
+
+		assertEquals(Integer.valueOf(0), db.tx.execute(status -> db.service.copyRecipesIntoUser(sourceIds, "nobody")));
+		assertEquals(Integer.valueOf(0), db.tx.execute(status -> db.service.copyRecipesIntoUser(List.of(9998, 9999), OTHER)));
+		assertEquals(0, db.jdbc.queryForObject("SELECT COUNT(*) FROM user_perfumes WHERE user_id = 2", Integer.class));
+	}
+}
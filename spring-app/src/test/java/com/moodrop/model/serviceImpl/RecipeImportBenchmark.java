@@ -0,0 +1,100 @@
+package com.moodrop.model.serviceImpl;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrop.model.dto.RecipeImportResultDto;
+import com.moodrop.web.RecipeImportReader;
+
+/**
+ * 레시피 일괄 가져오기 처리량 (recipes/sec). 요청 body(레시피 LINES줄, 레시피마다 note 10개)를 RecipeImportReader로 읽어 importRecipes로 넣는다.
+ * 한 번 호출이 LINES개이므로 결과 ops/s가 곧 recipes/sec이다.
+ * DB는 H2(같은 JVM)이고, JDBC 호출마다 latencyMicros 만큼 멈춰 round trip을 흉내 낸다. (RecipeWriteBenchmark와 같은 방식)
+ *
+ * 실행: mvn -B test-compile 후 IDE에서 main() 또는
+ *   java -cp target/test-classes:target/classes:<test classpath> com.moodrop.model.serviceImpl.RecipeImportBenchmark
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class RecipeImportBenchmark {
+
+	private static final int LINES = 2000;
+	private static final int NOTES = 10;
+
+	@Param({"ndjson", "csv"})
+	public String format;
+
+	@Param({"100", "500"})
+	public int chunkSize;
+
+	@Param({"0", "200"})
+	public int latencyMicros;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private RecipeTestDatabase db;
+	private byte[] body;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		db = new RecipeTestDatabase(NOTES);
+		db.dataSource.setLatencyMicros(latencyMicros);
+		ReflectionTestUtils.setField(db.service, "importChunkSize", chunkSize);
+
+		StringBuilder text = new StringBuilder();
+		if (format.equals("csv")) text.append("userId,perfumeName,description,composition\n");
+		for (int i = 0; i < LINES; i++) {
+			if (format.equals("csv")) {
+				text.append(RecipeTestDatabase.USER_ID).append(",recipe").append(i).append(",\"bulk, imported\",");
+				for (int n = 1; n <= NOTES; n++) {
+					text.append(n > 1 ? "|" : "").append("note").append(n).append(':').append(n);
+				}
+			} else {
+				text.append("{\"userId\":").append(RecipeTestDatabase.USER_ID).append(",\"perfumeName\":\"recipe").append(i)
+						.append("\",\"description\":\"bulk, imported\",\"composition\":[");
+				for (int n = 1; n <= NOTES; n++) {
+					text.append(n > 1 ? "," : "").append("{\"name\":\"note").append(n).append("\",\"weight\":").append(n).append('}');
+				}
+				text.append("]}");
+			}
+			text.append('\n');
+		}
+		body = text.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LINES)
+	public RecipeImportResultDto importRecipes() {
+		RecipeImportResultDto result = db.service.importRecipes(
+				new RecipeImportReader(new ByteArrayInputStream(body), format.equals("csv"), objectMapper));
+		if (result.getImported() != LINES) throw new IllegalStateException("imported " + result.getImported());
+		return result;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RecipeImportBenchmark.class.getSimpleName()).build()).run();
+	}
+}
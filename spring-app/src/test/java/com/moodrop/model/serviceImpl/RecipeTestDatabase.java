@@ -0,0 +1,88 @@
+package com.moodrop.model.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.moodrop.model.dao.RecipeBatchWriter;
+import com.moodrop.model.dao.RecipeDao;
+import com.moodrop.model.dto.NotesDto;
+import com.moodrop.model.dto.UserRecipeDto;
+import com.moodrop.support.CountingDataSource;
+import com.moodrop.support.H2Database;
+import com.moodrop.support.MyBatisTestSupport;
+
+/**
+ * H2(MySQL mode) 위의 RecipeServiceImpl. 사용자 "tester"(id 1)와 note "note1".."note{n}"(한글 "노트{n}")이 들어 있다.
+ * @Transactional은 proxy가 없어 적용되지 않으므로 write 메서드는 tx로 감싸서 부른다. (다른 package의 controller 테스트에서도 쓴다.)
+ **/
+public final class RecipeTestDatabase {
+
+	public static final String USER = "tester";
+	public static final int USER_ID = 1;
+
+	public final CountingDataSource dataSource;
+	public final JdbcTemplate jdbc;
+	public final RecipeServiceImpl service;
+	public final TransactionTemplate tx;
+
+	public RecipeTestDatabase(int notes) throws Exception {
+		dataSource = new CountingDataSource(H2Database.create("catalog-schema.sql", "recipe-schema.sql"));
+		jdbc = new JdbcTemplate(dataSource);
+		jdbc.update("INSERT INTO user (id, user_id, name) VALUES (?, ?, ?)", USER_ID, USER, "Tester");
+		List<Object[]> rows = new ArrayList<>();
+		for (int n = 1; n <= notes; n++) {
+			rows.add(new Object[] {n, "note" + n, "노트" + n, "top"});
+		}
+		jdbc.batchUpdate("INSERT INTO notes (id, name, korean_name, type) VALUES (?, ?, ?, ?)", rows);
+
+		SqlSessionFactory factory = MyBatisTestSupport.sessionFactory(dataSource, "RecipeMapper.xml");
+		tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		service = new RecipeServiceImpl();
+		service.dao = new SqlSessionTemplate(factory).getMapper(RecipeDao.class);
+		service.batchWriter = new RecipeBatchWriter(factory);
+		service.transactionTemplate = tx;
+		ReflectionTestUtils.setField(service, "importChunkSize", 500);
+		ReflectionTestUtils.setField(service, "importMaxErrors", 1000);
+	}
+
+	// note1..note{count} 를 weight 1..count 로 담은 레시피
+	public static UserRecipeDto recipe(String perfumeName, int count) {
+		List<NotesDto> composition = new ArrayList<>();
+		for (int n = 1; n <= count; n++) {
+			composition.add(note("note" + n, n));
+		}
+		return recipe(perfumeName, composition);
+	}
+
+	public static UserRecipeDto recipe(String perfumeName, List<NotesDto> composition) {
+		UserRecipeDto recipe = new UserRecipeDto();
+		recipe.setUserId(USER_ID);
+		recipe.setPerfumeName(perfumeName);
+		recipe.setComposition(composition);
+		return recipe;
+	}
+
+	public static NotesDto note(String name, int weight) {
+		NotesDto note = new NotesDto();
+		note.setName(name);
+		note.setWeight(weight);
+		return note;
+	}
+
+	public int createInTransaction(UserRecipeDto recipe) {
+		return tx.execute(status -> service.createUserRecipe(recipe));
+	}
+
+	// recipeId의 composition (note_id -> weight 순서대로 "id:weight")
+	public List<String> composition(int recipeId) {
+		return jdbc.queryForList("SELECT CONCAT(note_id, ':', weight) FROM user_perfume_compositions WHERE user_perfume_id = ? ORDER BY note_id",
+				String.class, recipeId);
+	}
+}
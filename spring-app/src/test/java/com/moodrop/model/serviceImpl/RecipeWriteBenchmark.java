@@ -0,0 +1,81 @@
+package com.moodrop.model.serviceImpl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.moodrop.model.dto.NotesDto;
+import com.moodrop.model.dto.UserRecipeDto;
+
+/**
+ * 레시피 작성 처리량 (recipes/sec), composition note 10/50/200개.
+ * batch: 지금 방식. createUserRecipe (note 이름 조회 1번 + RecipeBatchWriter flush 2번)
+ * perRow: SIMPLE executor로 user_perfumes INSERT 후 composition을 row마다 INSERT (batch 이전처럼 statement를 하나씩 보낸다.)
+ * H2(같은 JVM)라 network round trip이 없으므로, JDBC 호출(execute*, executeBatch)마다 latencyMicros 만큼 멈춰 round trip을 흉내 낸다.
+ * executeBatch를 round trip 한 번으로 보는 것은 MySQL의 rewriteBatchedStatements=true(multi-row INSERT)를 가정한 것이다.
+ * latencyMicros=0은 H2 자체 비용이다. H2는 getQueryTimeout()마다 INFORMATION_SCHEMA를 조회하고 MyBatis BATCH executor가 flush마다 이를 부르므로
+ * batch 쪽에 H2만의 비용이 더 붙는다.
+ *
+ * 실행: mvn -B test-compile 후 IDE에서 main() 또는
+ *   java -cp target/test-classes:target/classes:<test classpath> com.moodrop.model.serviceImpl.RecipeWriteBenchmark
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class RecipeWriteBenchmark {
+
+	@Param({"10", "50", "200"})
+	public int notes;
+
+	// JDBC 호출 하나의 round trip
+	@Param({"0", "200"})
+	public int latencyMicros;
+
+	private RecipeTestDatabase db;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		db = new RecipeTestDatabase(notes);
+		db.dataSource.setLatencyMicros(latencyMicros);
+	}
+
+	@Benchmark
+	public int batch() {
+		return db.createInTransaction(RecipeTestDatabase.recipe("bench", notes));
+	}
+
+	@Benchmark
+	public int perRow() {
+		UserRecipeDto recipe = RecipeTestDatabase.recipe("bench", notes);
+		return db.tx.execute(status -> {
+			db.service.dao.insertUserRecipe(recipe);
+			int n = 0;
+			for (NotesDto note : recipe.getComposition()) {
+				note.setNoteId(++n);
+				db.service.dao.insertCompositionInRecipe(recipe.getRecipeId(), note);
+			}
+			return recipe.getRecipeId();
+		});
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RecipeWriteBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,120 @@
+package com.moodrop.model.serviceImpl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.moodrop.model.catalog.CatalogSnapshot;
+import com.moodrop.model.catalog.CatalogTestSupport;
+import com.moodrop.model.catalog.PerfumeCatalogReloadedEvent;
+import com.moodrop.model.catalog.UserNoteMatcher;
+import com.moodrop.support.H2Database;
+import com.moodrop.support.SyntheticCatalog;
+
+/**
+ * splitByUserNotes의 "match" 단계: 후보 향수마다 사용자 보유 note와 겹치는 note를 센다.
+ * bitset: 지금 방식. 보유 note로 Inventory를 만들고 countHits, 일치한 향수만 hitNames
+ * nameSet: 카탈로그가 없을 때의 방식. 보유 note를 layer -> 이름 Set으로 만들고 향수 note 목록을 훑는다. (hitsByName)
+ * 향수 20k개, note 이름 400개의 임의 카탈로그, 사용자 보유 note 40개. 두 쪽 다 후보 향수 정보는 이미 읽은 상태로 잰다.
+ *
+ * 실행: mvn -B test-compile 후 IDE에서 main() 또는
+ *   java -cp target/test-classes:target/classes:<test classpath> com.moodrop.model.serviceImpl.UserNoteMatchBenchmark
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class UserNoteMatchBenchmark {
+
+	private static final int PERFUMES = 20_000;
+	private static final int USER_NOTES = 40;
+
+	@Param({"20", "500", "10000"})
+	public int candidates;
+
+	private UserNoteMatcher matcher;
+	private Set<Integer> userNoteIds;
+	private int[] candidateIds;
+	private List<Map<String, List<String>>> candidateNotes;
+	private CatalogSnapshot snapshot;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		DataSource dataSource = H2Database.create("catalog-schema.sql");
+		SyntheticCatalog.populate(dataSource, PERFUMES, 400, 42L);
+		snapshot = CatalogTestSupport.load(dataSource);
+		matcher = new UserNoteMatcher();
+		matcher.onCatalogReloaded(new PerfumeCatalogReloadedEvent(snapshot));
+
+		Random random = new Random(candidates);
+		userNoteIds = new HashSet<>();
+		while (userNoteIds.size() < USER_NOTES) {
+			userNoteIds.add(snapshot.noteId(random.nextInt(snapshot.noteCount())));
+		}
+		candidateIds = new int[candidates];
+		candidateNotes = new ArrayList<>(candidates);
+		for (int i = 0; i < candidates; i++) {
+			int p = random.nextInt(snapshot.perfumeCount());
+			candidateIds[i] = snapshot.perfumeId(p);
+			candidateNotes.add(snapshot.toWrapper(p, false).getNotes());
+		}
+	}
+
+	@Benchmark
+	public void bitset(Blackhole bh) {
+		UserNoteMatcher.Inventory inventory = matcher.inventory(userNoteIds);
+		for (int perfumeId : candidateIds) {
+			int count = inventory.countHits(perfumeId);
+			bh.consume(count);
+			if (count > 0) bh.consume(inventory.hitNames(perfumeId));
+		}
+	}
+
+	@Benchmark
+	public void nameSet(Blackhole bh) {
+		Map<String, Set<String>> userNotes = new LinkedHashMap<>();
+		for (int noteId : userNoteIds) {
+			int note = snapshot.indexOfNote(noteId);
+			userNotes.computeIfAbsent(snapshot.noteType(note), k -> new HashSet<>()).add(snapshot.noteName(note));
+		}
+		for (Map<String, List<String>> notes : candidateNotes) {
+			Map<String, List<String>> hit = PerfumeServiceImpl.hitsByName(notes, userNotes);
+			int count = 0;
+			for (List<String> layerHit : hit.values()) {
+				count += layerHit.size();
+			}
+			bh.consume(count);
+			bh.consume(hit);
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(UserNoteMatchBenchmark.class.getSimpleName()).build()).run();
+	}
+}
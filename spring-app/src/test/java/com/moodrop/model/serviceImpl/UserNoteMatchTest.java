@@ -0,0 +1,88 @@
+package com.moodrop.model.serviceImpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.moodrop.model.catalog.CatalogSnapshot;
+import com.moodrop.model.catalog.CatalogTestSupport;
+import com.moodrop.model.catalog.PerfumeCatalogReloadedEvent;
+import com.moodrop.model.catalog.UserNoteMatcher;
+import com.moodrop.support.H2Database;
+import com.moodrop.support.SyntheticCatalog;
+
+/**
+ * splitByUserNotes의 두 경로가 같은 결과인지 확인한다.
+ * UserNoteMatcher(bitset)의 countHits/hitNames vs 카탈로그가 없을 때의 hitsByName(layer -> 이름 Set)
+ **/
+class UserNoteMatchTest {
+
+	private static CatalogSnapshot snapshot;
+	private static UserNoteMatcher matcher;
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		DataSource dataSource = H2Database.create("catalog-schema.sql");
+		SyntheticCatalog.populate(dataSource, 2000, 80, 42L);
+		snapshot = CatalogTestSupport.load(dataSource);
+		matcher = new UserNoteMatcher();
+		matcher.onCatalogReloaded(new PerfumeCatalogReloadedEvent(snapshot));
+	}
+
+	@Test
+	void bitsetMatchesNameSets() {
+		Random random = new Random(7);
+		int hitPerfumes = 0;
+		for (int user = 0; user < 40; user++) {
+			Set<Integer> noteIds = new HashSet<>();
+			int owned = 1 + random.nextInt(60);
+			while (noteIds.size() < Math.min(owned, snapshot.noteCount())) {
+				noteIds.add(snapshot.noteId(random.nextInt(snapshot.noteCount())));
+			}
+			UserNoteMatcher.Inventory inventory = matcher.inventory(noteIds);
+			Map<String, Set<String>> userNotes = userNotes(noteIds);
+
+			for (int p = 0; p < snapshot.perfumeCount(); p += 7) {
+				int perfumeId = snapshot.perfumeId(p);
+				Map<String, List<String>> expected = PerfumeServiceImpl.hitsByName(snapshot.toWrapper(p, false).getNotes(), userNotes);
+				int expectedCount = expected.values().stream().mapToInt(List::size).sum();
+
+				int u = user;
+				assertEquals(expectedCount, inventory.countHits(perfumeId), () -> "user=" + u + ", perfume=" + perfumeId);
+				assertEquals(expected, inventory.hitNames(perfumeId), () -> "user=" + u + ", perfume=" + perfumeId);
+				if (expectedCount > 0) hitPerfumes++;
+			}
+		}
+		// 일치하는 향수도 충분히 비교했는지
+		assertTrue(hitPerfumes > 1000, "perfumes with hits: " + hitPerfumes);
+	}
+
+	@Test
+	void unknownPerfumeHasNoHits() {
+		UserNoteMatcher.Inventory inventory = matcher.inventory(List.of(snapshot.noteId(0)));
+
+		assertEquals(0, inventory.countHits(-1));
+		assertEquals(PerfumeServiceImpl.hitsByName(Map.of(), Map.of()), inventory.hitNames(-1));
+	}
+
+	// selectUserNotes 결과처럼 type -> 이름 Set
+	private static Map<String, Set<String>> userNotes(Set<Integer> noteIds) {
+		Map<String, Set<String>> userNotes = new LinkedHashMap<>();
+		for (int noteId : noteIds) {
+			int note = snapshot.indexOfNote(noteId);
+			userNotes.computeIfAbsent(snapshot.noteType(note), k -> new HashSet<>()).add(snapshot.noteName(note));
+		}
+		return userNotes;
+	}
+}
@@ -0,0 +1,91 @@
+package com.moodrop.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * 실제 DataSource를 감싸 JDBC 호출 수를 센다. executeBatch와 그 밖의 execute*(한 statement씩 보낸 것)를 따로 센다.
+ * latencyMicros를 주면 호출마다 그만큼 멈춘다. (network round trip 흉내, executeBatch도 한 번으로 본다.)
+ **/
+public class CountingDataSource extends DelegatingDataSource {
+
+	private final AtomicInteger batches = new AtomicInteger();
+	private final AtomicInteger statements = new AtomicInteger();
+	private volatile long latencyNanos;
+
+	public CountingDataSource(DataSource target) {
+		super(target);
+	}
+
+	public void setLatencyMicros(long latencyMicros) {
+		this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+	}
+
+	public int batches() {
+		return batches.get();
+	}
+
+	public int statements() {
+		return statements.get();
+	}
+
+	public void reset() {
+		batches.set(0);
+		statements.set(0);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return wrapConnection(super.getConnection());
+	}
+
+	private Connection wrapConnection(Connection target) {
+		InvocationHandler handler = (proxy, method, args) -> {
+			Object result = invoke(target, method, args);
+			if (result instanceof Statement statement && method.getName().endsWith("Statement")) {
+				Class<? extends Statement> returned = method.getReturnType().asSubclass(Statement.class);
+				return wrapStatement(statement, returned);
+			}
+			return result;
+		};
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, handler);
+	}
+
+	private <S extends Statement> S wrapStatement(Statement target, Class<S> type) {
+		InvocationHandler handler = (proxy, method, args) -> {
+			if (method.getName().equals("executeBatch") || method.getName().equals("executeLargeBatch")) {
+				batches.incrementAndGet();
+				roundTrip();
+			} else if (method.getName().startsWith("execute")) {
+				statements.incrementAndGet();
+				roundTrip();
+			}
+			return invoke(target, method, args);
+		};
+		return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type}, handler));
+	}
+
+	private void roundTrip() {
+		if (latencyNanos > 0) LockSupport.parkNanos(latencyNanos);
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.moodrop.support;
+
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * 테스트마다 새로 만드는 in-memory H2 (MySQL mode) + src/test/resources/db 의 schema
+ **/
+public final class H2Database {
+
+	private H2Database() {
+	}
+
+	public static DataSource create(String... schemas) {
+		SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+				"jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=YEAR,VALUE,USER");
+		ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+		for (String schema : schemas) {
+			populator.addScript(new ClassPathResource("db/" + schema));
+		}
+		populator.execute(dataSource);
+		return dataSource;
+	}
+}
@@ -0,0 +1,39 @@
+package com.moodrop.support;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.moodrop.model.concurrent.PerfumeLookupExecutor;
+
+public final class LookupPoolSupport {
+
+	private LookupPoolSupport() {
+	}
+
+	/**
+	 * release가 열릴 때까지 기다리는 작업으로 pool의 Thread와 대기열을 모두 채운다.
+	 **/
+	public static void saturate(PerfumeLookupExecutor executor, CountDownLatch release) throws InterruptedException {
+		ThreadPoolExecutor pool = (ThreadPoolExecutor) ReflectionTestUtils.getField(executor, "pool");
+		CountDownLatch started = new CountDownLatch(pool.getCorePoolSize());
+		Runnable blocked = () -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		for (int i = 0; i < pool.getCorePoolSize(); i++) {
+			pool.execute(blocked);
+		}
+		started.await();
+		BlockingQueue<Runnable> queue = pool.getQueue();
+		while (queue.remainingCapacity() > 0) {
+			pool.execute(blocked);
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package com.moodrop.support;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * application.properties의 mybatis 설정(type alias, camel case)과 같은 SqlSessionFactory
+ **/
+public final class MyBatisTestSupport {
+
+	private MyBatisTestSupport() {
+	}
+
+	public static SqlSessionFactory sessionFactory(DataSource dataSource, String... mappers) throws Exception {
+		SqlSessionFactoryBean factory = new SqlSessionFactoryBean();
+		factory.setDataSource(dataSource);
+		factory.setTypeAliasesPackage("com.moodrop.model.dto");
+		Resource[] locations = new Resource[mappers.length];
+		for (int i = 0; i < mappers.length; i++) {
+			locations[i] = new ClassPathResource("mappers/" + mappers[i]);
+		}
+		factory.setMapperLocations(locations);
+		org.apache.ibatis.session.Configuration configuration = new org.apache.ibatis.session.Configuration();
+		configuration.setMapUnderscoreToCamelCase(true);
+		factory.setConfiguration(configuration);
+		return factory.getObject();
+	}
+}
@@ -0,0 +1,48 @@
+package com.moodrop.support;
+
+import java.util.List;
+
+import com.moodrop.support.ScriptedDataSource.Table;
+
+/**
+ * 향수 상세 조회(PerfumeMapper.xml)의 result set 고정값.
+ * all(): selectPerfumeDetailByPerfumeId의 8개 result set, forSql(): 테이블별 조회 SQL 하나에 맞는 result set
+ **/
+public final class PerfumeDetailFixture {
+
+	private PerfumeDetailFixture() {
+	}
+
+	public static Table basic(int id) {
+		return Table.of("id", "perfume_name", "brand_name", "description", "gender", "country", "year", "rating_val", "rating_count")
+				.row(id, "Sauvage", "Dior", "fresh", 1, "France", 2015, 4, 1200);
+	}
+
+	// basic, comment, dayNight, longevity, season, sillage, mainAccord, notes
+	public static List<Table> all(int id) {
+		return List.of(
+				basic(id),
+				Table.of("comment").row("good").row("strong"),
+				Table.of("day_night", "weight").row("day", 70).row("night", 30),
+				Table.of("length", "vote_num").row("long", 12),
+				Table.of("season", "weight").row("summer", 80),
+				Table.of("strength", "vote_num").row("strong", 9),
+				Table.of("name", "weight").row("citrus", 100).row("woody", 60),
+				Table.of("type", "name").row("Top", "Bergamot").row("Base", "Ambroxan").row("top", "Pepper"));
+	}
+
+	// 테이블별 조회 (parallel 모드) SQL이면 해당 result set 하나, 여러 SELECT를 묶은 SQL이면 all()
+	public static List<Table> forSql(String sql, int id) {
+		List<Table> all = all(id);
+		if (sql.indexOf("SELECT") != sql.lastIndexOf("SELECT")) return all;
+		if (sql.contains("rating_info")) return List.of(all.get(0));
+		if (sql.contains("comments_info")) return List.of(all.get(1));
+		if (sql.contains("perfume_day_night")) return List.of(all.get(2));
+		if (sql.contains("perfume_longevity")) return List.of(all.get(3));
+		if (sql.contains("perfume_season")) return List.of(all.get(4));
+		if (sql.contains("perfume_sillage")) return List.of(all.get(5));
+		if (sql.contains("perfume_main_accords")) return List.of(all.get(6));
+		if (sql.contains("perfume_notes")) return List.of(all.get(7));
+		throw new IllegalArgumentException("No fixture for " + sql);
+	}
+}
@@ -0,0 +1,145 @@
+package com.moodrop.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * DB 없이 정해 둔 result set을 돌려주는 DataSource.
+ * statement를 실행할 때마다 script(sql)이 돌려준 Table 목록을 순서대로 result set으로 내준다. (multi result set 지원)
+ * 실행한 SQL은 executed()에 남는다.
+ **/
+public class ScriptedDataSource extends AbstractDataSource {
+
+	public record Table(String[] columns, Object[][] rows) {
+
+		public static Table of(String... columns) {
+			return new Table(columns, new Object[0][]);
+		}
+
+		public Table row(Object... values) {
+			Object[][] next = java.util.Arrays.copyOf(rows, rows.length + 1);
+			next[rows.length] = values;
+			return new Table(columns, next);
+		}
+	}
+
+	private final Function<String, List<Table>> script;
+	private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+	public ScriptedDataSource(Function<String, List<Table>> script) {
+		this.script = script;
+	}
+
+	public List<String> executed() {
+		return executed;
+	}
+
+	@Override
+	public Connection getConnection() {
+		Connection[] self = new Connection[1];
+		DatabaseMetaData metaData = proxy(DatabaseMetaData.class, (p, m, a) -> switch (m.getName()) {
+			case "supportsMultipleResultSets" -> true;
+			case "getDatabaseProductName" -> "Scripted";
+			default -> defaultValue(m);
+		});
+		self[0] = proxy(Connection.class, (p, m, a) -> switch (m.getName()) {
+			case "prepareStatement" -> statement(self[0], (String) a[0]);
+			case "getMetaData" -> metaData;
+			case "getAutoCommit" -> true;
+			default -> defaultValue(m);
+		});
+		return self[0];
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) {
+		return getConnection();
+	}
+
+	private PreparedStatement statement(Connection connection, String sql) {
+		List<Table> results = new ArrayList<>();
+		int[] current = {0};
+		return proxy(PreparedStatement.class, (p, m, a) -> switch (m.getName()) {
+			case "execute", "executeQuery" -> {
+				executed.add(sql);
+				results.clear();
+				results.addAll(script.apply(sql));
+				current[0] = 0;
+				yield m.getName().equals("execute") ? !results.isEmpty() : resultSet(results.get(0));
+			}
+			case "getResultSet" -> current[0] < results.size() ? resultSet(results.get(current[0])) : null;
+			case "getMoreResults" -> ++current[0] < results.size();
+			case "getUpdateCount" -> -1;
+			case "getConnection" -> connection;
+			default -> defaultValue(m);
+		});
+	}
+
+	private static ResultSet resultSet(Table table) {
+		int[] row = {-1};
+		Object[] last = {null};
+		ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (p, m, a) -> switch (m.getName()) {
+			case "getColumnCount" -> table.columns().length;
+			case "getColumnLabel", "getColumnName" -> table.columns()[(Integer) a[0] - 1];
+			case "getColumnType" -> Types.OTHER;
+			case "getColumnClassName" -> Object.class.getName();
+			default -> defaultValue(m);
+		});
+		return proxy(ResultSet.class, (p, m, a) -> {
+			switch (m.getName()) {
+			case "next":
+				return ++row[0] < table.rows().length;
+			case "getMetaData":
+				return metaData;
+			case "wasNull":
+				return last[0] == null;
+			case "getString", "getInt", "getLong", "getObject":
+				int column = a[0] instanceof Integer i ? i - 1 : indexOf(table.columns(), (String) a[0]);
+				last[0] = table.rows()[row[0]][column];
+				return convert(last[0], m.getReturnType());
+			default:
+				return defaultValue(m);
+			}
+		});
+	}
+
+	private static Object convert(Object value, Class<?> type) {
+		if (type == String.class) return value == null ? null : value.toString();
+		if (type == int.class) return value == null ? 0 : ((Number) value).intValue();
+		if (type == long.class) return value == null ? 0L : ((Number) value).longValue();
+		return value;
+	}
+
+	private static int indexOf(String[] columns, String label) {
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i].equalsIgnoreCase(label)) return i;
+		}
+		throw new IllegalArgumentException("Unknown column: " + label);
+	}
+
+	static Object defaultValue(Method method) {
+		Class<?> type = method.getReturnType();
+		if (type == boolean.class) return false;
+		if (type == int.class) return 0;
+		if (type == long.class) return 0L;
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(ScriptedDataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+	}
+}
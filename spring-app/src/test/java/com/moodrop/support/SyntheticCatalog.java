@@ -0,0 +1,112 @@
+package com.moodrop.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * catalog-schema.sql 테이블에 임의의 향수 카탈로그를 넣는다. (seed가 같으면 같은 데이터)
+ * note 이름마다 type(top/middle/base)만 다른 row가 1~3개 있고, 향수마다 note 3~15개를 골라 determined_notes와 perfume_notes에 넣는다.
+ * 앞쪽 이름일수록 자주 뽑히게 해서(제곱 분포) 흔한 note와 드문 note가 섞이도록 한다.
+ **/
+public final class SyntheticCatalog {
+
+	private static final String[] TYPES = {"top", "middle", "base"};
+	private static final int BATCH = 5000;
+
+	private final List<String> noteNames = new ArrayList<>();
+	private final List<String> koreanNames = new ArrayList<>();
+	private final List<List<Integer>> noteIdsByName = new ArrayList<>();
+
+	public static SyntheticCatalog populate(DataSource dataSource, int perfumes, int names, long seed) {
+		SyntheticCatalog catalog = new SyntheticCatalog();
+		catalog.insert(new JdbcTemplate(dataSource), perfumes, names, new Random(seed));
+		return catalog;
+	}
+
+	public List<String> noteNames() {
+		return noteNames;
+	}
+
+	public List<String> koreanNames() {
+		return koreanNames;
+	}
+
+	public List<Integer> noteIds(String name) {
+		int i = noteNames.indexOf(name);
+		return i < 0 ? List.of() : noteIdsByName.get(i);
+	}
+
+	/**
+	 * 서로 다른 note 이름 count개 (흔한 이름일수록 자주 뽑힌다.)
+	 **/
+	public List<String> pickNames(Random random, int count) {
+		List<String> picked = new ArrayList<>(count);
+		while (picked.size() < Math.min(count, noteNames.size())) {
+			String name = noteNames.get(skewed(random, noteNames.size()));
+			if (!picked.contains(name)) picked.add(name);
+		}
+		return picked;
+	}
+
+	private void insert(JdbcTemplate jdbc, int perfumes, int names, Random random) {
+		jdbc.update("INSERT INTO country_info (id, country) VALUES (1, 'France')");
+		jdbc.update("INSERT INTO brand_info (id, name) VALUES (1, 'Maison')");
+
+		List<Object[]> notes = new ArrayList<>();
+		int noteId = 1;
+		for (int n = 0; n < names; n++) {
+			noteNames.add("note" + n);
+			koreanNames.add("노트" + n);
+			List<Integer> ids = new ArrayList<>();
+			for (int t = 0, rows = 1 + random.nextInt(3); t < rows; t++) {
+				ids.add(noteId);
+				notes.add(new Object[] {noteId++, "note" + n, "노트" + n, TYPES[t]});
+			}
+			noteIdsByName.add(ids);
+		}
+		jdbc.batchUpdate("INSERT INTO notes (id, name, korean_name, type) VALUES (?, ?, ?, ?)", notes);
+
+		List<Object[]> perfumeRows = new ArrayList<>();
+		List<Object[]> ratingRows = new ArrayList<>();
+		List<Object[]> determined = new ArrayList<>();
+		List<Object[]> perfumeNotes = new ArrayList<>();
+		for (int p = 1; p <= perfumes; p++) {
+			// id 사이에 빈 칸을 둔다. (dense index와 id가 다르도록)
+			int id = p * 3;
+			perfumeRows.add(new Object[] {id, "perfume" + p, 1, id, 1, 2000 + p % 25});
+			ratingRows.add(new Object[] {id, 1 + p % 5, p % 1000});
+			for (String name : pickNames(random, 3 + random.nextInt(13))) {
+				List<Integer> ids = noteIds(name);
+				int noteRow = ids.get(random.nextInt(ids.size()));
+				determined.add(new Object[] {id, noteRow, 1f + random.nextInt(20)});
+				perfumeNotes.add(new Object[] {id, noteRow});
+			}
+			if (determined.size() >= BATCH) {
+				flush(jdbc, perfumeRows, ratingRows, determined, perfumeNotes);
+			}
+		}
+		flush(jdbc, perfumeRows, ratingRows, determined, perfumeNotes);
+	}
+
+	private static void flush(JdbcTemplate jdbc, List<Object[]> perfumes, List<Object[]> ratings, List<Object[]> determined,
+			List<Object[]> perfumeNotes) {
+		jdbc.batchUpdate("INSERT INTO perfumes (id, name, brand_id, rating_id, country_id, year) VALUES (?, ?, ?, ?, ?, ?)", perfumes);
+		jdbc.batchUpdate("INSERT INTO rating_info (id, rating_val, rating_count) VALUES (?, ?, ?)", ratings);
+		jdbc.batchUpdate("INSERT INTO determined_notes (perfume_id, note_id, percentage) VALUES (?, ?, ?)", determined);
+		jdbc.batchUpdate("INSERT INTO perfume_notes (perfume_id, note_id) VALUES (?, ?)", perfumeNotes);
+		perfumes.clear();
+		ratings.clear();
+		determined.clear();
+		perfumeNotes.clear();
+	}
+
+	private static int skewed(Random random, int size) {
+		double r = random.nextDouble();
+		return (int) (r * r * size);
+	}
+}
@@ -0,0 +1,53 @@
+package com.moodrop.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrop.model.service.RecipeImportSource.Line;
+
+/**
+ * MAX_LINE_CHARS보다 긴 줄은 담지 않고 실패한 줄로 돌려준 뒤, 다음 줄부터 다시 읽는지 확인한다.
+ **/
+class RecipeImportReaderTest {
+
+	@Test
+	void oversizedLineFailsAndReadingContinues() throws Exception {
+		String body = "{\"userId\":1,\"perfumeName\":\"first\"}\n"
+				+ "{\"userId\":1,\"perfumeName\":\"" + "x".repeat(RecipeImportReader.MAX_LINE_CHARS) + "\"}\r\n"
+				+ "{\"userId\":1,\"perfumeName\":\"third\"}";
+		RecipeImportReader reader = new RecipeImportReader(
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), false, new ObjectMapper());
+
+		assertEquals("first", reader.next().recipe().getPerfumeName());
+
+		Line oversized = reader.next();
+		assertEquals(2, oversized.lineNumber());
+		assertNull(oversized.recipe());
+		assertEquals("Line too long (max " + RecipeImportReader.MAX_LINE_CHARS + " characters)", oversized.error());
+
+		Line third = reader.next();
+		assertEquals(3, third.lineNumber());
+		assertEquals("third", third.recipe().getPerfumeName());
+		assertNull(reader.next());
+	}
+
+	@Test
+	void lineAtTheLimitIsRead() throws Exception {
+		String prefix = "1,";
+		String suffix = ",,rose:10";
+		String csv = prefix + "n".repeat(RecipeImportReader.MAX_LINE_CHARS - prefix.length() - suffix.length()) + suffix + "\r\n";
+		RecipeImportReader reader = new RecipeImportReader(
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), true, new ObjectMapper());
+
+		Line line = reader.next();
+		assertNull(line.error());
+		assertEquals(RecipeImportReader.MAX_LINE_CHARS - prefix.length() - suffix.length(), line.recipe().getPerfumeName().length());
+		assertNull(reader.next());
+	}
+}
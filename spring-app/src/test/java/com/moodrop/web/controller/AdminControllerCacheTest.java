@@ -0,0 +1,72 @@
+package com.moodrop.web.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.moodrop.config.CacheConfig;
+import com.moodrop.model.cache.RenderedJson;
+import com.moodrop.model.dto.PerfumeWrapper;
+
+class AdminControllerCacheTest {
+
+	private CacheManager cacheManager;
+	private AdminController controller;
+
+	@BeforeEach
+	void setUp() {
+		CacheConfig config = new CacheConfig();
+		ReflectionTestUtils.setField(config, "perfumeMaxBytes", 1L << 20);
+		ReflectionTestUtils.setField(config, "perfumeJsonMaxBytes", 1L << 20);
+		cacheManager = config.cacheManager();
+		controller = new AdminController();
+		controller.cacheManager = cacheManager;
+
+		for (int id = 1; id <= 2; id++) {
+			cacheManager.getCache(CacheConfig.PERFUME).put(id, new PerfumeWrapper());
+			cacheManager.getCache(CacheConfig.PERFUME_JSON).put(id, new RenderedJson(new byte[] {'{', '}'}, "\"etag" + id + "\""));
+		}
+	}
+
+	@Test
+	void evictingPerfumeAlsoEvictsRenderedJson() {
+		assertEquals(HttpStatus.OK, controller.evictCache(CacheConfig.PERFUME, 1).getStatusCode());
+
+		assertNull(cacheManager.getCache(CacheConfig.PERFUME).get(1));
+		assertNull(cacheManager.getCache(CacheConfig.PERFUME_JSON).get(1));
+		assertNotNull(cacheManager.getCache(CacheConfig.PERFUME).get(2));
+		assertNotNull(cacheManager.getCache(CacheConfig.PERFUME_JSON).get(2));
+	}
+
+	@Test
+	void evictingRenderedJsonKeepsPerfume() {
+		controller.evictCache(CacheConfig.PERFUME_JSON, 1);
+
+		assertNotNull(cacheManager.getCache(CacheConfig.PERFUME).get(1));
+		assertNull(cacheManager.getCache(CacheConfig.PERFUME_JSON).get(1));
+	}
+
+	@Test
+	void clearingPerfumeAlsoClearsRenderedJson() {
+		controller.clearCache(CacheConfig.PERFUME);
+
+		assertNull(cacheManager.getCache(CacheConfig.PERFUME).get(2));
+		assertNull(cacheManager.getCache(CacheConfig.PERFUME_JSON).get(2));
+	}
+
+	@Test
+	void unknownCacheIsNotFoundAndNotCreated() {
+		assertEquals(HttpStatus.NOT_FOUND, controller.clearCache("nope").getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, controller.evictCache("nope", 1).getStatusCode());
+
+		assertFalse(cacheManager.getCacheNames().contains("nope"));
+		assertEquals(2, cacheManager.getCacheNames().size());
+	}
+}
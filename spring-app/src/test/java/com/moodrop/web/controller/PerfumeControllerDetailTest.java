@@ -0,0 +1,59 @@
+package com.moodrop.web.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrop.model.cache.PerfumeJsonCache;
+import com.moodrop.model.dto.PerfumeWrapper;
+import com.moodrop.model.service.PerfumeService;
+
+/**
+ * GET /api/perfume/{perfumeId}: 없는 향수는 404, DB 오류는 500
+ **/
+class PerfumeControllerDetailTest {
+
+	@Test
+	void unknownPerfumeIsNotFound() throws Exception {
+		PerfumeController controller = controller();
+		when(controller.service.getPerfumeWrapper(404)).thenThrow(new NoSuchElementException("Perfume not found"));
+
+		assertEquals(HttpStatus.NOT_FOUND, get(controller, 404));
+	}
+
+	@Test
+	void databaseErrorIsServerError() throws Exception {
+		PerfumeController controller = controller();
+		when(controller.service.getPerfumeWrapper(500)).thenThrow(new SQLException("connection lost"));
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, get(controller, 500));
+	}
+
+	@Test
+	void knownPerfumeIsOk() throws Exception {
+		PerfumeController controller = controller();
+		when(controller.service.getPerfumeWrapper(7)).thenReturn(new PerfumeWrapper());
+
+		assertEquals(HttpStatus.OK, get(controller, 7));
+	}
+
+	private static PerfumeController controller() {
+		PerfumeController controller = new PerfumeController();
+		controller.service = mock(PerfumeService.class);
+		controller.perfumeJsonCache = new PerfumeJsonCache(controller.service, new ObjectMapper());
+		return controller;
+	}
+
+	private static HttpStatus get(PerfumeController controller, int perfumeId) {
+		return (HttpStatus) controller.getPerfumeById(perfumeId, new MockHttpServletRequest(), new MockHttpServletResponse()).getStatusCode();
+	}
+}
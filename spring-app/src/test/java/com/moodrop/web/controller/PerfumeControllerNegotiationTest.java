@@ -0,0 +1,130 @@
+package com.moodrop.web.controller;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrop.model.dto.PerfumeBasicDto;
+import com.moodrop.model.dto.PerfumeWrapper;
+import com.moodrop.model.dto.PerfumeWrapperExtended;
+import com.moodrop.model.service.PerfumeService;
+import com.moodrop.model.service.SearchResultSink;
+import com.moodrop.web.NdjsonResultWriter;
+
+/**
+ * note 검색의 Accept header에 따라 NDJSON streaming handler와 JSON handler 중 하나가 골라지는지 확인한다.
+ **/
+class PerfumeControllerNegotiationTest {
+
+	private static final String BODY = "{\"noteList\":[\"Rose\",\"Musk\"]}";
+
+	private PerfumeService service;
+	private MockMvc mvc;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		service = mock(PerfumeService.class);
+		PerfumeController controller = new PerfumeController();
+		controller.service = service;
+		controller.objectMapper = new ObjectMapper();
+		mvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+		when(service.selectPerfumeByNote(any())).thenReturn(List.of(perfume(1)));
+		when(service.selectPerfumeByAtLeastKNotes(any())).thenReturn(List.of(new PerfumeWrapperExtended()));
+		doAnswer(invocation -> {
+			SearchResultSink<PerfumeWrapper> sink = invocation.getArgument(2);
+			sink.accept(perfume(1));
+			sink.accept(perfume(2));
+			sink.flush();
+			return null;
+		}).when(service).streamPerfumeByNote(any(), anyInt(), any());
+	}
+
+	private static PerfumeWrapper perfume(int id) {
+		PerfumeBasicDto basic = new PerfumeBasicDto();
+		basic.setId(id);
+		PerfumeWrapper wrapper = new PerfumeWrapper();
+		wrapper.setPerfumeBasic(basic);
+		return wrapper;
+	}
+
+	@Test
+	void ndjsonAcceptSelectsStreamingHandler() throws Exception {
+		MvcResult started = mvc.perform(post("/api/perfume/searchPartNote")
+						.contentType(MediaType.APPLICATION_JSON)
+						.accept(NdjsonResultWriter.NDJSON)
+						.content(BODY))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(NdjsonResultWriter.NDJSON))
+				.andExpect(content().string(matchesPattern("(?s)\\{\"id\":1.*\\}\n\\{\"id\":2.*\\}\n")));
+		verify(service).streamPerfumeByNote(eq(List.of("Rose", "Musk")), anyInt(), any());
+		verify(service, never()).selectPerfumeByNote(any());
+	}
+
+	@Test
+	void wildcardAcceptSelectsJsonHandler() throws Exception {
+		mvc.perform(post("/api/perfume/searchPartNote")
+						.contentType(MediaType.APPLICATION_JSON)
+						.accept(MediaType.ALL)
+						.content(BODY))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$[0].id").value(1));
+		verify(service).selectPerfumeByNote(List.of("Rose", "Musk"));
+		verify(service, never()).streamPerfumeByNote(any(), anyInt(), any());
+	}
+
+	@Test
+	void missingAcceptSelectsJsonHandler() throws Exception {
+		mvc.perform(post("/api/perfume/searchAllNote")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(BODY))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+		verify(service).selectPerfumeByAtLeastKNotes(List.of("Rose", "Musk"));
+		verify(service, never()).streamPerfumeByAtLeastKNotes(any(), anyInt(), any());
+	}
+
+	@Test
+	void tooManyNotesIsRejectedBeforeStreaming() throws Exception {
+		doThrow(new IllegalArgumentException("Too many notes: 64 (max 63)")).when(service).checkAtLeastKNotes(any());
+
+		mvc.perform(post("/api/perfume/searchAllNote")
+						.contentType(MediaType.APPLICATION_JSON)
+						.accept(NdjsonResultWriter.NDJSON)
+						.content(BODY))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string("Too many notes: 64 (max 63)"));
+		verify(service, never()).streamPerfumeByAtLeastKNotes(any(), anyInt(), any());
+	}
+}
@@ -0,0 +1,117 @@
+package com.moodrop.web.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moodrop.model.dto.RecipeImportResultDto;
+import com.moodrop.model.serviceImpl.RecipeTestDatabase;
+import com.moodrop.web.NdjsonResultWriter;
+
+import jakarta.servlet.ServletInputStream;
+
+/**
+ * POST /api/recipe/import 중간에 body 읽기가 실패해도 이미 commit한 chunk까지의 결과를 돌려주는지 확인한다.
+ **/
+class RecipeImportControllerTest {
+
+	private static final int LINES = 5;
+
+	private RecipeTestDatabase db;
+	private RecipeController controller;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		db = new RecipeTestDatabase(10);
+		ReflectionTestUtils.setField(db.service, "importChunkSize", 2);
+		controller = new RecipeController();
+		controller.service = db.service;
+		controller.objectMapper = new ObjectMapper();
+	}
+
+	@Test
+	void completeBodyIsOk() {
+		byte[] body = ndjson();
+
+		ResponseEntity<?> response = controller.importRecipes(request(new ByteArrayInputStream(body)), new MockHttpServletResponse());
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		RecipeImportResultDto result = (RecipeImportResultDto) response.getBody();
+		assertEquals(LINES, result.getImported());
+		assertNull(result.getAborted());
+	}
+
+	@Test
+	void readFailureReturnsPartialResult() {
+		byte[] body = ndjson();
+		// 3번째 줄 끝까지 읽은 뒤 끊긴다.
+		int cut = 0;
+		for (int newlines = 0; newlines < 3; cut++) {
+			if (body[cut] == '\n') newlines++;
+		}
+
+		ResponseEntity<?> response = controller.importRecipes(request(new FailingInputStream(body, cut)), new MockHttpServletResponse());
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		RecipeImportResultDto result = (RecipeImportResultDto) response.getBody();
+		assertEquals(3, result.getLines());
+		assertEquals(3, result.getImported());
+		assertEquals(0, result.getFailed());
+		assertTrue(result.getAborted().startsWith("Request body read failed after line 3: connection reset"), result.getAborted());
+		assertEquals(3, db.jdbc.queryForObject("SELECT COUNT(*) FROM user_perfumes", Integer.class));
+	}
+
+	private static byte[] ndjson() {
+		StringBuilder body = new StringBuilder();
+		for (int i = 1; i <= LINES; i++) {
+			body.append("{\"userId\":").append(RecipeTestDatabase.USER_ID)
+					.append(",\"perfumeName\":\"line").append(i)
+					.append("\",\"composition\":[{\"name\":\"note1\",\"weight\":").append(i).append("}]}\n");
+		}
+		return body.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static MockHttpServletRequest request(InputStream body) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/recipe/import") {
+			@Override
+			public ServletInputStream getInputStream() {
+				return new DelegatingServletInputStream(body);
+			}
+		};
+		request.setContentType(NdjsonResultWriter.NDJSON_VALUE);
+		return request;
+	}
+
+	// limit byte까지 읽은 뒤 IOException
+	private static final class FailingInputStream extends InputStream {
+		private final byte[] bytes;
+		private final int limit;
+		private int position;
+
+		FailingInputStream(byte[] bytes, int limit) {
+			this.bytes = bytes;
+			this.limit = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (position >= limit) throw new IOException("connection reset");
+			return bytes[position++] & 0xff;
+		}
+	}
+}
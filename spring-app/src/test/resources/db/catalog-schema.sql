@@ -0,0 +1,28 @@
+-- 향수 카탈로그 테이블 (mapper에서 쓰는 column만). H2 MySQL mode 테스트용
+CREATE TABLE brand_info (id INT PRIMARY KEY, name VARCHAR(255));
+CREATE TABLE rating_info (id INT PRIMARY KEY, rating_val INT, rating_count INT);
+CREATE TABLE country_info (id INT PRIMARY KEY, country VARCHAR(255));
+CREATE TABLE perfumes (
+	id INT PRIMARY KEY,
+	name VARCHAR(255),
+	brand_id INT,
+	rating_id INT,
+	country_id INT,
+	description VARCHAR(1000),
+	gender_id INT,
+	year INT
+);
+CREATE TABLE notes (id INT PRIMARY KEY, name VARCHAR(255), korean_name VARCHAR(255), type VARCHAR(20));
+CREATE TABLE accords (id INT PRIMARY KEY, name VARCHAR(255));
+CREATE TABLE determined_notes (perfume_id INT, note_id INT, percentage FLOAT);
+CREATE INDEX determined_notes_note ON determined_notes (note_id, perfume_id);
+CREATE TABLE perfume_notes (perfume_id INT, note_id INT);
+CREATE TABLE perfume_main_accords (perfume_id INT, accord_id INT, weight INT);
+CREATE TABLE comments_info (id INT PRIMARY KEY, comment VARCHAR(1000));
+CREATE TABLE perfume_comment (perfume_id INT, comment_id INT);
+CREATE TABLE perfume_day_night (perfume_id INT, day_night VARCHAR(20), weight INT);
+CREATE TABLE longevity_info (id INT PRIMARY KEY, length VARCHAR(50));
+CREATE TABLE perfume_longevity (perfume_id INT, longevity_info_id INT, vote_num INT);
+CREATE TABLE perfume_season (perfume_id INT, season VARCHAR(20), weight INT);
+CREATE TABLE sillage_info (id INT PRIMARY KEY, strength VARCHAR(50));
+CREATE TABLE perfume_sillage (perfume_id INT, sillage_info_id INT, vote_num INT);
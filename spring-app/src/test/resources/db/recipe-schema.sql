@@ -0,0 +1,20 @@
+-- 사용자 레시피 테이블 (RecipeMapper/UserMapper에서 쓰는 column만). notes는 catalog-schema.sql과 같이 불러온다.
+CREATE TABLE user (
+	id INT AUTO_INCREMENT PRIMARY KEY,
+	user_id VARCHAR(255) UNIQUE,
+	name VARCHAR(255)
+);
+CREATE TABLE user_perfumes (
+	id INT AUTO_INCREMENT PRIMARY KEY,
+	user_id INT,
+	name VARCHAR(255),
+	description VARCHAR(1000),
+	rating_average FLOAT,
+	like_count INT DEFAULT 0
+);
+CREATE TABLE user_perfume_compositions (
+	user_perfume_id INT,
+	note_id INT,
+	weight INT,
+	PRIMARY KEY (user_perfume_id, note_id)
+);